@@ -0,0 +1,35 @@
+package org.secretjuju.kono.config;
+
+import java.util.Map;
+
+import org.secretjuju.kono.service.AccountRebuildService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// 계좌 재구성 감사/복구 관리 엔드포인트 (관리 포트의 /actuator/accountrebuild)
+@Component
+@Endpoint(id = "accountrebuild")
+public class AccountRebuildEndpoint {
+
+	private final AccountRebuildService accountRebuildService;
+
+	public AccountRebuildEndpoint(AccountRebuildService accountRebuildService) {
+		this.accountRebuildService = accountRebuildService;
+	}
+
+	// 마지막 실행 결과
+	@ReadOperation
+	public Object lastReport() {
+		AccountRebuildService.Report report = accountRebuildService.getLastReport();
+		return report != null ? report : Map.of("status", "아직 실행하지 않았습니다.");
+	}
+
+	// 감사 실행. restore=true 면 차이가 있는 계좌를 거래 내역 기준으로 복구 (최근 거래가 있는 계좌는 보고만)
+	@WriteOperation
+	public AccountRebuildService.Report rebuild(@Nullable Boolean restore) {
+		return accountRebuildService.rebuild(Boolean.TRUE.equals(restore));
+	}
+}
@@ -0,0 +1,32 @@
+package org.secretjuju.kono.config;
+
+import java.util.Map;
+
+import org.secretjuju.kono.service.CoinCatalogService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+// 코인 목록 조회/재로드 관리 엔드포인트 (관리 포트의 /actuator/coincatalog)
+@Component
+@Endpoint(id = "coincatalog")
+public class CoinCatalogEndpoint {
+
+	private final CoinCatalogService coinCatalogService;
+
+	public CoinCatalogEndpoint(CoinCatalogService coinCatalogService) {
+		this.coinCatalogService = coinCatalogService;
+	}
+
+	@ReadOperation
+	public Map<String, Object> status() {
+		return Map.of("coins", coinCatalogService.size());
+	}
+
+	// coin_info 변경 후 호출
+	@WriteOperation
+	public Map<String, Object> reload() {
+		return Map.of("coins", coinCatalogService.reload());
+	}
+}
@@ -0,0 +1,91 @@
+package org.secretjuju.kono.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * 외부 HTTP 호출(업비트, 카카오)에 쓰는 클라이언트 설정. 호스트마다 Reactor Netty 커넥션 풀을 따로 두고 keep-alive 연결을 재사용하며, 가능하면 HTTP/2 를 쓴다.
+ *
+ * <p>
+ * 호스트별로 연결/응답/풀 대기 타임아웃을 둔다. 응답 시간 히스토그램(reactor.netty.http.client.*)과 풀 사용량 게이지(reactor.netty.connection.provider.*)는 풀
+ * 이름과 원격 주소 태그로 구분되어 Micrometer 에 기록된다.
+ */
+@Configuration
+public class OutboundHttpConfig {
+
+	@Value("${outbound.upbit.max-connections:50}")
+	private int upbitMaxConnections;
+
+	@Value("${outbound.upbit.connect-timeout-ms:1000}")
+	private int upbitConnectTimeoutMillis;
+
+	@Value("${outbound.upbit.read-timeout-ms:3000}")
+	private long upbitReadTimeoutMillis;
+
+	@Value("${outbound.upbit.acquire-timeout-ms:1000}")
+	private long upbitAcquireTimeoutMillis;
+
+	@Value("${outbound.kakao.max-connections:10}")
+	private int kakaoMaxConnections;
+
+	@Value("${outbound.kakao.connect-timeout-ms:2000}")
+	private int kakaoConnectTimeoutMillis;
+
+	@Value("${outbound.kakao.read-timeout-ms:5000}")
+	private long kakaoReadTimeoutMillis;
+
+	@Value("${outbound.kakao.acquire-timeout-ms:2000}")
+	private long kakaoAcquireTimeoutMillis;
+
+	// 풀에서 이 시간 이상 쉬고 있던 연결은 닫는다 (서버가 먼저 끊은 연결 재사용 방지)
+	@Value("${outbound.max-idle-ms:30000}")
+	private long maxIdleMillis;
+
+	// 업비트 REST 호출용 (UpbitService, CoinPriceService)
+	@Bean
+	public RestTemplate restTemplate(RestTemplateBuilder builder) {
+		HttpClient upbitClient = httpClient("upbit", upbitMaxConnections, upbitConnectTimeoutMillis,
+				upbitReadTimeoutMillis, upbitAcquireTimeoutMillis);
+		return builder.requestFactory(() -> new ReactorClientHttpRequestFactory(upbitClient)).build();
+	}
+
+	// 카카오 API 호출용 (UserService)
+	@Bean
+	public WebClient webClient() {
+		HttpClient kakaoClient = httpClient("kakao", kakaoMaxConnections, kakaoConnectTimeoutMillis,
+				kakaoReadTimeoutMillis, kakaoAcquireTimeoutMillis);
+		return WebClient.builder().clientConnector(new ReactorClientHttpConnector(kakaoClient))
+				.baseUrl("https://kapi.kakao.com")
+				.defaultHeader("Content-Type", "application/x-www-form-urlencoded").build();
+	}
+
+	private HttpClient httpClient(String name, int maxConnections, int connectTimeoutMillis, long readTimeoutMillis,
+			long acquireTimeoutMillis) {
+		ConnectionProvider pool = ConnectionProvider.builder(name).maxConnections(maxConnections)
+				.pendingAcquireTimeout(Duration.ofMillis(acquireTimeoutMillis))
+				.pendingAcquireMaxCount(maxConnections * 4).maxIdleTime(Duration.ofMillis(maxIdleMillis))
+				.evictInBackground(Duration.ofMillis(maxIdleMillis)).metrics(true).build();
+
+		return HttpClient.create(pool).protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis).keepAlive(true)
+				.responseTimeout(Duration.ofMillis(readTimeoutMillis))
+				// 쿼리 문자열(마켓 목록 등)은 태그에서 빼서 메트릭 카디널리티를 제한
+				.metrics(true, uri -> {
+					int query = uri.indexOf('?');
+					return query >= 0 ? uri.substring(0, query) : uri;
+				});
+	}
+}
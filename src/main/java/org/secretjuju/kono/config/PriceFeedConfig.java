@@ -0,0 +1,33 @@
+package org.secretjuju.kono.config;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+
+import org.secretjuju.kono.service.PriceFeedTransport;
+import org.secretjuju.kono.service.StubPriceFeedTransport;
+import org.secretjuju.kono.service.UpbitWebSocketTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Configuration
+public class PriceFeedConfig {
+
+	// upbit: 업비트 WebSocket, stub: 로컬 랜덤워크 피드 (테스트/벤치마크용)
+	@Bean
+	public PriceFeedTransport priceFeedTransport(ObjectMapper objectMapper,
+			@Value("${upbit.stream.transport:upbit}") String transport,
+			@Value("${upbit.stream.url:wss://api.upbit.com/websocket/v1}") String url,
+			@Value("${upbit.stream.stub-interval-ms:100}") long stubIntervalMillis) {
+		if ("stub".equalsIgnoreCase(transport)) {
+			log.info("스텁 시세 피드 사용: {}ms 간격", stubIntervalMillis);
+			return new StubPriceFeedTransport(stubIntervalMillis);
+		}
+		return new UpbitWebSocketTransport(HttpClient.newHttpClient(), URI.create(url), objectMapper);
+	}
+}
@@ -2,6 +2,7 @@ package org.secretjuju.kono.config;
 
 import org.secretjuju.kono.service.CoinPriceService;
 import org.secretjuju.kono.service.RankingService;
+import org.secretjuju.kono.service.UpbitPriceStreamService;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -15,10 +16,13 @@ import lombok.extern.slf4j.Slf4j;
 public class RankingScheduler {
 	private final RankingService rankingService;
 	private final CoinPriceService coinPriceService;
+	private final UpbitPriceStreamService upbitPriceStreamService;
 
-	public RankingScheduler(RankingService rankingService, CoinPriceService coinPriceService) {
+	public RankingScheduler(RankingService rankingService, CoinPriceService coinPriceService,
+			UpbitPriceStreamService upbitPriceStreamService) {
 		this.rankingService = rankingService;
 		this.coinPriceService = coinPriceService;
+		this.upbitPriceStreamService = upbitPriceStreamService;
 	}
 
 	// 애플리케이션 시작 시 실행되는 초기화 메소드
@@ -47,6 +51,11 @@ public class RankingScheduler {
 	}
 
 	private boolean updateCoinPrices() {
+		// 실시간 스트림이 정상이면 가격표가 이미 최신이므로 REST 일괄 조회를 생략
+		if (upbitPriceStreamService.isHealthy()) {
+			log.info("실시간 시세 스트림 정상 - REST 가격 업데이트 생략");
+			return true;
+		}
 		try {
 			coinPriceService.updateAllCoinPrices();
 			log.info("코인 가격 업데이트 완료");
@@ -2,27 +2,46 @@ package org.secretjuju.kono.controller;
 
 import java.util.List;
 
+import org.secretjuju.kono.dto.request.CoinBatchOrderRequestDto;
 import org.secretjuju.kono.dto.request.CoinRequestDto;
 import org.secretjuju.kono.dto.request.CoinSellBuyRequestDto;
+import org.secretjuju.kono.dto.request.RestingOrderRequestDto;
 import org.secretjuju.kono.dto.response.ApiResponseDto;
+import org.secretjuju.kono.dto.response.CandleResponseDto;
+import org.secretjuju.kono.dto.response.CoinBatchOrderResultDto;
 import org.secretjuju.kono.dto.response.CoinInfoResponseDto;
+import org.secretjuju.kono.dto.response.CoinOrderResponseDto;
 import org.secretjuju.kono.dto.response.CoinResponseDto;
+import org.secretjuju.kono.dto.response.RestingOrderResponseDto;
+import org.secretjuju.kono.service.CoinPriceService;
 import org.secretjuju.kono.service.CoinService;
+import org.secretjuju.kono.service.OrderIdempotencyService;
+import org.secretjuju.kono.service.RestingOrderService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/api/v1/coins")
 public class CoinController {
 	public final CoinService coinService;
+	private final CoinPriceService coinPriceService;
+	private final OrderIdempotencyService orderIdempotencyService;
+	private final RestingOrderService restingOrderService;
 
-	public CoinController(CoinService coinService) {
+	public CoinController(CoinService coinService, CoinPriceService coinPriceService,
+			OrderIdempotencyService orderIdempotencyService, RestingOrderService restingOrderService) {
 		this.coinService = coinService;
+		this.coinPriceService = coinPriceService;
+		this.orderIdempotencyService = orderIdempotencyService;
+		this.restingOrderService = restingOrderService;
 	}
 
 	@GetMapping("")
@@ -39,10 +58,54 @@ public class CoinController {
 		return coinResponseDto;
 	}
 
+	// 서버에서 집계한 캔들 조회 (최신순)
+	@GetMapping("/{ticker}/candles")
+	public ResponseEntity<ApiResponseDto<List<CandleResponseDto>>> getCandles(@PathVariable String ticker,
+			@RequestParam(defaultValue = "1m") String interval, @RequestParam(defaultValue = "200") int limit) {
+		List<CandleResponseDto> candles = coinPriceService.getCandles(ticker, interval, limit);
+		return ResponseEntity.ok(new ApiResponseDto<>("Candles retrieved", candles));
+	}
+
+	// Idempotency-Key 가 있으면 같은 키로 재시도한 주문은 다시 체결하지 않고 처음 결과를 돌려준다
 	@PostMapping("/orders")
-	public ResponseEntity<ApiResponseDto<Object>> createCoinOrder(
+	public ResponseEntity<ApiResponseDto<CoinOrderResponseDto>> createCoinOrder(
+			@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
 			@RequestBody CoinSellBuyRequestDto coinSellBuyRequestDto) {
-		coinService.createCoinOrder(coinSellBuyRequestDto);
-		return ResponseEntity.ok(new ApiResponseDto<>("Transaction coin success", null));
+		if (idempotencyKey == null) {
+			CoinOrderResponseDto coinOrderResponseDto = coinService.createCoinOrder(coinSellBuyRequestDto);
+			return ResponseEntity.ok(new ApiResponseDto<>("Transaction coin success", coinOrderResponseDto));
+		}
+		OrderIdempotencyService.Result result = orderIdempotencyService.execute(idempotencyKey, coinSellBuyRequestDto,
+				() -> coinService.createCoinOrder(coinSellBuyRequestDto));
+		return ResponseEntity.ok().header("Idempotent-Replayed", String.valueOf(result.isReplayed()))
+				.body(new ApiResponseDto<>("Transaction coin success", result.getResponse()));
+	}
+
+	// 여러 주문을 한 번에 체결 (주문별 성공/실패를 요청 순서대로 반환)
+	@PostMapping("/orders/batch")
+	public ResponseEntity<ApiResponseDto<List<CoinBatchOrderResultDto>>> createCoinOrders(
+			@RequestBody CoinBatchOrderRequestDto coinBatchOrderRequestDto) {
+		List<CoinBatchOrderResultDto> results = coinService.createCoinOrders(coinBatchOrderRequestDto);
+		return ResponseEntity.ok(new ApiResponseDto<>("Batch transaction processed", results));
+	}
+
+	// 지정가/스탑 대기 주문 등록 (시세가 발동 가격을 넘으면 체결)
+	@PostMapping("/orders/resting")
+	public ResponseEntity<ApiResponseDto<RestingOrderResponseDto>> placeRestingOrder(
+			@RequestBody RestingOrderRequestDto restingOrderRequestDto) {
+		RestingOrderResponseDto order = restingOrderService.placeOrder(restingOrderRequestDto);
+		return ResponseEntity.ok(new ApiResponseDto<>("Resting order placed", order));
+	}
+
+	@GetMapping("/orders/resting")
+	public ResponseEntity<ApiResponseDto<List<RestingOrderResponseDto>>> getRestingOrders() {
+		List<RestingOrderResponseDto> orders = restingOrderService.getOpenOrders();
+		return ResponseEntity.ok(new ApiResponseDto<>("Resting orders retrieved", orders));
+	}
+
+	@DeleteMapping("/orders/resting/{orderId}")
+	public ResponseEntity<ApiResponseDto<Void>> cancelRestingOrder(@PathVariable Long orderId) {
+		restingOrderService.cancelOrder(orderId);
+		return ResponseEntity.ok(new ApiResponseDto<>("Resting order cancelled", null));
 	}
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package org.secretjuju.kono.controller;
+
+import java.util.List;
+
+import org.secretjuju.kono.dto.response.PriceStreamResponseDto;
+import org.secretjuju.kono.service.PriceStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/v1/prices")
+public class PriceStreamController {
+
+	private final PriceStreamService priceStreamService;
+
+	public PriceStreamController(PriceStreamService priceStreamService) {
+		this.priceStreamService = priceStreamService;
+	}
+
+	// 바뀐 시세 실시간 구독 (SSE). tickers 를 생략하면 전체 코인
+	@GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public Flux<ServerSentEvent<PriceStreamResponseDto>> streamPrices(
+			@RequestParam(required = false) List<String> tickers) {
+		return priceStreamService.subscribe(tickers);
+	}
+}
@@ -1,7 +1,7 @@
 package org.secretjuju.kono.controller;
 
 import org.secretjuju.kono.dto.response.TickerResponse;
-import org.secretjuju.kono.service.UpbitService;
+import org.secretjuju.kono.service.TickerCacheService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,15 +12,15 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/v1")
 public class UpbitController {
 
-	private final UpbitService upbitService;
+	private final TickerCacheService tickerCacheService;
 
-	public UpbitController(UpbitService upbitService) {
-		this.upbitService = upbitService;
+	public UpbitController(TickerCacheService tickerCacheService) {
+		this.tickerCacheService = tickerCacheService;
 	}
 
 	@GetMapping("/ticker/{market}")
 	public ResponseEntity<TickerResponse> getTicker(@PathVariable String market) {
-		TickerResponse ticker = upbitService.getTicker(market);
+		TickerResponse ticker = tickerCacheService.getTicker(market);
 		return ResponseEntity.ok(ticker);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package org.secretjuju.kono.dto.request;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class CoinBatchOrderRequestDto {
+	private List<CoinSellBuyRequestDto> orders; // 요청 순서대로 체결
+}
@@ -0,0 +1,17 @@
+package org.secretjuju.kono.dto.request;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class RestingOrderRequestDto {
+	private String ticker; // 코인 티커
+	private String orderType; // "buy" 또는 "sell"
+	private String triggerType; // "limit" 또는 "stop"
+	private Double triggerPrice; // 발동 가격
+	private Long orderAmount; // 주문 금액 (원화), 수량과 둘 중 하나
+	private Double orderQuantity; // 코인 수량
+}
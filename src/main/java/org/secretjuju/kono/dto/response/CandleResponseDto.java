@@ -0,0 +1,21 @@
+package org.secretjuju.kono.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandleResponseDto {
+	private String ticker;
+	private String interval;
+	private long openTime; // 캔들 시작 시각 (epoch millis, UTC 정렬)
+	private double open;
+	private double high;
+	private double low;
+	private double close;
+	private double volume;
+}
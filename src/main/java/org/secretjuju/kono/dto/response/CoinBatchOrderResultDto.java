@@ -0,0 +1,20 @@
+package org.secretjuju.kono.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoinBatchOrderResultDto {
+	private int index; // 요청 목록에서의 순서
+	private String ticker;
+	private String orderType;
+	private boolean success;
+	private Integer errorStatus; // 실패한 경우 단건 주문과 같은 오류 코드
+	private String errorMessage;
+	private CoinOrderResponseDto order; // 성공한 경우 체결 결과
+}
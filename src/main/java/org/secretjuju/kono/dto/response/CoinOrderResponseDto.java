@@ -0,0 +1,20 @@
+package org.secretjuju.kono.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoinOrderResponseDto {
+	private String ticker;
+	private String orderType;
+	private Double orderQuantity;
+	private Double orderPrice;
+	private Long orderAmount;
+	private String priceSource; // CACHE: 서버 가격표, UPBIT: 업비트 실시간 조회, FALLBACK: 업비트 장애 시 마지막 정상 시세, TRIGGER: 대기 주문 발동 시세
+	private long priceAgeMs; // 체결에 사용한 시세의 나이
+}
@@ -13,4 +13,9 @@ public class CoinResponseDto {
 		this.ticker = coinInfo.getTicker();
 		this.kr_coin_name = coinInfo.getKrCoinName();
 	}
+
+	public CoinResponseDto(String ticker, String krCoinName) {
+		this.ticker = ticker;
+		this.kr_coin_name = krCoinName;
+	}
 }
\ No newline at end of file
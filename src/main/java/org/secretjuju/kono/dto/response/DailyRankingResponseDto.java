@@ -19,5 +19,7 @@ public class DailyRankingResponseDto {
 	private Double profitRate;
 	private int rank;
 	private ZonedDateTime updatedAt;
+	private Long priceEpoch;
+	private ZonedDateTime pricedAt;
 
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package org.secretjuju.kono.dto.response;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceStreamResponseDto {
+	private long epoch; // 가격 스냅샷 순번
+	private Map<String, Double> prices; // 지난 전송 이후 바뀐 시세 (BTC 형식 심볼 -> 가격)
+}
@@ -0,0 +1,24 @@
+package org.secretjuju.kono.dto.response;
+
+import java.time.ZonedDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RestingOrderResponseDto {
+	private Long id;
+	private String ticker;
+	private String orderType;
+	private String triggerType;
+	private Double triggerPrice;
+	private Long orderAmount;
+	private Double orderQuantity;
+	private String status; // OPEN, FILLED, CANCELLED, REJECTED
+	private ZonedDateTime createdAt;
+}
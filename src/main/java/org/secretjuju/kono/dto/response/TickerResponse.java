@@ -10,4 +10,6 @@ import lombok.NoArgsConstructor;
 public class TickerResponse {
 	private String market;
 	private Double trade_price;
-}
\ No newline at end of file
+	private Long timestamp; // 시세 시각 (epoch millis)
+	private boolean stale; // 업비트 조회에 실패해 마지막 정상 시세를 대신 반환한 경우 true
+}
@@ -19,4 +19,6 @@ public class TotalRankingResponseDto {
 	private Long profit;
 	private int rank;
 	private ZonedDateTime updatedAt;
+	private Long priceEpoch;
+	private ZonedDateTime pricedAt;
 }
\ No newline at end of file
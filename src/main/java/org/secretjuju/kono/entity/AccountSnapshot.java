@@ -0,0 +1,40 @@
+package org.secretjuju.kono.entity;
+
+import java.time.ZonedDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// 거래 내역 재생 결과 스냅샷 (covered_until 이전 거래까지 반영, 재구성은 그 이후만 재생)
+@Entity
+@Table(name = "account_snapshot")
+@Getter
+@Setter
+@NoArgsConstructor
+public class AccountSnapshot {
+
+	@Id
+	@Column(name = "user_id")
+	private Integer userId;
+
+	@Column(name = "cash_balance", nullable = false)
+	private long cashBalance; // 현금 잔액 (원)
+
+	// 보유 코인 목록 (코인 ID int, 수량 long (CoinUnits 단위), 매수 금액 long 반복)
+	@Column(name = "holdings", nullable = false, columnDefinition = "BLOB")
+	private byte[] holdings;
+
+	@Column(name = "covered_until", nullable = false)
+	private ZonedDateTime coveredUntil;
+
+	@Column(name = "transaction_count", nullable = false)
+	private long transactionCount;
+
+	@Column(name = "updated_at", nullable = false)
+	private ZonedDateTime updatedAt;
+}
@@ -9,6 +9,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -29,5 +30,10 @@ public class CashBalance {
 	private User user;
 
 	@Column(name = "balance", nullable = false, columnDefinition = "BIGINT UNSIGNED DEFAULT 10000000")
-	private Long balance = 10000000L; // 현금 잔액
+	private long balance = 10000000L; // 현금 잔액 (원)
+
+	// optimistic 주문 모드에서 동시 수정 감지
+	@Version
+	@Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+	private Long version;
 }
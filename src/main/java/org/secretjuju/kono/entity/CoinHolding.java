@@ -1,6 +1,7 @@
 package org.secretjuju.kono.entity;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -9,6 +10,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -32,9 +34,16 @@ public class CoinHolding {
 	@JoinColumn(name = "coin_id", nullable = false)
 	private CoinInfo coinInfo;
 
+	@Convert(converter = CoinQuantityConverter.class)
 	@Column(name = "holding_quantity", nullable = false, columnDefinition = "DOUBLE DEFAULT 0.0")
-	private Double holdingQuantity = 0.0; // 보유 코인 수량
+	private long holdingUnits; // 보유 코인 수량 (CoinUnits 단위)
 
+	@Convert(converter = KrwAmountConverter.class)
 	@Column(name = "holding_price", nullable = false, columnDefinition = "DOUBLE DEFAULT 0.0")
-	private Double holdingPrice = 0.0; // 매수 금액
+	private long holdingCost; // 매수 금액 (원)
+
+	// optimistic 주문 모드에서 동시 수정 감지
+	@Version
+	@Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+	private Long version;
 }
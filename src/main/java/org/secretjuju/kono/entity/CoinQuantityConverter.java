@@ -0,0 +1,21 @@
+package org.secretjuju.kono.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * 코인 단위 수량(long) <-> 기존 DOUBLE 수량 컬럼. 컬럼에는 항상 단위 배수만 저장되므로 다시 읽어도 같은 단위가 된다.
+ */
+@Converter
+public class CoinQuantityConverter implements AttributeConverter<Long, Double> {
+
+	@Override
+	public Double convertToDatabaseColumn(Long units) {
+		return units == null ? 0.0 : CoinUnits.toQuantity(units);
+	}
+
+	@Override
+	public Long convertToEntityAttribute(Double quantity) {
+		return quantity == null ? 0L : CoinUnits.toUnits(quantity);
+	}
+}
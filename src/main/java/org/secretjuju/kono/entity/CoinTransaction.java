@@ -3,11 +3,13 @@ package org.secretjuju.kono.entity;
 import java.time.ZonedDateTime;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -16,7 +18,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "coin_transaction")
+// 사용자별 체결 순 조회 (계좌 재구성)
+@Table(name = "coin_transaction", indexes = @Index(name = "idx_coin_transaction_user_created", columnList = "user_id, created_at, id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -37,16 +40,17 @@ public class CoinTransaction {
 	@Column(name = "order_type", nullable = false, length = 20)
 	private String orderType;
 
+	@Convert(converter = CoinQuantityConverter.class)
 	@Column(name = "order_quantity", nullable = false)
-	private Double orderQuantity;
+	private long orderUnits; // 주문 수량 (CoinUnits 단위)
 
 	@Column(name = "order_price", nullable = false)
-	private Double orderPrice;
+	private double orderPrice;
 
 	@Column(name = "created_at", nullable = false, columnDefinition = "DATETIME DEFAULT CURRENT_TIMESTAMP")
 	private ZonedDateTime createdAt;
 
 	@Column(name = "order_amount", nullable = false, columnDefinition = "BIGINT UNSIGNED")
-	private Long orderAmount;
+	private long orderAmount;
 
 }
@@ -0,0 +1,43 @@
+package org.secretjuju.kono.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 코인 수량 고정 소수점 표현.
+ *
+ * <p>
+ * 1 코인 = 10^8 단위(사토시 단위)로 long 에 담는다. 보유량/주문 수량은 단위끼리 정수 연산만 하므로 오차가 쌓이지 않는다. 원화 금액은 long 원 단위이며, 수량과 시세를
+ * 곱하거나 금액을 시세로 나눌 때는 시세(double)를 십진 표현 그대로 BigDecimal 로 옮겨 정확히 계산한 뒤 한 번만 반올림/내림한다. DB 의 수량/시세 컬럼은 DOUBLE 그대로이며
+ * 읽고 쓸 때만 변환한다.
+ */
+public final class CoinUnits {
+
+	public static final long UNITS_PER_COIN = 100_000_000L;
+	private static final int UNIT_SCALE = 8;
+
+	private CoinUnits() {
+	}
+
+	// 수량 -> 단위 (가장 가까운 단위로 반올림)
+	public static long toUnits(double quantity) {
+		return Math.round(quantity * UNITS_PER_COIN);
+	}
+
+	// 단위 -> 수량 (응답/DB 컬럼용)
+	public static double toQuantity(long units) {
+		return (double) units / UNITS_PER_COIN;
+	}
+
+	// 단위 수량의 원화 가치 (원 미만 반올림)
+	public static long value(long units, double price) {
+		return BigDecimal.valueOf(units).multiply(BigDecimal.valueOf(price)).movePointLeft(UNIT_SCALE)
+				.setScale(0, RoundingMode.HALF_UP).longValueExact();
+	}
+
+	// 주문 금액으로 살 수 있는 단위 수량 (단위 미만 내림)
+	public static long unitsFor(long amount, double price) {
+		return BigDecimal.valueOf(amount).movePointRight(UNIT_SCALE)
+				.divide(BigDecimal.valueOf(price), 0, RoundingMode.FLOOR).longValueExact();
+	}
+}
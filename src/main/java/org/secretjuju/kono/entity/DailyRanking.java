@@ -46,6 +46,12 @@ public class DailyRanking {
 	@Column(name = "updated_at", nullable = false, columnDefinition = "DATETIME DEFAULT CURRENT_TIMESTAMP")
 	private ZonedDateTime updatedAt;
 
+	@Column(name = "price_epoch")
+	private Long priceEpoch; // 자산 평가에 사용한 가격 스냅샷 순번
+
+	@Column(name = "priced_at", columnDefinition = "DATETIME")
+	private ZonedDateTime pricedAt; // 자산 평가에 사용한 가격 스냅샷 시각
+
 	// 초기 자산 금액 (모든 사용자는 1천만원으로 시작)
 	public static final long INITIAL_ASSET = 10000000L;
 
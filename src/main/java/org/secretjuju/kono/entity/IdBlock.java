@@ -0,0 +1,25 @@
+package org.secretjuju.kono.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// 애플리케이션이 직접 배정하는 ID 의 다음 블록 시작값 (hi/lo)
+@Entity
+@Table(name = "id_block")
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdBlock {
+
+	@Id
+	@Column(name = "name", length = 64)
+	private String name;
+
+	@Column(name = "next_id", nullable = false)
+	private Long nextId;
+}
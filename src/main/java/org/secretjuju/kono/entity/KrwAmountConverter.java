@@ -0,0 +1,21 @@
+package org.secretjuju.kono.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * 원화 금액(long) <-> 기존 DOUBLE 금액 컬럼. 원 미만은 반올림한다.
+ */
+@Converter
+public class KrwAmountConverter implements AttributeConverter<Long, Double> {
+
+	@Override
+	public Double convertToDatabaseColumn(Long amount) {
+		return amount == null ? 0.0 : amount.doubleValue();
+	}
+
+	@Override
+	public Long convertToEntityAttribute(Double amount) {
+		return amount == null ? 0L : Math.round(amount);
+	}
+}
@@ -0,0 +1,62 @@
+package org.secretjuju.kono.entity;
+
+import java.time.ZonedDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// 체결된 주문 이벤트 (주문과 같은 트랜잭션에서 기록, 모든 구독자에게 전달된 뒤 릴레이가 삭제)
+@Entity
+@Table(name = "order_outbox", indexes = {@Index(name = "idx_order_outbox_user", columnList = "user_id, id"),
+		@Index(name = "idx_order_outbox_relay_seq", columnList = "relay_seq")})
+@Getter
+@Setter
+@NoArgsConstructor
+public class OrderOutbox {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	// 릴레이가 커밋된 행에 붙이는 전달 순번 (IDENTITY 값은 커밋 순서와 다를 수 있어 전달 위치로 쓰지 않음)
+	@Column(name = "relay_seq")
+	private Long relaySeq;
+
+	@Column(name = "transaction_id")
+	private Integer transactionId; // 이 주문의 거래 내역(coin_transaction) ID
+
+	@Column(name = "user_id", nullable = false)
+	private int userId;
+
+	@Column(name = "coin_id", nullable = false)
+	private int coinId;
+
+	@Column(name = "order_type", nullable = false, length = 20)
+	private String orderType;
+
+	@Column(name = "order_units", nullable = false)
+	private long orderUnits; // 주문 수량 (CoinUnits 단위)
+
+	@Column(name = "order_price", nullable = false)
+	private double orderPrice;
+
+	@Column(name = "order_amount", nullable = false)
+	private long orderAmount;
+
+	@Column(name = "cash_balance", nullable = false)
+	private long cashBalance; // 체결 후 현금 잔액
+
+	@Column(name = "holding_units", nullable = false)
+	private long holdingUnits; // 체결 후 이 코인 보유 수량 (CoinUnits 단위)
+
+	@Column(name = "created_at", nullable = false)
+	private ZonedDateTime createdAt;
+}
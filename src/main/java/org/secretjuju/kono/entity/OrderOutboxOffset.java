@@ -0,0 +1,30 @@
+package org.secretjuju.kono.entity;
+
+import java.time.ZonedDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// 구독자별 주문 아웃박스 전달 위치 (모든 구독자가 넘긴 행만 삭제)
+@Entity
+@Table(name = "order_outbox_offset")
+@Getter
+@Setter
+@NoArgsConstructor
+public class OrderOutboxOffset {
+
+	@Id
+	@Column(name = "subscriber", length = 64)
+	private String subscriber;
+
+	@Column(name = "last_seq", nullable = false)
+	private Long lastSeq; // 처리를 마친 마지막 릴레이 순번
+
+	@Column(name = "updated_at")
+	private ZonedDateTime updatedAt;
+}
@@ -0,0 +1,73 @@
+package org.secretjuju.kono.entity;
+
+import java.time.ZonedDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// 지정가(limit) / 스탑(stop) 대기 주문
+@Entity
+@Table(name = "resting_order", indexes = @Index(name = "idx_resting_order_status", columnList = "status"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class RestingOrder {
+
+	public static final String OPEN = "OPEN";
+	public static final String FILLED = "FILLED";
+	public static final String CANCELLED = "CANCELLED";
+	public static final String REJECTED = "REJECTED";
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "user_id", nullable = false)
+	private User user;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "coin_info_id", nullable = false)
+	private CoinInfo coinInfo;
+
+	@Column(name = "order_type", nullable = false, length = 20)
+	private String orderType; // buy, sell
+
+	@Column(name = "trigger_type", nullable = false, length = 20)
+	private String triggerType; // limit, stop
+
+	@Column(name = "trigger_price", nullable = false)
+	private Double triggerPrice;
+
+	@Column(name = "order_quantity")
+	private Double orderQuantity; // 수량 또는 금액 중 하나
+
+	@Column(name = "order_amount", columnDefinition = "BIGINT UNSIGNED")
+	private Long orderAmount;
+
+	@Column(name = "status", nullable = false, length = 20)
+	private String status = OPEN;
+
+	@Column(name = "filled_price")
+	private Double filledPrice;
+
+	@Column(name = "close_reason")
+	private String closeReason; // 거절 사유
+
+	@Column(name = "created_at", nullable = false, columnDefinition = "DATETIME DEFAULT CURRENT_TIMESTAMP")
+	private ZonedDateTime createdAt;
+
+	@Column(name = "closed_at")
+	private ZonedDateTime closedAt;
+}
@@ -1,5 +1,7 @@
 package org.secretjuju.kono.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.secretjuju.kono.entity.CashBalance;
@@ -17,4 +19,16 @@ public interface CashBalanceRepository extends JpaRepository<CashBalance, Long>
 	@Lock(LockModeType.PESSIMISTIC_WRITE)
 	@Query("SELECT cb FROM CashBalance cb WHERE cb.user = :user")
 	Optional<CashBalance> findByUserWithLock(@Param("user") User user);
+
+	// 주문 컨텍스트: 현금 잔액과 주문 코인들의 보유 정보를 한 번에 조회 ([CashBalance, CoinHolding 또는 null] 행)
+	@Query("SELECT cb, ch FROM CashBalance cb JOIN cb.user u "
+			+ "LEFT JOIN CoinHolding ch ON ch.user = u AND ch.coinInfo.id IN :coinIds WHERE u.kakaoId = :kakaoId")
+	List<Object[]> findOrderContext(@Param("kakaoId") Long kakaoId, @Param("coinIds") Collection<Integer> coinIds);
+
+	// 위와 같은 조회를 행 락과 함께 (현금 잔액과 보유 정보를 한 문장에서 잠근다)
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT cb, ch FROM CashBalance cb JOIN cb.user u "
+			+ "LEFT JOIN CoinHolding ch ON ch.user = u AND ch.coinInfo.id IN :coinIds WHERE u.kakaoId = :kakaoId")
+	List<Object[]> findOrderContextWithLock(@Param("kakaoId") Long kakaoId,
+			@Param("coinIds") Collection<Integer> coinIds);
 }
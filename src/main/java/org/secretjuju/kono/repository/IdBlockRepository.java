@@ -0,0 +1,26 @@
+package org.secretjuju.kono.repository;
+
+import java.util.Optional;
+
+import org.secretjuju.kono.entity.IdBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface IdBlockRepository extends JpaRepository<IdBlock, String> {
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT b FROM IdBlock b WHERE b.name = :name")
+	Optional<IdBlock> findByNameWithLock(@Param("name") String name);
+
+	// 블록 행이 없을 때만 만든다 (여러 인스턴스가 동시에 불러도 하나만 생김)
+	@Modifying
+	@Query(value = "INSERT INTO id_block (name, next_id) VALUES (:name, :nextId) ON DUPLICATE KEY UPDATE name = name",
+			nativeQuery = true)
+	int seed(@Param("name") String name, @Param("nextId") long nextId);
+}
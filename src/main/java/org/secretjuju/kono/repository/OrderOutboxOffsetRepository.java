@@ -0,0 +1,35 @@
+package org.secretjuju.kono.repository;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+import org.secretjuju.kono.entity.OrderOutboxOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderOutboxOffsetRepository extends JpaRepository<OrderOutboxOffset, String> {
+	// 처음 보는 구독자는 처음부터 (이미 있으면 그대로)
+	@Modifying
+	@Query(value = "INSERT IGNORE INTO order_outbox_offset (subscriber, last_seq, updated_at) "
+			+ "VALUES (:subscriber, 0, NOW())", nativeQuery = true)
+	int register(@Param("subscriber") String subscriber);
+
+	// 전달 위치를 잠근다. 다른 인스턴스가 이미 잠갔으면 기다리지 않고 빈 값
+	@Query(value = "SELECT last_seq FROM order_outbox_offset WHERE subscriber = :subscriber "
+			+ "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+	Optional<Long> lockLastSeq(@Param("subscriber") String subscriber);
+
+	@Modifying
+	@Query("UPDATE OrderOutboxOffset o SET o.lastSeq = :lastSeq, o.updatedAt = :updatedAt "
+			+ "WHERE o.subscriber = :subscriber")
+	int advance(@Param("subscriber") String subscriber, @Param("lastSeq") long lastSeq,
+			@Param("updatedAt") ZonedDateTime updatedAt);
+
+	// 모든 인스턴스의 모든 구독자가 처리를 마친 위치 (구독자를 없앨 때는 그 행도 지운다)
+	@Query("SELECT MIN(o.lastSeq) FROM OrderOutboxOffset o")
+	Long findMinLastSeq();
+}
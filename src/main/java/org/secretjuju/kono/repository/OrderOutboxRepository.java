@@ -0,0 +1,46 @@
+package org.secretjuju.kono.repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.secretjuju.kono.entity.OrderOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutbox, Long> {
+	// 릴레이 순번이 없는 커밋된 행 (아직 커밋되지 않아 잠긴 행은 건너뛴다)
+	@Query(value = "SELECT id FROM order_outbox WHERE relay_seq IS NULL ORDER BY id LIMIT :limit "
+			+ "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+	List<Long> lockUnsequenced(@Param("limit") int limit);
+
+	// ids 에 base 부터 id 순으로 증가하는 릴레이 순번을 붙인다
+	@Modifying
+	@Query("UPDATE OrderOutbox o SET o.relaySeq = :base + o.id - :firstId WHERE o.id IN :ids")
+	int assignSequence(@Param("base") long base, @Param("firstId") long firstId, @Param("ids") List<Long> ids);
+
+	// 구독자가 아직 받지 않은 이벤트 (릴레이 순번 순)
+	List<OrderOutbox> findByRelaySeqGreaterThanOrderByRelaySeqAsc(long relaySeq, Pageable pageable);
+
+	// 사용자의 아직 거래 내역으로 저장되지 않은 이벤트 (순번을 받지 못한 행 포함)
+	@Query("SELECT o FROM OrderOutbox o WHERE o.userId = :userId AND o.transactionId IS NOT NULL "
+			+ "AND (o.relaySeq IS NULL OR o.relaySeq > :after) ORDER BY o.id")
+	List<OrderOutbox> findLedgerPending(@Param("userId") int userId, @Param("after") long after);
+
+	// 아직 coin_transaction 에 저장되지 않은 거래 기록 중 가장 오래된 체결 시각
+	@Query("SELECT MIN(o.createdAt) FROM OrderOutbox o WHERE o.transactionId IS NOT NULL "
+			+ "AND (o.relaySeq IS NULL OR o.relaySeq > :after)")
+	ZonedDateTime findOldestLedgerPending(@Param("after") long after);
+
+	@Query("SELECT COUNT(o) FROM OrderOutbox o WHERE o.relaySeq IS NULL OR o.relaySeq > :after")
+	long countUndelivered(@Param("after") long after);
+
+	// 모든 구독자가 처리를 마친 이벤트 삭제
+	@Modifying
+	@Query("DELETE FROM OrderOutbox o WHERE o.relaySeq <= :relaySeq")
+	int deleteUpTo(@Param("relaySeq") long relaySeq);
+}
@@ -0,0 +1,33 @@
+package org.secretjuju.kono.repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.secretjuju.kono.entity.RestingOrder;
+import org.secretjuju.kono.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RestingOrderRepository extends JpaRepository<RestingOrder, Long> {
+
+	// 기동 시 주문장 재구성용
+	@Query("SELECT o FROM RestingOrder o JOIN FETCH o.user WHERE o.status = 'OPEN'")
+	List<RestingOrder> findAllOpenWithUser();
+
+	List<RestingOrder> findByUserAndStatusOrderByCreatedAtDesc(User user, String status);
+
+	long countByUserAndStatus(User user, String status);
+
+	// 열린 주문만 종료한다. 이미 종료된 주문이면 0
+	@Transactional
+	@Modifying
+	@Query("UPDATE RestingOrder o SET o.status = :status, o.filledPrice = :filledPrice, o.closeReason = :reason, "
+			+ "o.closedAt = :closedAt WHERE o.id = :id AND o.status = 'OPEN'")
+	int close(@Param("id") Long id, @Param("status") String status, @Param("filledPrice") Double filledPrice,
+			@Param("reason") String reason, @Param("closedAt") ZonedDateTime closedAt);
+}
@@ -0,0 +1,532 @@
+package org.secretjuju.kono.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.secretjuju.kono.entity.CoinUnits;
+import org.secretjuju.kono.exception.CustomException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 거래 내역(coin_transaction) 재생으로 계좌 상태를 다시 만들어 현재 잔액/보유량과 비교하는 감사/복구 작업.
+ *
+ * <p>
+ * 사용자를 user_id 나머지로 파티션에 나눠 병렬로 처리한다. 파티션마다 현재 잔액/보유량과 스냅샷을 읽은 뒤, 스냅샷 이후 거래만 사용자/체결 순으로 스트리밍해 재생한다. 재생
+ * 결과가 다른 사용자는 현금 잔액 행을 잠근 채(그 사용자의 주문이 커밋되지 못함) 아직 저장되지 않은 거래 기록(주문 아웃박스)까지 포함해 다시 확인하고, 그래도 다르면 차이로
+ * 보고한다. 주문은 잔액 행 갱신과 거래 기록을 한 트랜잭션에서 커밋하므로 잠근 뒤 읽은 거래 내역은 그 사용자에 대해 빠짐이 없다.
+ *
+ * <p>
+ * restore 면 이때 재생 결과로 잔액/보유량을 덮어쓰되, 스냅샷 기준 시각 이후 거래도 아직 저장되지 않은 거래 기록도 없는 사용자만 복구한다. 최근 거래가 있는 사용자는 차이를 보고만
+ * 하고(restoreSkippedUsers) 거래가 멈춘 뒤 다시 실행한다.
+ *
+ * <p>
+ * 실행할 때마다 settle-ms 이전 거래까지 반영한 스냅샷을 account_snapshot 에 저장하므로 다음 실행은 그 이후 거래만 재생한다. 아직 coin_transaction 에 저장되지 않은
+ * 거래 기록이 있으면 스냅샷 기준 시각을 그중 가장 오래된 체결 시각 앞으로 당겨, 늦게 저장된 거래가 스냅샷에서 빠지지 않게 한다. settle-ms 는 주문 트랜잭션이 커밋되기까지
+ * 걸리는 시간보다 충분히 길어야 한다.
+ */
+@Service
+@Slf4j
+public class AccountRebuildService {
+
+	private static final ZoneId SEOUL = ZoneId.of("Asia/Seoul");
+
+	private static final String LIVE_SQL = "SELECT cb.user_id, cb.balance, ch.coin_id, ch.holding_quantity, ch.holding_price "
+			+ "FROM cash_balance cb LEFT JOIN coin_holdings ch ON ch.user_id = cb.user_id WHERE %s";
+	private static final String SNAPSHOT_SQL = "SELECT user_id, cash_balance, holdings, transaction_count "
+			+ "FROM account_snapshot WHERE %s";
+	// 스냅샷 이후 거래 (사용자별 체결 순. created_at 이 같으면 ID 순)
+	private static final String TAIL_SQL = "SELECT t.id, t.user_id, t.coin_info_id, t.order_type, t.order_quantity, "
+			+ "t.order_price, t.order_amount, t.created_at FROM coin_transaction t "
+			+ "LEFT JOIN account_snapshot s ON s.user_id = t.user_id "
+			+ "WHERE %s AND (s.user_id IS NULL OR t.created_at >= s.covered_until) "
+			+ "ORDER BY t.user_id, t.created_at, t.id";
+	private static final String UPSERT_SNAPSHOT_SQL = "INSERT INTO account_snapshot "
+			+ "(user_id, cash_balance, holdings, covered_until, transaction_count, updated_at) VALUES (?, ?, ?, ?, ?, ?) "
+			+ "ON DUPLICATE KEY UPDATE cash_balance = VALUES(cash_balance), holdings = VALUES(holdings), "
+			+ "covered_until = VALUES(covered_until), transaction_count = VALUES(transaction_count), "
+			+ "updated_at = VALUES(updated_at)";
+
+	private final JdbcTemplate jdbcTemplate;
+	// 파티션 전체를 읽는 조회용 (MySQL 드라이버가 결과를 한 행씩 스트리밍)
+	private final JdbcTemplate streamingTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final LedgerWriter ledgerWriter;
+
+	private final int partitions;
+	private final long settleMillis;
+	private final int snapshotBatchSize;
+	private final int maxReported;
+
+	private final Counter driftCounter;
+	private final Counter restoredCounter;
+	private final Timer durationTimer;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+	private volatile Report lastReport;
+
+	public AccountRebuildService(JdbcTemplate jdbcTemplate, DataSource dataSource,
+			PlatformTransactionManager transactionManager, LedgerWriter ledgerWriter, MeterRegistry meterRegistry,
+			@Value("${account.rebuild.partitions:4}") int partitions,
+			@Value("${account.rebuild.settle-ms:60000}") long settleMillis,
+			@Value("${account.rebuild.snapshot-batch-size:500}") int snapshotBatchSize,
+			@Value("${account.rebuild.max-reported:100}") int maxReported) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.streamingTemplate = new JdbcTemplate(dataSource);
+		this.streamingTemplate.setFetchSize(Integer.MIN_VALUE);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.ledgerWriter = ledgerWriter;
+		this.partitions = partitions;
+		this.settleMillis = settleMillis;
+		this.snapshotBatchSize = snapshotBatchSize;
+		this.maxReported = maxReported;
+
+		this.driftCounter = meterRegistry.counter("account.rebuild.drift");
+		this.restoredCounter = meterRegistry.counter("account.rebuild.restored");
+		this.durationTimer = meterRegistry.timer("account.rebuild.duration");
+	}
+
+	// 재생 결과와 현재 값의 차이 하나
+	@Getter
+	public static class Drift {
+		private final int userId;
+		private final String field; // cash, holding_units, holding_cost
+		private final Integer coinId;
+		private final long expected; // 재생 결과
+		private final long actual; // 현재 값
+
+		private Drift(int userId, String field, Integer coinId, long expected, long actual) {
+			this.userId = userId;
+			this.field = field;
+			this.coinId = coinId;
+			this.expected = expected;
+			this.actual = actual;
+		}
+	}
+
+	// 한 번 실행한 결과 요약
+	@Getter
+	public static class Report {
+		private final String startedAt;
+		private final long durationMillis;
+		private final long usersChecked;
+		private final long transactionsReplayed;
+		private final long snapshotsWritten;
+		private final long anomalies;
+		private final long driftedUsers;
+		private final long restoredUsers;
+		private final long restoreSkippedUsers; // 최근 거래가 있어 복구하지 않은 사용자
+		private final List<Drift> drifts; // 최대 max-reported 건
+
+		private Report(String startedAt, long durationMillis, Run run) {
+			this.startedAt = startedAt;
+			this.durationMillis = durationMillis;
+			this.usersChecked = run.usersChecked.get();
+			this.transactionsReplayed = run.transactionsReplayed.get();
+			this.snapshotsWritten = run.snapshotsWritten.get();
+			this.anomalies = run.anomalies.get();
+			this.driftedUsers = run.driftedUsers.get();
+			this.restoredUsers = run.restoredUsers.get();
+			this.restoreSkippedUsers = run.restoreSkippedUsers.get();
+			this.drifts = List.copyOf(run.drifts);
+		}
+	}
+
+	public Report getLastReport() {
+		return lastReport;
+	}
+
+	// 매일 새벽 감사 실행 (스냅샷 갱신 포함, 복구는 하지 않음)
+	@Scheduled(cron = "${account.rebuild.cron:0 30 4 * * *}")
+	public void scheduledAudit() {
+		try {
+			rebuild(false);
+		} catch (CustomException e) {
+			log.warn("계좌 재구성 건너뜀: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * 모든 사용자의 계좌를 거래 내역으로 다시 만들어 현재 값과 비교하고 스냅샷을 갱신한다. restore 면 차이가 있는 사용자의 잔액/보유량을 재생 결과로 덮어쓴다.
+	 */
+	public Report rebuild(boolean restore) {
+		if (!running.compareAndSet(false, true)) {
+			throw new CustomException(409, "계좌 재구성이 이미 실행 중입니다.");
+		}
+		ZonedDateTime startedAt = ZonedDateTime.now(SEOUL);
+		long startedNanos = System.nanoTime();
+		Timestamp cutoff = snapshotCutoff(startedAt);
+		Run run = new Run();
+		AtomicInteger threadIndex = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(partitions, runnable -> {
+			Thread thread = new Thread(runnable, "account-rebuild-" + threadIndex.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			log.info("계좌 재구성 시작: 파티션 {}개, 스냅샷 기준 {}, 복구 {}", partitions, cutoff, restore);
+			List<Future<?>> futures = new ArrayList<>();
+			for (int partition = 0; partition < partitions; partition++) {
+				Scope scope = Scope.partition(partitions, partition);
+				futures.add(executor.submit(() -> rebuildPartition(scope, cutoff, restore, run)));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("계좌 재구성 중 인터럽트", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("계좌 재구성 실패", e.getCause());
+		} finally {
+			executor.shutdownNow();
+			running.set(false);
+		}
+
+		long durationNanos = System.nanoTime() - startedNanos;
+		durationTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+		Report report = new Report(startedAt.toString(), durationNanos / 1_000_000, run);
+		lastReport = report;
+		log.info("계좌 재구성 완료: 사용자 {}명, 거래 {}건 재생, 스냅샷 {}건, 이상 기록 {}건, 차이 {}명, 복구 {}명, 복구 보류 {}명 ({}ms)",
+				report.usersChecked, report.transactionsReplayed, report.snapshotsWritten, report.anomalies,
+				report.driftedUsers, report.restoredUsers, report.restoreSkippedUsers, report.durationMillis);
+		return report;
+	}
+
+	// 이 시각 이전 거래까지 스냅샷에 반영 (coin_transaction.created_at 과 같은 초 단위). 아직 저장되지 않은 거래 기록보다 뒤로 가지 않는다
+	private Timestamp snapshotCutoff(ZonedDateTime startedAt) {
+		ZonedDateTime cutoff = startedAt.minusNanos(settleMillis * 1_000_000);
+		Optional<ZonedDateTime> oldestPending = ledgerWriter.oldestPendingAt();
+		if (oldestPending.isPresent() && oldestPending.get().isBefore(cutoff)) {
+			cutoff = oldestPending.get();
+		}
+		return Timestamp.from(cutoff.truncatedTo(ChronoUnit.SECONDS).toInstant());
+	}
+
+	private void rebuildPartition(Scope scope, Timestamp cutoff, boolean restore, Run run) {
+		Map<Integer, LiveAccount> live = loadLive(streamingTemplate, scope);
+		Map<Integer, AccountState> snapshots = loadSnapshots(streamingTemplate, scope);
+		List<Integer> suspects = new ArrayList<>();
+		List<Object[]> snapshotBatch = new ArrayList<>();
+		Timestamp now = Timestamp.from(ZonedDateTime.now(SEOUL).toInstant());
+
+		Set<Integer> replayed = new HashSet<>();
+		replayTail(streamingTemplate, scope, snapshots, cutoff, null, result -> {
+			replayed.add(result.userId);
+			run.transactionsReplayed.addAndGet(result.tailRows);
+			if (result.rowsBeforeCutoff > 0) {
+				AccountState covered = result.snapshotState;
+				snapshotBatch.add(new Object[]{result.userId, covered.cash(), covered.encodeHoldings(), cutoff,
+						covered.transactions(), now});
+				if (snapshotBatch.size() >= snapshotBatchSize) {
+					writeSnapshots(snapshotBatch, run);
+				}
+			}
+			if (check(result.userId, result.state, live, run)) {
+				suspects.add(result.userId);
+			}
+		});
+		writeSnapshots(snapshotBatch, run);
+
+		// 스냅샷 이후 거래가 없는 사용자
+		for (Integer userId : live.keySet()) {
+			if (!replayed.contains(userId)) {
+				AccountState state = snapshots.getOrDefault(userId, AccountState.initial());
+				if (check(userId, state, live, run)) {
+					suspects.add(userId);
+				}
+			}
+		}
+
+		for (Integer userId : suspects) {
+			List<Drift> drifts = verifyUser(userId, cutoff, restore, run);
+			if (!drifts.isEmpty()) {
+				run.driftedUsers.incrementAndGet();
+				driftCounter.increment();
+				synchronized (run.drifts) {
+					for (Drift drift : drifts) {
+						if (run.drifts.size() < maxReported) {
+							run.drifts.add(drift);
+						}
+					}
+				}
+				log.warn("계좌 불일치: 사용자 ID {}, 차이 {}건", userId, drifts.size());
+			}
+		}
+	}
+
+	// 현재 값과 다르면 true (잔액 행이 없는 사용자는 비교하지 않음)
+	private boolean check(int userId, AccountState state, Map<Integer, LiveAccount> live, Run run) {
+		LiveAccount account = live.get(userId);
+		if (account == null) {
+			return false;
+		}
+		run.usersChecked.incrementAndGet();
+		run.anomalies.addAndGet(state.anomalies());
+		return !diff(userId, state, account).isEmpty();
+	}
+
+	/**
+	 * 한 사용자의 현금 잔액 행을 잠근 채 다시 재생해 비교한다. 파티션 조회 사이에 체결된 주문 때문에 생긴 차이는 여기서 사라진다. restore 여도 cutoff 이후 거래나 아직
+	 * 저장되지 않은 거래 기록이 있으면 복구하지 않는다.
+	 */
+	private List<Drift> verifyUser(int userId, Timestamp cutoff, boolean restore, Run run) {
+		return transactionTemplate.execute(status -> {
+			List<Long> locked = jdbcTemplate.queryForList("SELECT balance FROM cash_balance WHERE user_id = ? FOR UPDATE",
+					Long.class, userId);
+			if (locked.isEmpty()) {
+				return List.of();
+			}
+			Scope scope = Scope.user(userId);
+			LiveAccount account = loadLive(jdbcTemplate, scope).get(userId);
+			Map<Integer, AccountState> snapshots = loadSnapshots(jdbcTemplate, scope);
+			Set<Integer> seenIds = new HashSet<>();
+			AccountState[] state = {snapshots.getOrDefault(userId, AccountState.initial())};
+			boolean[] recent = {false};
+			replayTail(jdbcTemplate, scope, snapshots, cutoff, seenIds, result -> {
+				state[0] = result.state;
+				recent[0] = result.tailRows > result.rowsBeforeCutoff;
+			});
+
+			// 커밋됐지만 아직 coin_transaction 에 저장되지 않은 거래
+			List<LedgerWriter.LedgerEntry> pending = ledgerWriter.pendingFor(userId);
+			for (LedgerWriter.LedgerEntry entry : pending) {
+				if (seenIds.add(entry.getId())) {
+					state[0].apply(entry.getCoinId(), entry.getOrderType(), entry.getOrderUnits(),
+							entry.getOrderPrice(), entry.getOrderAmount());
+				}
+			}
+
+			List<Drift> drifts = diff(userId, state[0], account);
+			if (restore && !drifts.isEmpty()) {
+				if (recent[0] || !pending.isEmpty()) {
+					// 거래 내역이 아직 다 모였다고 볼 수 없다: 진짜 거래를 되돌릴 수 있으므로 보고만
+					run.restoreSkippedUsers.incrementAndGet();
+					log.warn("최근 거래가 있어 복구하지 않음: 사용자 ID {}", userId);
+				} else if (state[0].cash() < 0) {
+					log.warn("재생 결과 현금 잔액이 음수라 복구하지 않음: 사용자 ID {}", userId);
+				} else {
+					restore(userId, state[0], account);
+					run.restoredUsers.incrementAndGet();
+					restoredCounter.increment();
+					log.info("계좌 복구: 사용자 ID {}", userId);
+				}
+			}
+			return drifts;
+		});
+	}
+
+	// 재생 결과로 잔액/보유량을 덮어쓴다 (버전을 올려 optimistic 모드의 진행 중 주문이 다시 시도하게 함)
+	private void restore(int userId, AccountState state, LiveAccount account) {
+		jdbcTemplate.update("UPDATE cash_balance SET balance = ?, version = version + 1 WHERE user_id = ?", state.cash(),
+				userId);
+		Set<Integer> coinIds = new HashSet<>(state.holdings().keySet());
+		coinIds.addAll(account.holdings.keySet());
+		for (Integer coinId : coinIds) {
+			long[] expected = state.holdings().get(coinId);
+			long[] actual = account.holdings.get(coinId);
+			if (expected != null && actual != null && expected[0] == actual[0] && expected[1] == actual[1]) {
+				continue;
+			}
+			// 같은 코인 행이 여러 개인 경우도 함께 정리
+			jdbcTemplate.update("DELETE FROM coin_holdings WHERE user_id = ? AND coin_id = ?", userId, coinId);
+			if (expected != null) {
+				jdbcTemplate.update("INSERT INTO coin_holdings (user_id, coin_id, holding_quantity, holding_price, version) "
+						+ "VALUES (?, ?, ?, ?, 0)", userId, coinId, CoinUnits.toQuantity(expected[0]),
+						(double) expected[1]);
+			}
+		}
+	}
+
+	private List<Drift> diff(int userId, AccountState state, LiveAccount account) {
+		if (account == null) {
+			return List.of();
+		}
+		List<Drift> drifts = new ArrayList<>();
+		if (state.cash() != account.cash) {
+			drifts.add(new Drift(userId, "cash", null, state.cash(), account.cash));
+		}
+		Set<Integer> coinIds = new HashSet<>(state.holdings().keySet());
+		coinIds.addAll(account.holdings.keySet());
+		for (Integer coinId : coinIds) {
+			long[] expected = state.holdings().getOrDefault(coinId, new long[2]);
+			long[] actual = account.holdings.getOrDefault(coinId, new long[2]);
+			if (expected[0] != actual[0] || account.duplicated.contains(coinId)) {
+				drifts.add(new Drift(userId, "holding_units", coinId, expected[0], actual[0]));
+			}
+			if (expected[1] != actual[1]) {
+				drifts.add(new Drift(userId, "holding_cost", coinId, expected[1], actual[1]));
+			}
+		}
+		return drifts;
+	}
+
+	private Map<Integer, LiveAccount> loadLive(JdbcTemplate template, Scope scope) {
+		Map<Integer, LiveAccount> live = new HashMap<>();
+		template.query(String.format(LIVE_SQL, scope.condition("cb.user_id")), rs -> {
+			LiveAccount account = live.computeIfAbsent(rs.getInt(1), userId -> new LiveAccount());
+			account.cash = rs.getLong(2);
+			int coinId = rs.getInt(3);
+			if (!rs.wasNull()) {
+				long[] holding = {CoinUnits.toUnits(rs.getDouble(4)), Math.round(rs.getDouble(5))};
+				if (account.holdings.putIfAbsent(coinId, holding) != null) {
+					account.duplicated.add(coinId);
+				}
+			}
+		}, scope.args);
+		return live;
+	}
+
+	private Map<Integer, AccountState> loadSnapshots(JdbcTemplate template, Scope scope) {
+		Map<Integer, AccountState> snapshots = new HashMap<>();
+		template.query(String.format(SNAPSHOT_SQL, scope.condition("user_id")), rs -> {
+			snapshots.put(rs.getInt(1), AccountState.decode(rs.getLong(2), rs.getBytes(3), rs.getLong(4)));
+		}, scope.args);
+		return snapshots;
+	}
+
+	/**
+	 * 스냅샷 이후 거래를 사용자 순으로 재생해 사용자마다 handler 를 호출한다. cutoff 가 있으면 그 이전 거래까지의 상태(snapshotState)도 함께 넘긴다.
+	 */
+	private void replayTail(JdbcTemplate template, Scope scope, Map<Integer, AccountState> snapshots,
+			Timestamp cutoff, Set<Integer> seenIds, Consumer<Replay> handler) {
+		Replay[] current = {null};
+		template.query(String.format(TAIL_SQL, scope.condition("t.user_id")), rs -> {
+			int userId = rs.getInt(2);
+			Replay replay = current[0];
+			if (replay == null || replay.userId != userId) {
+				if (replay != null) {
+					handler.accept(replay.finish());
+				}
+				AccountState base = snapshots.get(userId);
+				replay = new Replay(userId, base != null ? base.copy() : AccountState.initial());
+				current[0] = replay;
+			}
+			apply(rs, replay, cutoff, seenIds);
+		}, scope.args);
+		if (current[0] != null) {
+			handler.accept(current[0].finish());
+		}
+	}
+
+	private void apply(ResultSet rs, Replay replay, Timestamp cutoff, Set<Integer> seenIds) throws SQLException {
+		if (seenIds != null) {
+			seenIds.add(rs.getInt(1));
+		}
+		if (cutoff != null && replay.snapshotState == null && !rs.getTimestamp(8).before(cutoff)) {
+			// 스냅샷에는 cutoff 이전 거래까지만 반영
+			replay.snapshotState = replay.state.copy();
+		}
+		if (replay.snapshotState == null) {
+			replay.rowsBeforeCutoff++;
+		}
+		replay.tailRows++;
+		replay.state.apply(rs.getInt(3), rs.getString(4), CoinUnits.toUnits(rs.getDouble(5)), rs.getDouble(6),
+				rs.getLong(7));
+	}
+
+	private void writeSnapshots(List<Object[]> batch, Run run) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(UPSERT_SNAPSHOT_SQL, batch);
+		run.snapshotsWritten.addAndGet(batch.size());
+		batch.clear();
+	}
+
+	// 조회 범위: 파티션(user_id 나머지) 또는 사용자 한 명
+	private static final class Scope {
+		private final boolean partition;
+		private final Object[] args;
+
+		private Scope(boolean partition, Object[] args) {
+			this.partition = partition;
+			this.args = args;
+		}
+
+		static Scope partition(int partitions, int partition) {
+			return new Scope(true, new Object[]{partitions, partition});
+		}
+
+		static Scope user(int userId) {
+			return new Scope(false, new Object[]{userId});
+		}
+
+		String condition(String column) {
+			return partition ? "MOD(" + column + ", ?) = ?" : column + " = ?";
+		}
+	}
+
+	// 현재 잔액/보유량
+	private static final class LiveAccount {
+		private long cash;
+		private final Map<Integer, long[]> holdings = new HashMap<>();
+		// 같은 코인 보유 행이 여러 개인 코인
+		private final Set<Integer> duplicated = new HashSet<>();
+	}
+
+	// 한 사용자 재생 중 상태
+	private static final class Replay {
+		private final int userId;
+		private final AccountState state;
+		private AccountState snapshotState;
+		private long rowsBeforeCutoff;
+		private long tailRows;
+
+		private Replay(int userId, AccountState state) {
+			this.userId = userId;
+			this.state = state;
+		}
+
+		private Replay finish() {
+			if (snapshotState == null) {
+				snapshotState = state;
+			}
+			return this;
+		}
+	}
+
+	// 한 번 실행하는 동안 파티션들이 함께 쓰는 집계
+	private static final class Run {
+		private final AtomicLong usersChecked = new AtomicLong();
+		private final AtomicLong transactionsReplayed = new AtomicLong();
+		private final AtomicLong snapshotsWritten = new AtomicLong();
+		private final AtomicLong anomalies = new AtomicLong();
+		private final AtomicInteger driftedUsers = new AtomicInteger();
+		private final AtomicInteger restoredUsers = new AtomicInteger();
+		private final AtomicInteger restoreSkippedUsers = new AtomicInteger();
+		private final List<Drift> drifts = new ArrayList<>();
+	}
+}
@@ -0,0 +1,114 @@
+package org.secretjuju.kono.service;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.secretjuju.kono.entity.CoinUnits;
+
+/**
+ * 거래 내역을 재생해 만든 한 사용자의 계좌 상태 (현금 잔액, 코인별 보유 수량/매수 금액).
+ *
+ * <p>
+ * apply 는 CoinService 의 매수/매도 처리와 같은 계산을 한다. 거래 금액은 기록된 체결 금액(전량 매도 시 조정된 금액)을 그대로 쓰므로 재생 결과는 주문 당시의 잔액과 같다.
+ */
+final class AccountState {
+
+	// 가입 시 지급하는 현금 (cash_balance 기본값과 같음)
+	static final long INITIAL_CASH = 10000000L;
+	private static final int HOLDING_BYTES = Integer.BYTES + Long.BYTES * 2;
+
+	private long cash;
+	// 코인 ID -> [수량 (CoinUnits 단위), 매수 금액]
+	private final TreeMap<Integer, long[]> holdings;
+	private long transactions;
+	// 보유량보다 많이 매도하는 등 정상 주문 흐름에서 나올 수 없는 기록 수
+	private long anomalies;
+
+	private AccountState(long cash, TreeMap<Integer, long[]> holdings, long transactions) {
+		this.cash = cash;
+		this.holdings = holdings;
+		this.transactions = transactions;
+	}
+
+	static AccountState initial() {
+		return new AccountState(INITIAL_CASH, new TreeMap<>(), 0);
+	}
+
+	// 스냅샷에서 복원
+	static AccountState decode(long cash, byte[] encodedHoldings, long transactions) {
+		TreeMap<Integer, long[]> holdings = new TreeMap<>();
+		ByteBuffer buffer = ByteBuffer.wrap(encodedHoldings);
+		while (buffer.remaining() >= HOLDING_BYTES) {
+			holdings.put(buffer.getInt(), new long[]{buffer.getLong(), buffer.getLong()});
+		}
+		return new AccountState(cash, holdings, transactions);
+	}
+
+	AccountState copy() {
+		TreeMap<Integer, long[]> copied = new TreeMap<>();
+		holdings.forEach((coinId, holding) -> copied.put(coinId, holding.clone()));
+		AccountState state = new AccountState(cash, copied, transactions);
+		state.anomalies = anomalies;
+		return state;
+	}
+
+	// 거래 하나를 반영한다
+	void apply(int coinId, String orderType, long orderUnits, double orderPrice, long orderAmount) {
+		transactions++;
+		long[] holding = holdings.get(coinId);
+		if ("sell".equalsIgnoreCase(orderType)) {
+			if (holding == null || holding[0] < orderUnits) {
+				anomalies++;
+			}
+			if (holding != null) {
+				if (orderUnits >= holding[0]) {
+					// 전량 매도
+					holdings.remove(coinId);
+				} else {
+					// 매수 금액은 남은 수량 비율만큼 유지
+					long remainingUnits = holding[0] - orderUnits;
+					holding[1] = Math.round(holding[1] * ((double) remainingUnits / holding[0]));
+					holding[0] = remainingUnits;
+				}
+			}
+			cash += orderAmount;
+		} else {
+			if (cash < orderAmount) {
+				anomalies++;
+			}
+			cash -= orderAmount;
+			long orderCost = CoinUnits.value(orderUnits, orderPrice);
+			if (holding == null) {
+				holdings.put(coinId, new long[]{orderUnits, orderCost});
+			} else {
+				holding[0] += orderUnits;
+				holding[1] += orderCost;
+			}
+		}
+	}
+
+	// 보유 목록을 코인 ID 순으로 직렬화 (스냅샷 저장용)
+	byte[] encodeHoldings() {
+		ByteBuffer buffer = ByteBuffer.allocate(holdings.size() * HOLDING_BYTES);
+		holdings.forEach((coinId, holding) -> buffer.putInt(coinId).putLong(holding[0]).putLong(holding[1]));
+		return buffer.array();
+	}
+
+	long cash() {
+		return cash;
+	}
+
+	Map<Integer, long[]> holdings() {
+		return Collections.unmodifiableMap(holdings);
+	}
+
+	long transactions() {
+		return transactions;
+	}
+
+	long anomalies() {
+		return anomalies;
+	}
+}
@@ -0,0 +1,57 @@
+package org.secretjuju.kono.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.secretjuju.kono.dto.response.CandleResponseDto;
+
+/**
+ * 가격표 슬롯별로 1m/5m/1h/1d 캔들을 집계한다. 시세가 들어온 적 있는 슬롯에만 버퍼를 할당한다.
+ */
+public class CandleAggregator {
+
+	private static final CandleInterval[] INTERVALS = CandleInterval.values();
+
+	private final int capacity;
+	// 슬롯 -> 주기별 캔들 시리즈
+	private final AtomicReferenceArray<CandleSeries[]> series;
+
+	public CandleAggregator(int slotCapacity, int candleCapacity) {
+		this.capacity = candleCapacity;
+		this.series = new AtomicReferenceArray<>(slotCapacity);
+	}
+
+	public void onTick(int slot, double price, double volume, long timestamp) {
+		CandleSeries[] slotSeries = series.get(slot);
+		if (slotSeries == null) {
+			slotSeries = allocate(slot);
+		}
+		for (CandleSeries candleSeries : slotSeries) {
+			candleSeries.fold(price, volume, timestamp);
+		}
+	}
+
+	// 최근 캔들부터 최대 limit 개. 시세가 없던 슬롯이면 빈 목록
+	public List<CandleResponseDto> recent(int slot, String ticker, CandleInterval interval, int limit) {
+		CandleSeries[] slotSeries = series.get(slot);
+		if (slotSeries == null) {
+			return List.of();
+		}
+		return slotSeries[interval.ordinal()].recent(ticker, limit);
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	private CandleSeries[] allocate(int slot) {
+		CandleSeries[] created = new CandleSeries[INTERVALS.length];
+		for (CandleInterval interval : INTERVALS) {
+			created[interval.ordinal()] = new CandleSeries(interval, capacity);
+		}
+		if (series.compareAndSet(slot, null, created)) {
+			return created;
+		}
+		return series.get(slot);
+	}
+}
@@ -0,0 +1,39 @@
+package org.secretjuju.kono.service;
+
+import org.secretjuju.kono.exception.CustomException;
+
+// 캔들 주기. 모든 주기는 UTC 기준 epoch 에 정렬된다
+public enum CandleInterval {
+	ONE_MINUTE("1m", 60_000L), FIVE_MINUTES("5m", 5 * 60_000L), ONE_HOUR("1h", 60 * 60_000L), ONE_DAY("1d",
+			24 * 60 * 60_000L);
+
+	private final String code;
+	private final long millis;
+
+	CandleInterval(String code, long millis) {
+		this.code = code;
+		this.millis = millis;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	public long getMillis() {
+		return millis;
+	}
+
+	// 시각이 속한 캔들의 시작 시각
+	public long openTimeOf(long timestamp) {
+		return timestamp - Math.floorMod(timestamp, millis);
+	}
+
+	public static CandleInterval fromCode(String code) {
+		for (CandleInterval interval : values()) {
+			if (interval.code.equals(code)) {
+				return interval;
+			}
+		}
+		throw new CustomException(400, "지원하지 않는 캔들 주기입니다: " + code);
+	}
+}
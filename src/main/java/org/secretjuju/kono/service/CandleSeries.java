@@ -0,0 +1,78 @@
+package org.secretjuju.kono.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.secretjuju.kono.dto.response.CandleResponseDto;
+
+/**
+ * 코인 하나, 주기 하나의 OHLCV 캔들을 고정 크기 원시 배열 링버퍼에 보관한다. 버퍼가 차면 가장 오래된 캔들부터 덮어쓴다.
+ */
+class CandleSeries {
+
+	private final CandleInterval interval;
+	private final int capacity;
+	private final long[] openTimes;
+	private final double[] opens;
+	private final double[] highs;
+	private final double[] lows;
+	private final double[] closes;
+	private final double[] volumes;
+
+	// 가장 최근 캔들 위치
+	private int head = -1;
+	private int count;
+
+	CandleSeries(CandleInterval interval, int capacity) {
+		this.interval = interval;
+		this.capacity = capacity;
+		this.openTimes = new long[capacity];
+		this.opens = new double[capacity];
+		this.highs = new double[capacity];
+		this.lows = new double[capacity];
+		this.closes = new double[capacity];
+		this.volumes = new double[capacity];
+	}
+
+	// 체결 하나를 캔들에 반영. 이미 지난 캔들에 속하는 늦은 체결은 버린다
+	synchronized void fold(double price, double volume, long timestamp) {
+		long openTime = interval.openTimeOf(timestamp);
+		if (count > 0 && openTime == openTimes[head]) {
+			if (price > highs[head]) {
+				highs[head] = price;
+			}
+			if (price < lows[head]) {
+				lows[head] = price;
+			}
+			closes[head] = price;
+			volumes[head] += volume;
+			return;
+		}
+		if (count > 0 && openTime < openTimes[head]) {
+			return;
+		}
+		head = (head + 1) % capacity;
+		if (count < capacity) {
+			count++;
+		}
+		openTimes[head] = openTime;
+		opens[head] = price;
+		highs[head] = price;
+		lows[head] = price;
+		closes[head] = price;
+		volumes[head] = volume;
+	}
+
+	// 최근 캔들부터 최대 limit 개
+	synchronized List<CandleResponseDto> recent(String ticker, int limit) {
+		int size = Math.min(limit, count);
+		List<CandleResponseDto> candles = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			int index = Math.floorMod(head - i, capacity);
+			candles.add(CandleResponseDto.builder().ticker(ticker).interval(interval.getCode())
+					.openTime(openTimes[index]).open(opens[index]).high(highs[index]).low(lows[index])
+					.close(closes[index]).volume(volumes[index]).build());
+		}
+		return candles;
+	}
+}
@@ -0,0 +1,92 @@
+package org.secretjuju.kono.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 연속 실패 횟수 기반 서킷 브레이커.
+ *
+ * <p>
+ * CLOSED 에서 failureThreshold 번 연속 실패하면 OPEN 이 되어 openMillis 동안 호출을 막는다. 그 뒤 HALF_OPEN 에서 시험 호출 하나만 허용하고, 성공하면 CLOSED,
+ * 실패하면 다시 OPEN 이 된다.
+ */
+public class CircuitBreaker {
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	// 상태 전이 알림 (메트릭 기록용)
+	public interface TransitionListener {
+		void onTransition(State from, State to);
+	}
+
+	private final int failureThreshold;
+	private final long openMillis;
+	private final LongSupplier clock;
+	private final TransitionListener listener;
+
+	// 아래 필드는 this 로 동기화
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+	private long openedAt;
+	private boolean trialInFlight;
+
+	public CircuitBreaker(int failureThreshold, long openMillis, TransitionListener listener) {
+		this(failureThreshold, openMillis, System::currentTimeMillis, listener);
+	}
+
+	CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock, TransitionListener listener) {
+		this.failureThreshold = failureThreshold;
+		this.openMillis = openMillis;
+		this.clock = clock;
+		this.listener = listener;
+	}
+
+	// 호출해도 되는지 여부. HALF_OPEN 에서는 시험 호출 하나만 허용
+	public synchronized boolean tryAcquirePermission() {
+		switch (state) {
+			case CLOSED :
+				return true;
+			case OPEN :
+				if (clock.getAsLong() - openedAt < openMillis) {
+					return false;
+				}
+				transitionTo(State.HALF_OPEN);
+				trialInFlight = true;
+				return true;
+			default :
+				if (trialInFlight) {
+					return false;
+				}
+				trialInFlight = true;
+				return true;
+		}
+	}
+
+	public synchronized void onSuccess() {
+		consecutiveFailures = 0;
+		trialInFlight = false;
+		if (state != State.CLOSED) {
+			transitionTo(State.CLOSED);
+		}
+	}
+
+	public synchronized void onFailure() {
+		trialInFlight = false;
+		consecutiveFailures++;
+		if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+			openedAt = clock.getAsLong();
+			transitionTo(State.OPEN);
+		}
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	private void transitionTo(State next) {
+		State previous = state;
+		state = next;
+		listener.onTransition(previous, next);
+	}
+}
@@ -0,0 +1,118 @@
+package org.secretjuju.kono.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.secretjuju.kono.entity.CoinInfo;
+import org.secretjuju.kono.repository.CoinInfoRepository;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * coin_info 테이블을 메모리에 올려 둔 읽기 전용 코인 목록. 요청마다 findByTicker 를 조회하지 않고 티커/ID/가격표 슬롯/이름을 바로 찾는다.
+ *
+ * <p>
+ * coin_info 가 바뀌면 reload() 로 명시적으로 다시 읽는다. 조회 쪽은 항상 완성된 목록 하나를 보며, 다시 읽는 동안에도 이전 목록으로 응답한다.
+ */
+@Service
+@Slf4j
+public class CoinCatalogService {
+
+	private final CoinInfoRepository coinInfoRepository;
+	private final CoinPriceService coinPriceService;
+
+	private volatile Catalog catalog = new Catalog(List.of());
+
+	public CoinCatalogService(CoinInfoRepository coinInfoRepository, CoinPriceService coinPriceService) {
+		this.coinInfoRepository = coinInfoRepository;
+		this.coinPriceService = coinPriceService;
+	}
+
+	// 코인 한 종목
+	public static final class CoinEntry {
+		private final Integer id;
+		private final String ticker;
+		private final String krCoinName;
+		private final int slot;
+
+		CoinEntry(Integer id, String ticker, String krCoinName, int slot) {
+			this.id = id;
+			this.ticker = ticker;
+			this.krCoinName = krCoinName;
+			this.slot = slot;
+		}
+
+		public Integer getId() {
+			return id;
+		}
+
+		public String getTicker() {
+			return ticker;
+		}
+
+		public String getKrCoinName() {
+			return krCoinName;
+		}
+
+		// 가격표 슬롯
+		public int getSlot() {
+			return slot;
+		}
+	}
+
+	private static final class Catalog {
+		private final List<CoinEntry> entries;
+		private final Map<String, CoinEntry> byTicker = new HashMap<>();
+		private final Map<Integer, CoinEntry> byId = new HashMap<>();
+
+		private Catalog(List<CoinEntry> entries) {
+			this.entries = Collections.unmodifiableList(entries);
+			for (CoinEntry entry : entries) {
+				byTicker.put(entry.ticker, entry);
+				byId.put(entry.id, entry);
+			}
+		}
+	}
+
+	@PostConstruct
+	public void init() {
+		reload();
+	}
+
+	// coin_info 를 다시 읽어 목록을 교체하고, 가격표 추적 대상도 함께 갱신한다
+	public synchronized int reload() {
+		List<CoinInfo> coinInfos = coinInfoRepository.findAll();
+		List<String> tickers = coinInfos.stream().map(CoinInfo::getTicker).collect(Collectors.toList());
+		coinPriceService.trackCoins(tickers);
+
+		List<CoinEntry> entries = coinInfos.stream().map(coinInfo -> new CoinEntry(coinInfo.getId(),
+				coinInfo.getTicker(), coinInfo.getKrCoinName(), coinPriceService.slotOf(coinInfo.getTicker())))
+				.collect(Collectors.toList());
+		catalog = new Catalog(entries);
+		log.info("코인 목록 로드 완료: {} 개 코인", entries.size());
+		return entries.size();
+	}
+
+	public Optional<CoinEntry> findByTicker(String ticker) {
+		return Optional.ofNullable(catalog.byTicker.get(ticker));
+	}
+
+	public Optional<CoinEntry> findById(Integer id) {
+		return Optional.ofNullable(catalog.byId.get(id));
+	}
+
+	// coin_info 순서 그대로의 전체 코인 목록 (읽기 전용)
+	public List<CoinEntry> getAll() {
+		return catalog.entries;
+	}
+
+	public int size() {
+		return catalog.entries.size();
+	}
+}
@@ -19,12 +19,14 @@ public class CoinFavoriteService {
 	private final UserRepository userRepository;
 	private final CoinFavoriteRepository coinFavoriteRepository;
 	private final CoinInfoRepository coinInfoRepository;
+	private final CoinCatalogService coinCatalogService;
 
 	public CoinFavoriteService(UserRepository userRepository, CoinFavoriteRepository coinFavoriteRepository,
-			CoinInfoRepository coinInfoRepository) {
+			CoinInfoRepository coinInfoRepository, CoinCatalogService coinCatalogService) {
 		this.userRepository = userRepository;
 		this.coinFavoriteRepository = coinFavoriteRepository;
 		this.coinInfoRepository = coinInfoRepository;
+		this.coinCatalogService = coinCatalogService;
 	}
 
 	@Transactional(readOnly = true)
@@ -44,11 +46,11 @@ public class CoinFavoriteService {
 	}
 	public boolean isFavorite(Integer userId, String ticker) {
 		// ticker로 코인 정보 조회
-		CoinInfo coinInfo = coinInfoRepository.findByTicker(ticker)
+		CoinCatalogService.CoinEntry coin = coinCatalogService.findByTicker(ticker)
 				.orElseThrow(() -> new RuntimeException("Coin not found with ticker: " + ticker));
 
 		// 해당 사용자가 이 코인을 관심 목록에 추가했는지 확인
-		return coinFavoriteRepository.existsByUserIdAndCoinInfoId(userId, coinInfo.getId());
+		return coinFavoriteRepository.existsByUserIdAndCoinInfoId(userId, coin.getId());
 	}
 
 	@Transactional(readOnly = true)
@@ -66,11 +68,11 @@ public class CoinFavoriteService {
 		User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("존재하지 않는 사용자입니다."));
 
 		// 코인 존재 여부 확인
-		CoinInfo coinInfo = coinInfoRepository.findByTicker(ticker)
+		CoinCatalogService.CoinEntry coin = coinCatalogService.findByTicker(ticker)
 				.orElseThrow(() -> new IllegalArgumentException("존재하지 않는 코인입니다."));
 
 		// 이미 등록된 관심 코인인지 확인
-		boolean exists = coinFavoriteRepository.existsByUserIdAndCoinInfoId(userId, coinInfo.getId());
+		boolean exists = coinFavoriteRepository.existsByUserIdAndCoinInfoId(userId, coin.getId());
 		if (exists) {
 			throw new IllegalStateException("이미 관심 코인으로 등록되어 있습니다.");
 		}
@@ -78,7 +80,7 @@ public class CoinFavoriteService {
 		// 관심 코인 등록
 		CoinFavorite coinFavorite = new CoinFavorite();
 		coinFavorite.setUser(user);
-		coinFavorite.setCoinInfo(coinInfo);
+		coinFavorite.setCoinInfo(coinInfoRepository.getReferenceById(coin.getId()));
 
 		coinFavoriteRepository.save(coinFavorite);
 	}
@@ -89,10 +91,10 @@ public class CoinFavoriteService {
 		userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("존재하지 않는 사용자입니다."));
 
 		// 코인 존재 여부 확인
-		CoinInfo coinInfo = coinInfoRepository.findByTicker(ticker)
+		CoinCatalogService.CoinEntry coin = coinCatalogService.findByTicker(ticker)
 				.orElseThrow(() -> new IllegalArgumentException("존재하지 않는 코인입니다."));
 
 		// 관심 코인 삭제
-		coinFavoriteRepository.deleteByUserIdAndCoinInfoId(userId, coinInfo.getId());
+		coinFavoriteRepository.deleteByUserIdAndCoinInfoId(userId, coin.getId());
 	}
 }
@@ -3,31 +3,49 @@ package org.secretjuju.kono.service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
-import org.secretjuju.kono.repository.CoinInfoRepository;
+import org.secretjuju.kono.dto.response.CandleResponseDto;
+import org.secretjuju.kono.exception.CustomException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class CoinPriceService {
 
-	private final ConcurrentHashMap<String, Double> coinPriceMap = new ConcurrentHashMap<>();
+	// 티커별 슬롯에 시세를 보관하는 가격표
+	private final PriceTable priceTable;
+	// 슬롯별 OHLCV 캔들
+	private final CandleAggregator candleAggregator;
+	// 반영된 시세를 전달받는 리스너 (틱 로그 등)
+	private final List<PriceTickListener> tickListeners = new CopyOnWriteArrayList<>();
+	// 시세를 추적하는 마켓 목록 (KRW-BTC 형식), 코인 목록이 갱신될 때 교체
+	private volatile List<String> trackedMarkets = List.of();
+	// 마지막으로 공개한 불변 스냅샷 (스냅샷 스레드가 snapshot-interval-ms 마다 교체)
+	private volatile PriceSnapshot latestSnapshot = PriceSnapshot.empty();
 	private final RestTemplate restTemplate;
-	private final CoinInfoRepository coinInfoRepository;
-	private final ObjectMapper objectMapper;
+	private final UpbitRequestBudget requestBudget;
+	private final PriceEventBus priceEventBus;
 
 	// API 요청 당 최대 티커 수 (업비트 API 제한)
 	private static final int MAX_TICKERS_PER_REQUEST = 100;
@@ -36,6 +54,58 @@ public class CoinPriceService {
 	@Value("${upbit.api.url:https://api.upbit.com/v1}")
 	private String upbitApiUrl;
 
+	// 일괄 조회가 이 시간을 넘기면 끝나지 않은 배치는 실패로 보고 작업을 인터럽트해 진행 중인 업비트 요청을 취소한다 (나머지 배치 결과만 반영)
+	@Value("${upbit.rest.batch-timeout-ms:5000}")
+	private long batchTimeoutMillis;
+
+	// 배치 동시 조회용 스레드 풀
+	private final ExecutorService batchExecutor;
+	// 스냅샷 공개 스레드
+	private final ScheduledExecutorService snapshotPublisher;
+
+	private final Timer batchSuccessTimer;
+	private final Timer batchFailureTimer;
+	private final Counter batchFailureCounter;
+	private final Counter nullPriceCounter;
+
+	public CoinPriceService(RestTemplate restTemplate, UpbitRequestBudget requestBudget, PriceEventBus priceEventBus,
+			MeterRegistry meterRegistry, @Value("${upbit.rest.batch-concurrency:4}") int batchConcurrency,
+			@Value("${upbit.price.slot-capacity:1024}") int slotCapacity,
+			@Value("${upbit.candle.capacity:200}") int candleCapacity,
+			@Value("${upbit.price.snapshot-interval-ms:100}") long snapshotIntervalMillis) {
+		this.priceTable = new PriceTable(slotCapacity);
+		this.candleAggregator = new CandleAggregator(slotCapacity, candleCapacity);
+		this.restTemplate = restTemplate;
+		this.requestBudget = requestBudget;
+		this.priceEventBus = priceEventBus;
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.batchExecutor = Executors.newFixedThreadPool(batchConcurrency, r -> {
+			Thread thread = new Thread(r, "upbit-price-batch-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.snapshotPublisher = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "price-snapshot");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.snapshotPublisher.scheduleWithFixedDelay(this::publishSnapshotSafely, snapshotIntervalMillis,
+				snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+		this.batchSuccessTimer = Timer.builder("upbit.price.batch").tag("outcome", "success")
+				.register(meterRegistry);
+		this.batchFailureTimer = Timer.builder("upbit.price.batch").tag("outcome", "failure")
+				.register(meterRegistry);
+		this.batchFailureCounter = meterRegistry.counter("upbit.price.batch.failures");
+		// 응답에 trade_price 가 없어 건너뛴 티커 수
+		this.nullPriceCounter = meterRegistry.counter("upbit.price.null_prices");
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		batchExecutor.shutdownNow();
+		snapshotPublisher.shutdownNow();
+	}
+
 	// 코인 티커 정보 DTO
 	public static class TickerDto {
 		private String market;
@@ -43,6 +113,8 @@ public class CoinPriceService {
 		@JsonProperty("trade_price")
 		private Double tradePrice;
 
+		private Long timestamp;
+
 		// Getters and Setters
 		public String getMarket() {
 			return market;
@@ -59,13 +131,21 @@ public class CoinPriceService {
 		public void setTradePrice(Double tradePrice) {
 			this.tradePrice = tradePrice;
 		}
+
+		public Long getTimestamp() {
+			return timestamp;
+		}
+
+		public void setTimestamp(Long timestamp) {
+			this.timestamp = timestamp;
+		}
 	}
 
 	public void updateAllCoinPrices() {
 		log.info("코인 가격 업데이트 시작");
 		try {
-			// CoinInfo 테이블에서 모든 티커 조회
-			List<String> allTickers = getAllTickers();
+			// 추적 중인 모든 마켓
+			List<String> allTickers = getAllMarkets();
 
 			if (allTickers.isEmpty()) {
 				log.warn("업데이트할 코인 티커가 없습니다.");
@@ -74,63 +154,236 @@ public class CoinPriceService {
 
 			log.info("총 {} 개의 코인 가격을 업데이트합니다.", allTickers.size());
 
-			// 티커를 MAX_TICKERS_PER_REQUEST 개씩 나누어 요청
+			// 티커를 MAX_TICKERS_PER_REQUEST 개씩 나누어 동시에 요청 (초당 요청 수는 requestBudget 이 제한)
 			List<List<String>> tickerBatches = splitIntoChunks(allTickers, MAX_TICKERS_PER_REQUEST);
+			long startedAt = System.nanoTime();
 
+			List<Future<Integer>> results = new ArrayList<>(tickerBatches.size());
 			for (List<String> batch : tickerBatches) {
-				try {
-					// 한 번의 요청으로 여러 티커의 가격 정보 조회
-					updatePricesForBatch(batch);
-
-					// API 요청 제한을 피하기 위한 짧은 대기 (필요 시)
-					if (tickerBatches.size() > 1) {
-						Thread.sleep(200);
-					}
-				} catch (Exception e) {
-					log.error("배치 업데이트 중 오류 발생: {}", e.getMessage());
-				}
+				results.add(batchExecutor.submit(() -> updatePricesForBatch(batch)));
 			}
 
-			log.info("코인 가격 업데이트 완료: {} 개 코인", coinPriceMap.size());
+			long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(batchTimeoutMillis);
+			int updated = 0;
+			for (int i = 0; i < results.size(); i++) {
+				updated += awaitBatch(results.get(i), tickerBatches.get(i).size(), deadline);
+			}
+			// 일괄 조회 결과를 바로 쓰는 호출자(랭킹 갱신 등)가 다음 주기를 기다리지 않도록 즉시 공개
+			publishSnapshot();
+			log.info("코인 가격 업데이트 완료: {} / {} 개 코인, {} 개 배치, {}ms", updated, allTickers.size(),
+					tickerBatches.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
 		} catch (Exception e) {
 			log.error("코인 가격 업데이트 중 오류 발생", e);
 		}
 	}
 
-	// 티커 배치에 대한 가격 업데이트
-	private void updatePricesForBatch(List<String> tickers) {
+	// 마감까지 배치 결과를 기다린다. 넘기면 작업을 인터럽트해 업비트 요청을 취소하고 (아직 시작 전이면 실행하지 않음) 0 을 반환
+	private int awaitBatch(Future<Integer> result, int tickers, long deadlineNanos) {
+		try {
+			return result.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			result.cancel(true);
+			batchFailureCounter.increment();
+			log.error("배치 업데이트 시간 초과, 요청 취소 ({} 개 티커)", tickers);
+		} catch (ExecutionException e) {
+			batchFailureCounter.increment();
+			log.error("배치 업데이트 중 오류 발생 ({} 개 티커): {}", tickers, e.getCause().toString());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			result.cancel(true);
+		}
+		return 0;
+	}
+
+	// 티커 배치에 대한 가격 업데이트. 반영한 코인 수를 반환
+	private int updatePricesForBatch(List<String> tickers) {
 		// 티커 목록을 쉼표로 구분된 문자열로 변환
 		String tickersParam = String.join(",", tickers);
 
 		// 업비트 API 호출
 		String url = upbitApiUrl + "/ticker?markets=" + tickersParam;
 
+		requestBudget.acquire();
+		long startedAt = System.nanoTime();
 		try {
-			ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+			// 응답 스트림을 바로 TickerDto 배열로 역직렬화
+			ResponseEntity<TickerDto[]> response = restTemplate.getForEntity(url, TickerDto[].class);
+			TickerDto[] tickerArray = response.getBody();
 
-			if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-				// JSON 응답을 TickerDto 배열로 파싱
-				TickerDto[] tickerArray = objectMapper.readValue(response.getBody(), TickerDto[].class);
+			if (!response.getStatusCode().is2xxSuccessful() || tickerArray == null) {
+				throw new IllegalStateException("응답 코드 " + response.getStatusCode());
+			}
 
-				// 가격 맵 업데이트
-				for (TickerDto ticker : tickerArray) {
-					coinPriceMap.put(ticker.getMarket(), ticker.getTradePrice());
+			// 가격 맵 업데이트 (시세가 빠진 티커는 건너뛰고 나머지는 반영)
+			int applied = 0;
+			for (TickerDto ticker : tickerArray) {
+				if (ticker.getTradePrice() == null) {
+					nullPriceCounter.increment();
+					log.debug("시세 없는 티커 건너뜀: {}", ticker.getMarket());
+					continue;
 				}
-
-				log.debug("배치 업데이트 성공: {} 개 코인", tickerArray.length);
-			} else {
-				log.warn("배치 업데이트 실패: 응답 코드 {}", response.getStatusCode());
+				long timestamp = ticker.getTimestamp() != null ? ticker.getTimestamp() : System.currentTimeMillis();
+				applyTick(ticker.getMarket(), ticker.getTradePrice(), timestamp);
+				applied++;
 			}
-		} catch (JsonProcessingException e) {
-			log.error("JSON 파싱 오류: {}", e.getMessage());
+
+			batchSuccessTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+			log.debug("배치 업데이트 성공: {} 개 코인", applied);
+			return applied;
+		} catch (RuntimeException e) {
+			batchFailureTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+			throw e;
 		}
 	}
 
-	// CoinInfo 테이블에서 모든 티커 조회
-	private List<String> getAllTickers() {
-		return coinInfoRepository.findAll().stream().map(coinInfo -> "KRW-" + coinInfo.getTicker()) // "BTC" ->
-																									// "KRW-BTC" 형식으로 변환
-				.collect(Collectors.toList());
+	// 실시간 스트림/REST 배치에서 들어온 시세 반영 (KRW-BTC 형식). 이미 더 최신 시세가 있으면 무시한다.
+	public void applyTick(String market, double price, long timestamp) {
+		applyTick(market, price, 0.0, timestamp);
+	}
+
+	// 체결량을 포함한 시세 반영 (KRW-BTC 형식)
+	public void applyTick(String market, double price, double volume, long timestamp) {
+		int slot = priceTable.registerMarket(market);
+		if (slot < 0) {
+			return;
+		}
+		applyTick(slot, price, volume, timestamp);
+	}
+
+	// 슬롯 번호로 시세 반영
+	public void applyTick(int slot, double price, long timestamp) {
+		applyTick(slot, price, 0.0, timestamp);
+	}
+
+	// 슬롯 번호로 시세 반영. 가격표에 반영된 시세만 캔들/리스너에 전달하고, 가격이 바뀌었으면 이벤트 버스에 발행한다
+	public void applyTick(int slot, double price, double volume, long timestamp) {
+		double previous = priceTable.exchange(slot, price, timestamp);
+		if (Double.isNaN(previous)) {
+			return;
+		}
+		candleAggregator.onTick(slot, price, volume, timestamp);
+		for (PriceTickListener listener : tickListeners) {
+			listener.onTick(slot, price, volume, timestamp);
+		}
+		// 가격이 실제로 바뀐 경우에만 이벤트 발행
+		if (previous != price) {
+			priceEventBus.publish(new PriceDelta(slot, previous, price, priceTable.version(), timestamp));
+		}
+	}
+
+	public void addTickListener(PriceTickListener listener) {
+		tickListeners.add(listener);
+	}
+
+	// 슬롯에 배정된 코인 심볼 (BTC 형식)
+	public String tickerAt(int slot) {
+		return priceTable.tickerAt(slot);
+	}
+
+	// 코인 심볼(BTC 형식)의 슬롯. 처음 보는 코인이면 새로 배정한다
+	public int registerTicker(String ticker) {
+		return priceTable.register(ticker);
+	}
+
+	// 코인 심볼(BTC 형식)의 최근 캔들, 최신순
+	public List<CandleResponseDto> getCandles(String ticker, String intervalCode, int limit) {
+		CandleInterval interval = CandleInterval.fromCode(intervalCode);
+		int slot = priceTable.slotOfTicker(ticker);
+		if (slot < 0) {
+			throw new CustomException(404, "해당 코인을 찾을 수 없습니다.");
+		}
+		int size = Math.max(1, Math.min(limit, candleAggregator.getCapacity()));
+		return candleAggregator.recent(slot, ticker, interval, size);
+	}
+
+	// 마켓의 마지막 시세 시각, 없으면 0
+	public long getPriceTimestamp(String market) {
+		int slot = priceTable.slotOfMarket(market);
+		return slot >= 0 ? priceTable.timestamp(slot) : 0L;
+	}
+
+	// 시세와 시세 시각을 함께 조회 (KRW-BTC 형식). 시세가 없으면 null
+	public PriceQuote getQuote(String market) {
+		int slot = priceTable.slotOfMarket(market);
+		PriceTable.Reading reading = new PriceTable.Reading();
+		if (slot < 0 || !priceTable.read(slot, reading)) {
+			return null;
+		}
+		return new PriceQuote(reading.getPrice(), reading.getTimestamp());
+	}
+
+	/**
+	 * 마지막으로 공개된 가격 스냅샷을 반환한다. volatile 읽기뿐이며 복사하지 않는다. 최대 snapshot-interval-ms 만큼 오래된 시세일 수 있다.
+	 */
+	public PriceSnapshot latestSnapshot() {
+		return latestSnapshot;
+	}
+
+	/**
+	 * 마지막 공개 이후 가격표가 바뀌었으면 한 번 복사해 새 스냅샷으로 공개한다. 스냅샷 스레드가 주기적으로 호출하며, 일괄 갱신 직후에도 호출한다.
+	 */
+	public synchronized void publishSnapshot() {
+		PriceSnapshot snapshot = latestSnapshot;
+		if (snapshot.getEpoch() != priceTable.version() || snapshot.size() != priceTable.size()) {
+			latestSnapshot = priceTable.capture();
+		}
+	}
+
+	private void publishSnapshotSafely() {
+		try {
+			publishSnapshot();
+		} catch (RuntimeException e) {
+			log.warn("가격 스냅샷 공개 실패: {}", e.getMessage());
+		}
+	}
+
+	// 티커(BTC 형식)의 가격표 슬롯, 없으면 -1. 반복 조회하는 쪽은 슬롯을 한 번 구해 두고 슬롯으로 조회한다
+	public int slotOf(String ticker) {
+		return priceTable.slotOfTicker(ticker);
+	}
+
+	// 슬롯 시세, 없으면 0 (할당 없음)
+	public double getPrice(int slot) {
+		return slot >= 0 ? priceTable.price(slot) : 0.0;
+	}
+
+	// 슬롯 시세와 시각을 reading 에 담는다 (할당 없음). 시세가 없으면 false
+	public boolean readPrice(int slot, PriceTable.Reading reading) {
+		return slot >= 0 && priceTable.read(slot, reading);
+	}
+
+	// 가격표에 저장된 시세 한 건
+	public static class PriceQuote {
+		private final double price;
+		private final long timestamp;
+
+		public PriceQuote(double price, long timestamp) {
+			this.price = price;
+			this.timestamp = timestamp;
+		}
+
+		public double getPrice() {
+			return price;
+		}
+
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		public long ageMillis(long now) {
+			return Math.max(0, now - timestamp);
+		}
+	}
+
+	// 코인 목록(BTC 형식)을 시세 추적 대상으로 등록하고 코인마다 가격표 슬롯을 미리 배정한다
+	public void trackCoins(List<String> tickers) {
+		tickers.forEach(priceTable::register);
+		trackedMarkets = tickers.stream().map(ticker -> "KRW-" + ticker).collect(Collectors.toUnmodifiableList());
+	}
+
+	// 시세를 추적하는 모든 마켓 (KRW-BTC 형식)
+	public List<String> getAllMarkets() {
+		return trackedMarkets;
 	}
 
 	// 리스트를 지정된 크기의 청크로 분할
@@ -146,25 +399,23 @@ public class CoinPriceService {
 	}
 
 	// 코인 티커로 현재가 조회 (KRW-BTC 형식)
-	public Double getPrice(String ticker) {
-		return coinPriceMap.getOrDefault(ticker, 0.0);
+	public double getPrice(String ticker) {
+		return getPrice(priceTable.slotOfMarket(ticker));
 	}
 
 	// 코인 심볼로 현재가 조회 (BTC 형식)
-	public Double getPriceByTicker(String ticker) {
-		return getPrice("KRW-" + ticker);
+	public double getPriceByTicker(String ticker) {
+		return getPrice(priceTable.slotOfTicker(ticker));
 	}
 
-	// 모든 코인 현재가 조회
+	// 모든 코인 현재가 조회 (복사 없이 가격표를 보는 읽기 전용 뷰)
 	public Map<String, Double> getAllPrices() {
-		return new ConcurrentHashMap<>(coinPriceMap); // 맵 복사본 반환
+		return priceTable.asMap(true);
 	}
 
-	// KRW- 접두사 없이 심볼만으로 구성된 맵 반환
+	// KRW- 접두사 없이 심볼만으로 구성된 맵 반환 (읽기 전용 뷰)
 	public Map<String, Double> getAllSimplePrices() {
-		return coinPriceMap.entrySet().stream().filter(entry -> entry.getKey().startsWith("KRW-"))
-				.collect(Collectors.toMap(entry -> entry.getKey().substring(4), // "KRW-BTC" -> "BTC"
-						Map.Entry::getValue));
+		return priceTable.asMap(false);
 	}
 
 	// 특정 코인 목록의 현재가만 조회
@@ -174,6 +425,6 @@ public class CoinPriceService {
 
 	// 현재 캐시에 저장된 코인 개수
 	public int getCachedCoinCount() {
-		return coinPriceMap.size();
+		return priceTable.pricedCount();
 	}
-}
\ No newline at end of file
+}
@@ -2,134 +2,459 @@ package org.secretjuju.kono.service;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.secretjuju.kono.dto.request.CoinBatchOrderRequestDto;
 import org.secretjuju.kono.dto.request.CoinRequestDto;
 import org.secretjuju.kono.dto.request.CoinSellBuyRequestDto;
+import org.secretjuju.kono.dto.response.CoinBatchOrderResultDto;
 import org.secretjuju.kono.dto.response.CoinInfoResponseDto;
+import org.secretjuju.kono.dto.response.CoinOrderResponseDto;
 import org.secretjuju.kono.dto.response.CoinResponseDto;
 import org.secretjuju.kono.dto.response.TickerResponse;
 import org.secretjuju.kono.entity.CashBalance;
 import org.secretjuju.kono.entity.CoinHolding;
 import org.secretjuju.kono.entity.CoinInfo;
-import org.secretjuju.kono.entity.CoinTransaction;
+import org.secretjuju.kono.entity.CoinUnits;
+import org.secretjuju.kono.entity.OrderOutbox;
 import org.secretjuju.kono.entity.User;
 import org.secretjuju.kono.exception.CustomException;
 import org.secretjuju.kono.repository.CashBalanceRepository;
 import org.secretjuju.kono.repository.CoinHoldingRepository;
-import org.secretjuju.kono.repository.CoinRepository;
+import org.secretjuju.kono.repository.CoinInfoRepository;
+import org.secretjuju.kono.repository.OrderOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Slf4j
 public class CoinService {
 
-	private final CoinRepository coinRepository;
+	private final CoinInfoRepository coinInfoRepository;
+	private final CoinCatalogService coinCatalogService;
 	private final UserService userService;
 	private final UpbitService upbitService;
 	private final CashBalanceRepository cashBalanceRepository;
 	private final CoinHoldingRepository coinHoldingRepository;
-
-	public CoinService(CoinRepository coinRepository, UserService userService, UpbitService upbitService,
-			CashBalanceRepository cashBalanceRepository, CoinHoldingRepository coinHoldingRepository) {
-		this.coinRepository = coinRepository;
+	private final CoinPriceService coinPriceService;
+	private final OrderSequencer orderSequencer;
+	private final LedgerWriter ledgerWriter;
+	private final OrderOutboxRepository orderOutboxRepository;
+	private final OrderOutboxRelay orderOutboxRelay;
+	// locking: 잔액/보유량 행 락 (REPEATABLE_READ)
+	private final TransactionTemplate lockingTransaction;
+	// sequenced: 사용자 레인에서 한 건씩 실행하므로 락 없이 READ_COMMITTED (optimistic 모드도 같은 트랜잭션 사용)
+	private final TransactionTemplate sequencedTransaction;
+	private final Counter optimisticAttemptCounter;
+	private final Counter optimisticConflictCounter;
+	private final Counter optimisticExhaustedCounter;
+
+	// live: 주문마다 업비트 조회, cached: 서버 가격표 시세 사용 (max-age-ms 보다 오래된 경우에만 업비트 조회)
+	@Value("${order.pricing.mode:live}")
+	private String pricingMode;
+
+	@Value("${order.pricing.max-age-ms:3000}")
+	private long maxPriceAgeMillis;
+
+	// 업비트 장애로 마지막 정상 시세를 받은 경우, 이보다 오래된 시세로는 체결하지 않는다
+	@Value("${order.pricing.max-fallback-age-ms:10000}")
+	private long maxFallbackAgeMillis;
+
+	// locking: DB 행 락으로 동시 주문 직렬화, sequenced: 사용자별 단일 작성자 레인에서 직렬화, optimistic: 버전 충돌 시 재시도
+	@Value("${order.execution.mode:locking}")
+	private String executionMode;
+
+	@Value("${order.execution.optimistic.max-attempts:5}")
+	private int optimisticMaxAttempts;
+
+	@Value("${order.execution.optimistic.backoff-ms:5}")
+	private long optimisticBackoffMillis;
+
+	@Value("${order.batch.max-size:50}")
+	private int maxBatchSize;
+
+	public CoinService(CoinInfoRepository coinInfoRepository, CoinCatalogService coinCatalogService,
+			UserService userService, UpbitService upbitService, CashBalanceRepository cashBalanceRepository,
+			CoinHoldingRepository coinHoldingRepository, CoinPriceService coinPriceService,
+			OrderSequencer orderSequencer, LedgerWriter ledgerWriter, OrderOutboxRepository orderOutboxRepository,
+			OrderOutboxRelay orderOutboxRelay, PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry) {
+		this.coinInfoRepository = coinInfoRepository;
+		this.coinCatalogService = coinCatalogService;
 		this.userService = userService;
 		this.upbitService = upbitService;
 		this.cashBalanceRepository = cashBalanceRepository;
 		this.coinHoldingRepository = coinHoldingRepository;
+		this.coinPriceService = coinPriceService;
+		this.orderSequencer = orderSequencer;
+		this.ledgerWriter = ledgerWriter;
+		this.orderOutboxRepository = orderOutboxRepository;
+		this.orderOutboxRelay = orderOutboxRelay;
+		this.lockingTransaction = new TransactionTemplate(transactionManager);
+		this.lockingTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+		this.sequencedTransaction = new TransactionTemplate(transactionManager);
+		this.sequencedTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+		this.optimisticAttemptCounter = meterRegistry.counter("order.optimistic.attempts");
+		this.optimisticConflictCounter = meterRegistry.counter("order.optimistic.conflicts");
+		this.optimisticExhaustedCounter = meterRegistry.counter("order.optimistic.exhausted");
+	}
+
+	// 주문 체결에 사용한 시세와 그 출처
+	private static final class OrderPrice {
+		private final double price;
+		private final String source;
+		private final long ageMillis;
+
+		private OrderPrice(double price, String source, long ageMillis) {
+			this.price = price;
+			this.source = source;
+			this.ageMillis = ageMillis;
+		}
 	}
 
 	public List<CoinInfoResponseDto> getAllCoinInfo() {
-		List<CoinInfo> coinInfos = coinRepository.findAll();
-		return coinInfos.stream().map(this::convertToCoinInfosResponse).collect(Collectors.toList());
+		return coinCatalogService.getAll().stream().map(this::convertToCoinInfosResponse)
+				.collect(Collectors.toList());
 	}
 
 	public CoinResponseDto getCoinByName(CoinRequestDto coinRequestDto) {
-		Optional<CoinInfo> coinInfo = coinRepository.findByTicker(coinRequestDto.getTicker());
-		CoinResponseDto coinResponseDto = new CoinResponseDto(coinInfo.orElse(null));
-		return coinResponseDto;
+		CoinCatalogService.CoinEntry coin = coinCatalogService.findByTicker(coinRequestDto.getTicker())
+				.orElseThrow(() -> new CustomException(404, "해당 코인을 찾을 수 없습니다."));
+		return new CoinResponseDto(coin.getTicker(), coin.getKrCoinName());
 	}
 
 	// 현재가 조회 메소드
 	public Double getCurrentPrice(String ticker) {
-		// 이미 "KRW-"로 시작하는 경우 그대로 사용, 아니면 "KRW-" 접두사 추가
-		String market = ticker.startsWith("KRW-") ? ticker : "KRW-" + ticker;
-		TickerResponse tickerResponse = upbitService.getTicker(market);
+		TickerResponse tickerResponse = upbitService.getTicker(toMarket(ticker));
 		return tickerResponse.getTrade_price();
 	}
 
-	@Transactional(isolation = Isolation.REPEATABLE_READ)
-	public void createCoinOrder(CoinSellBuyRequestDto coinSellBuyRequestDto) {
-		// 현재 로그인한 사용자 정보를 가져옵니다.
-		User currentUser = userService.getCurrentUser();
+	// 이미 "KRW-"로 시작하는 경우 그대로 사용, 아니면 "KRW-" 접두사 추가
+	private String toMarket(String ticker) {
+		return ticker.startsWith("KRW-") ? ticker : "KRW-" + ticker;
+	}
+
+	// 주문 체결가 결정
+	private OrderPrice resolveOrderPrice(String ticker) {
+		return resolveOrderPrice(ticker, null);
+	}
+
+	// 주문 체결가 결정. snapshot 이 있으면 cached 모드에서 가격표 대신 스냅샷 시세를 사용한다 (일괄 주문이 같은 시점의 시세로 체결되도록)
+	private OrderPrice resolveOrderPrice(String ticker, PriceSnapshot snapshot) {
+		String market = toMarket(ticker);
+		long now = System.currentTimeMillis();
+
+		if ("cached".equalsIgnoreCase(pricingMode)) {
+			if (snapshot != null) {
+				int slot = coinPriceService.slotOf(market.substring("KRW-".length()));
+				double price = snapshot.price(slot);
+				long ageMillis = now - snapshot.timestamp(slot);
+				if (price > 0 && snapshot.timestamp(slot) > 0 && ageMillis <= maxPriceAgeMillis) {
+					return new OrderPrice(price, "CACHE", Math.max(0, ageMillis));
+				}
+			} else {
+				CoinPriceService.PriceQuote quote = coinPriceService.getQuote(market);
+				if (quote != null && quote.getPrice() > 0 && quote.ageMillis(now) <= maxPriceAgeMillis) {
+					return new OrderPrice(quote.getPrice(), "CACHE", quote.ageMillis(now));
+				}
+			}
+		}
+
+		// 가격표 시세가 없거나 오래된 경우 업비트에서 직접 조회하고 가격표도 갱신
+		TickerResponse tickerResponse = upbitService.getTicker(market);
+		long timestamp = tickerResponse.getTimestamp() != null ? tickerResponse.getTimestamp() : now;
+		long ageMillis = Math.max(0, now - timestamp);
+		if (tickerResponse.isStale()) {
+			if (ageMillis > maxFallbackAgeMillis) {
+				throw new CustomException(503, "시세를 확인할 수 없어 주문을 처리할 수 없습니다. 잠시 후 다시 시도해주세요.");
+			}
+			return new OrderPrice(tickerResponse.getTrade_price(), "FALLBACK", ageMillis);
+		}
+		coinPriceService.applyTick(market, tickerResponse.getTrade_price(), timestamp);
+		return new OrderPrice(tickerResponse.getTrade_price(), "UPBIT", ageMillis);
+	}
+
+	public CoinOrderResponseDto createCoinOrder(CoinSellBuyRequestDto coinSellBuyRequestDto) {
+		// 해당 코인 정보를 가져옵니다. (코인 목록에서 찾고, 엔티티는 조회 없이 참조만 사용)
+		CoinCatalogService.CoinEntry coin = coinCatalogService.findByTicker(coinSellBuyRequestDto.getTicker())
+				.orElseThrow(() -> new CustomException(404, "해당 코인을 찾을 수 없습니다."));
+
+		// 체결가 조회 (가격표 또는 업비트). 업비트 호출이 트랜잭션/레인을 붙잡지 않도록 먼저 결정한다
+		OrderPrice orderPrice = resolveOrderPrice(coinSellBuyRequestDto.getTicker());
+
+		Long kakaoId = userService.getCurrentKakaoId();
+		return runOrderWork(kakaoId, List.of(coinSellBuyRequestDto),
+				locking -> executeOrder(kakaoId, coin, orderPrice, coinSellBuyRequestDto, locking));
+	}
+
+	/**
+	 * 발동한 대기 주문을 주어진 체결가로 체결한다. 인증 정보 없이 카카오 ID 로 사용자를 찾으며, 시장가 주문과 같은 검증/기록을 거친다. onFilled 는 같은 트랜잭션 안에서 체결 직후
+	 * 실행된다.
+	 */
+	public CoinOrderResponseDto executeTriggeredOrder(Long kakaoId, CoinSellBuyRequestDto coinSellBuyRequestDto,
+			double price, Runnable onFilled) {
+		CoinCatalogService.CoinEntry coin = coinCatalogService.findByTicker(coinSellBuyRequestDto.getTicker())
+				.orElseThrow(() -> new CustomException(404, "해당 코인을 찾을 수 없습니다."));
+		OrderPrice orderPrice = new OrderPrice(price, "TRIGGER", 0);
+		return runOrderWork(kakaoId, List.of(coinSellBuyRequestDto), locking -> {
+			CoinOrderResponseDto response = executeOrder(kakaoId, coin, orderPrice, coinSellBuyRequestDto, locking);
+			onFilled.run();
+			return response;
+		});
+	}
+
+	// 사용자 단위 주문 작업 실행. work 는 행 락 사용 여부를 받는다. sequenced: 사용자 레인에서 한 건씩 (레인 스레드에는 인증 정보가 없으므로 카카오 ID 로 조회),
+	// locking: 행 락 트랜잭션, optimistic: 락 없는 트랜잭션을 버전 충돌 시 재시도
+	private <T> T runOrderWork(Long kakaoId, List<CoinSellBuyRequestDto> requests, Function<Boolean, T> work) {
+		if ("sequenced".equalsIgnoreCase(executionMode)) {
+			return orderSequencer.execute(kakaoId, () -> sequencedTransaction.execute(status -> work.apply(false)));
+		}
+		if ("optimistic".equalsIgnoreCase(executionMode)) {
+			return runOptimistic(kakaoId, requests, work);
+		}
+		return lockingTransaction.execute(status -> work.apply(true));
+	}
+
+	/**
+	 * 행 락 없이 주문을 실행한다. 잔액/보유량의 버전이 커밋 시점에 바뀌어 있으면 트랜잭션 전체가 롤백되므로, 요청을 처음 상태로 되돌리고 지터를 준 지수 백오프 후 다시
+	 * 실행한다. max-attempts 번 모두 충돌하면 409 로 응답한다.
+	 */
+	private <T> T runOptimistic(Long kakaoId, List<CoinSellBuyRequestDto> requests, Function<Boolean, T> work) {
+		// 주문 처리 중 요청의 금액/수량이 채워지거나 조정되므로 재시도 전에 되돌린다
+		List<Long> amounts = new ArrayList<>(requests.size());
+		List<Double> quantities = new ArrayList<>(requests.size());
+		for (CoinSellBuyRequestDto request : requests) {
+			amounts.add(request.getOrderAmount());
+			quantities.add(request.getOrderQuantity());
+		}
+
+		for (int attempt = 1;; attempt++) {
+			optimisticAttemptCounter.increment();
+			try {
+				return sequencedTransaction.execute(status -> work.apply(false));
+			} catch (OptimisticLockingFailureException e) {
+				optimisticConflictCounter.increment();
+				if (attempt >= optimisticMaxAttempts) {
+					optimisticExhaustedCounter.increment();
+					log.warn("주문 버전 충돌 재시도 초과: kakaoId={}, attempts={}", kakaoId, attempt);
+					throw new CustomException(409, "동시에 처리 중인 주문이 있습니다. 잠시 후 다시 시도해주세요.");
+				}
+			}
+
+			for (int i = 0; i < requests.size(); i++) {
+				requests.get(i).setOrderAmount(amounts.get(i));
+				requests.get(i).setOrderQuantity(quantities.get(i));
+				requests.get(i).setOrderPrice(null);
+			}
+			long maxBackoff = optimisticBackoffMillis << Math.min(attempt - 1, 6);
+			try {
+				Thread.sleep(ThreadLocalRandom.current().nextLong(maxBackoff + 1));
+			} catch (InterruptedException interrupted) {
+				Thread.currentThread().interrupt();
+				throw new CustomException(503, "주문 처리가 중단되었습니다. 잠시 후 다시 시도해주세요.");
+			}
+		}
+	}
+
+	/**
+	 * 여러 주문을 한 트랜잭션에서 요청 순서대로 체결한다. 사용자 조회, 잔액/보유량 락, 시세 스냅샷은 한 번만 사용하며, 각 주문의 성공/실패를 따로 돌려준다. 실패한 주문은 잔액과
+	 * 보유량을 바꾸지 않으므로 나머지 주문은 그대로 체결된다.
+	 */
+	public List<CoinBatchOrderResultDto> createCoinOrders(CoinBatchOrderRequestDto batchRequest) {
+		List<CoinSellBuyRequestDto> orders = batchRequest.getOrders();
+		if (orders == null || orders.isEmpty()) {
+			throw new CustomException(400, "주문 목록이 비어 있습니다.");
+		}
+		if (orders.size() > maxBatchSize) {
+			throw new CustomException(400, "한 번에 주문할 수 있는 최대 개수는 " + maxBatchSize + "개입니다.");
+		}
+
+		// 코인과 체결가는 티커마다 한 번만, 같은 스냅샷에서 결정한다
+		PriceSnapshot snapshot = coinPriceService.latestSnapshot();
+		Map<String, OrderPrice> prices = new HashMap<>();
+		List<BatchItem> items = new ArrayList<>(orders.size());
+		for (int i = 0; i < orders.size(); i++) {
+			CoinSellBuyRequestDto order = orders.get(i);
+			BatchItem item = new BatchItem(i, order);
+			items.add(item);
+			try {
+				if (order.getTicker() == null || (order.getOrderAmount() == null && order.getOrderQuantity() == null)) {
+					throw new CustomException(400, "티커와 주문 금액 또는 수량이 필요합니다.");
+				}
+				item.coin = coinCatalogService.findByTicker(order.getTicker())
+						.orElseThrow(() -> new CustomException(404, "해당 코인을 찾을 수 없습니다."));
+				OrderPrice orderPrice = prices.get(item.coin.getTicker());
+				if (orderPrice == null) {
+					orderPrice = resolveOrderPrice(item.coin.getTicker(), snapshot);
+					prices.put(item.coin.getTicker(), orderPrice);
+				}
+				item.orderPrice = orderPrice;
+			} catch (CustomException e) {
+				item.result = rejected(item, e);
+			}
+		}
+
+		List<CoinSellBuyRequestDto> requests = items.stream().map(item -> item.request).collect(Collectors.toList());
+		Long kakaoId = userService.getCurrentKakaoId();
+		return runOrderWork(kakaoId, requests, locking -> executeBatch(kakaoId, items, locking));
+	}
+
+	// 일괄 주문 한 건의 처리 상태
+	private static final class BatchItem {
+		private final int index;
+		private final CoinSellBuyRequestDto request;
+		private CoinCatalogService.CoinEntry coin;
+		private OrderPrice orderPrice;
+		private CoinBatchOrderResultDto result;
+
+		private BatchItem(int index, CoinSellBuyRequestDto request) {
+			this.index = index;
+			this.request = request;
+		}
+	}
 
-		// 해당 코인 정보를 가져옵니다.
-		Optional<CoinInfo> coinInfoOpt = coinRepository.findByTicker(coinSellBuyRequestDto.getTicker());
-		if (coinInfoOpt.isEmpty()) {
-			throw new CustomException(404, "해당 코인을 찾을 수 없습니다.");
+	private List<CoinBatchOrderResultDto> executeBatch(Long kakaoId, List<BatchItem> items, boolean locking) {
+		// 현금 잔액과 주문하는 코인들의 보유 정보만 한 번에 조회/락
+		Set<Integer> coinIds = new HashSet<>();
+		for (BatchItem item : items) {
+			if (item.result == null) {
+				coinIds.add(item.coin.getId());
+			}
+		}
+		OrderContext context = coinIds.isEmpty() ? null : loadOrderContext(kakaoId, coinIds, locking);
+
+		List<CoinBatchOrderResultDto> results = new ArrayList<>(items.size());
+		for (BatchItem item : items) {
+			// 사전 검증에서 거절된 주문만 item.result 가 있다 (재시도 시 이전 시도의 결과를 쓰지 않도록 지역 변수에 담는다)
+			CoinBatchOrderResultDto result = item.result;
+			if (result == null) {
+				try {
+					CoinInfo coinInfo = coinInfoRepository.getReferenceById(item.coin.getId());
+					// 앞선 주문이 만들거나 지운 보유 정보는 컨텍스트에 반영되어 있다
+					prepareOrder(context, coinInfo, item.orderPrice, item.request);
+					CoinOrderResponseDto order = applyOrder(context, item.coin, coinInfo, item.orderPrice,
+							item.request);
+					result = CoinBatchOrderResultDto.builder().index(item.index).ticker(item.coin.getTicker())
+							.orderType(item.request.getOrderType()).success(true).order(order).build();
+				} catch (CustomException e) {
+					result = rejected(item, e);
+				}
+			}
+			results.add(result);
 		}
-		CoinInfo coinInfo = coinInfoOpt.get();
+		return results;
+	}
 
-		// 업비트에서 현재가 조회
-		Double currentPrice = getCurrentPrice(coinSellBuyRequestDto.getTicker());
+	private CoinBatchOrderResultDto rejected(BatchItem item, CustomException e) {
+		return CoinBatchOrderResultDto.builder().index(item.index).ticker(item.request.getTicker())
+				.orderType(item.request.getOrderType()).success(false).errorStatus(e.getStatus())
+				.errorMessage(e.getMessage()).build();
+	}
+
+	private CoinOrderResponseDto executeOrder(Long kakaoId, CoinCatalogService.CoinEntry coin,
+			OrderPrice orderPrice, CoinSellBuyRequestDto coinSellBuyRequestDto, boolean locking) {
+		CoinInfo coinInfo = coinInfoRepository.getReferenceById(coin.getId());
+		// 현금 잔액과 이 코인의 보유 정보만 한 번에 조회 (locking 모드에서는 같은 쿼리로 행 락)
+		OrderContext context = loadOrderContext(kakaoId, List.of(coin.getId()), locking);
+		prepareOrder(context, coinInfo, orderPrice, coinSellBuyRequestDto);
+		return applyOrder(context, coin, coinInfo, orderPrice, coinSellBuyRequestDto);
+	}
+
+	// 체결가를 정하고 비어 있는 주문 금액/수량을 계산한 뒤 유효성 검사
+	private void prepareOrder(OrderContext context, CoinInfo coinInfo, OrderPrice orderPrice,
+			CoinSellBuyRequestDto coinSellBuyRequestDto) {
+		double currentPrice = orderPrice.price;
 
 		// 현재가 설정
 		coinSellBuyRequestDto.setOrderPrice(currentPrice);
 
 		// orderAmount가 null일 때 수량으로 계산
 		if (coinSellBuyRequestDto.getOrderAmount() == null) {
-			Long calculatedAmount = Math.round(coinSellBuyRequestDto.getOrderQuantity() * currentPrice);
+			long calculatedAmount = CoinUnits.value(CoinUnits.toUnits(coinSellBuyRequestDto.getOrderQuantity()),
+					currentPrice);
 			coinSellBuyRequestDto.setOrderAmount(calculatedAmount + 1);
 		}
 		System.out.println("coinSellBuyRequestDto.getOrderType(): " + coinSellBuyRequestDto.getOrderType());
-		if (coinSellBuyRequestDto.getOrderQuantity() == null) {
-			// 다시 수량 계산
-			Double orderQuantity = coinSellBuyRequestDto.getOrderAmount() / currentPrice;
-			// orderQuantity = Math.floor(orderQuantity * 100000000) / 100000000;
-			// if(orderQuantity <coinSellBuyRequestDto.getOrderQuantity()){
-			coinSellBuyRequestDto.setOrderQuantity(orderQuantity);
-		}
+		// 수량을 단위 배수로 맞춘다 (이후 검증/갱신은 모두 정수 단위로 계산)
+		long orderUnits = coinSellBuyRequestDto.getOrderQuantity() == null
+				? CoinUnits.unitsFor(coinSellBuyRequestDto.getOrderAmount(), currentPrice)
+				: CoinUnits.toUnits(coinSellBuyRequestDto.getOrderQuantity());
+		coinSellBuyRequestDto.setOrderQuantity(CoinUnits.toQuantity(orderUnits));
 
 		// 주문 유효성 검사 및 조정
-		validateAndAdjustOrder(currentUser, coinSellBuyRequestDto, coinInfo);
-
-		// 거래 내역을 기록합니다.
-		CoinTransaction transaction = new CoinTransaction();
-		transaction.setUser(currentUser);
-		transaction.setCoinInfo(coinInfo);
-		transaction.setOrderType(coinSellBuyRequestDto.getOrderType());
-		transaction.setOrderQuantity(coinSellBuyRequestDto.getOrderQuantity());
-		transaction.setOrderPrice(coinSellBuyRequestDto.getOrderPrice());
-		transaction.setOrderAmount(coinSellBuyRequestDto.getOrderAmount());
-		transaction.setCreatedAt(ZonedDateTime.now(ZoneId.of("Asia/Seoul"))); // 거래 시간
-		currentUser.addTransaction(transaction); // 트랜잭션 페이지에 추가하는 작업 연관관계로 묶여있는걸로 접근
+		validateAndAdjustOrder(context, coinSellBuyRequestDto, coinInfo);
+	}
 
+	// 잔액/보유량을 갱신하고 거래 내역을 기록
+	private CoinOrderResponseDto applyOrder(OrderContext context, CoinCatalogService.CoinEntry coin, CoinInfo coinInfo,
+			OrderPrice orderPrice, CoinSellBuyRequestDto coinSellBuyRequestDto) {
 		// 거래 타입에 따라 코인 보유량과 현금 잔액을 업데이트합니다.
 		if ("buy".equalsIgnoreCase(coinSellBuyRequestDto.getOrderType())) {
 			// 구매 시 처리
-			processBuy(currentUser, coinInfo, coinSellBuyRequestDto);
+			processBuy(context, coinInfo, coinSellBuyRequestDto);
 		} else if ("sell".equalsIgnoreCase(coinSellBuyRequestDto.getOrderType())) {
 			// 판매 시 처리
-			processSell(currentUser, coinInfo, coinSellBuyRequestDto);
+			processSell(context, coinInfo, coinSellBuyRequestDto);
 		} else {
 			throw new CustomException(401, "유효하지 않은 거래 타입입니다.");
 		}
+
+		// 거래 내역을 기록합니다. (전량 매도 시 조정된 최종 금액으로 기록)
+		ZonedDateTime executedAt = ZonedDateTime.now(ZoneId.of("Asia/Seoul")); // 거래 시간
+		long orderUnits = CoinUnits.toUnits(coinSellBuyRequestDto.getOrderQuantity());
+		int transactionId = ledgerWriter.allocateId();
+		if (!ledgerWriter.isWriteBehind()) {
+			ledgerWriter.insert(transactionId, context.userId(), coinInfo.getId(), coinSellBuyRequestDto.getOrderType(),
+					orderUnits, coinSellBuyRequestDto.getOrderPrice(), coinSellBuyRequestDto.getOrderAmount(),
+					executedAt);
+		}
+
+		// 주문 이벤트를 같은 트랜잭션에서 아웃박스에 기록 (커밋된 주문만 릴레이가 전달, 거래 내역도 여기서 배치로 저장)
+		if (orderOutboxRelay.isEnabled()) {
+			OrderOutbox event = new OrderOutbox();
+			event.setTransactionId(transactionId);
+			event.setUserId(context.userId());
+			event.setCoinId(coinInfo.getId());
+			event.setOrderType(coinSellBuyRequestDto.getOrderType());
+			event.setOrderUnits(orderUnits);
+			event.setOrderPrice(coinSellBuyRequestDto.getOrderPrice());
+			event.setOrderAmount(coinSellBuyRequestDto.getOrderAmount());
+			event.setCashBalance(context.cashBalance().getBalance());
+			event.setHoldingUnits(context.holding(coinInfo.getId()).map(CoinHolding::getHoldingUnits).orElse(0L));
+			event.setCreatedAt(executedAt);
+			orderOutboxRepository.save(event);
+		}
+
+		return CoinOrderResponseDto.builder().ticker(coin.getTicker())
+				.orderType(coinSellBuyRequestDto.getOrderType())
+				.orderQuantity(coinSellBuyRequestDto.getOrderQuantity())
+				.orderPrice(coinSellBuyRequestDto.getOrderPrice()).orderAmount(coinSellBuyRequestDto.getOrderAmount())
+				.priceSource(orderPrice.source).priceAgeMs(orderPrice.ageMillis).build();
 	}
 
 	// 주문 유효성 검사 및 조정
-	private void validateAndAdjustOrder(User user, CoinSellBuyRequestDto request, CoinInfo coinInfo) {
+	private void validateAndAdjustOrder(OrderContext context, CoinSellBuyRequestDto request, CoinInfo coinInfo) {
 		if ("buy".equalsIgnoreCase(request.getOrderType())) {
 			// 구매 시 유효성 검사
-			CashBalance cashBalance = user.getCashBalance();
-			if (cashBalance == null) {
-				throw new CustomException(404, "현금 잔액 정보가 없습니다.");
-			}
+			CashBalance cashBalance = context.cashBalance();
 
 			// 보유 현금보다 주문 금액이 큰 경우 오류
 			if (cashBalance.getBalance() < request.getOrderAmount()) {
@@ -143,111 +468,123 @@ public class CoinService {
 
 		} else if ("sell".equalsIgnoreCase(request.getOrderType())) {
 			// 판매 시 유효성 검사
-			Optional<CoinHolding> existingHolding = user.getCoinHoldings().stream()
-					.filter(holding -> holding.getCoinInfo().getId().equals(coinInfo.getId())).findFirst();
+			Optional<CoinHolding> existingHolding = context.holding(coinInfo.getId());
 
 			if (existingHolding.isEmpty()) {
 				throw new CustomException(403, "판매할 코인을 보유하고 있지 않습니다.");
 			}
 
 			// 보유 수량보다 많이 판매하려고 하면 보유 수량으로 조정
-			if (existingHolding.get().getHoldingQuantity() < request.getOrderQuantity()) {
-				Double availableQuantity = existingHolding.get().getHoldingQuantity();
-				request.setOrderQuantity(availableQuantity);
+			long holdingUnits = existingHolding.get().getHoldingUnits();
+			long orderUnits = CoinUnits.toUnits(request.getOrderQuantity());
+			if (holdingUnits < orderUnits) {
+				orderUnits = holdingUnits;
+				request.setOrderQuantity(CoinUnits.toQuantity(orderUnits));
 				// 주문 금액도 다시 계산
-				request.setOrderAmount(Math.round(request.getOrderPrice() * availableQuantity));
-
-				if (request.getOrderQuantity() < 0) {
-					throw new CustomException(404, "판매할 코인이 없습니다.");
-				}
+				request.setOrderAmount(CoinUnits.value(orderUnits, request.getOrderPrice()));
 			}
 
-			if (request.getOrderQuantity() <= 0) {
+			if (orderUnits <= 0) {
 				throw new CustomException(400, "최소 주문 수량은 0이 될 수없습니다. 현재 주문 수량: " + request.getOrderQuantity());
 			}
 		}
 	}
 
-	private void processBuy(User user, CoinInfo coinInfo, CoinSellBuyRequestDto request) {
-		// 현금 잔액 락 획득
-		CashBalance cashBalance = cashBalanceRepository.findByUserWithLock(user).orElseGet(() -> {
-			CashBalance newBalance = new CashBalance(); // 만약 cashbalance가 없다면 새롭게 맵핑
+	/**
+	 * 주문에 필요한 행만 조회한다: 현금 잔액과 coinIds 코인들의 보유 정보를 한 쿼리로 읽으며 User 와 그 컬렉션은 읽지 않는다. locking 모드에서는 같은 쿼리로 행 락을 잡는다.
+	 */
+	private OrderContext loadOrderContext(Long kakaoId, Collection<Integer> coinIds, boolean locking) {
+		List<Object[]> rows = findOrderContext(kakaoId, coinIds, locking);
+		if (rows.isEmpty()) {
+			// 현금 잔액 행이 없는 사용자 (가입 시 만들어지므로 드묾): 새로 만든 뒤 다시 조회
+			User user = userService.getUserByKakaoId(kakaoId);
+			CashBalance newBalance = new CashBalance();
 			user.setCashBalance(newBalance);
-			return newBalance;
-		});
+			cashBalanceRepository.saveAndFlush(newBalance);
+			rows = findOrderContext(kakaoId, coinIds, locking);
+		}
+
+		CashBalance cashBalance = (CashBalance) rows.get(0)[0];
+		Map<Integer, CoinHolding> holdings = new HashMap<>();
+		for (Object[] row : rows) {
+			CoinHolding holding = (CoinHolding) row[1];
+			if (holding != null) {
+				holdings.putIfAbsent(holding.getCoinInfo().getId(), holding);
+			}
+		}
+		return new OrderContext(cashBalance, holdings);
+	}
 
-		// 코인 보유 정보 락 획득
-		Optional<CoinHolding> existingHolding = coinHoldingRepository.findByUserAndCoinInfoWithLock(user, coinInfo);
+	private List<Object[]> findOrderContext(Long kakaoId, Collection<Integer> coinIds, boolean locking) {
+		return locking
+				? cashBalanceRepository.findOrderContextWithLock(kakaoId, coinIds)
+				: cashBalanceRepository.findOrderContext(kakaoId, coinIds);
+	}
 
+	private void processBuy(OrderContext context, CoinInfo coinInfo, CoinSellBuyRequestDto request) {
+		CashBalance cashBalance = context.cashBalance();
+		Optional<CoinHolding> existingHolding = context.holding(coinInfo.getId());
+		long orderAmount = request.getOrderAmount();
 		// 현금 잔액이 충분한지 확인
-		if (cashBalance.getBalance() < request.getOrderAmount()) {
+		if (cashBalance.getBalance() < orderAmount) {
 			throw new CustomException(403, "현금 잔액이 부족합니다. 현재 잔액: " + cashBalance.getBalance());
 		}
 
 		// 현금 잔액 감소
-		cashBalance.setBalance(cashBalance.getBalance() - request.getOrderAmount());
+		cashBalance.setBalance(cashBalance.getBalance() - orderAmount);
 
+		long orderUnits = CoinUnits.toUnits(request.getOrderQuantity());
+		long orderCost = CoinUnits.value(orderUnits, request.getOrderPrice());
 		// 코인 보유량 업데이트
 		if (existingHolding.isPresent()) {
-			// 기존 보유량이 있는 경우 수량과 평균 매수가 업데이트
+			// 기존 보유량이 있는 경우 수량과 매수 금액 합산
 			CoinHolding holding = existingHolding.get();
-			double newHoldingPrice = request.getOrderQuantity() * request.getOrderPrice();
-			double newTotalQuantity = holding.getHoldingQuantity() + request.getOrderQuantity();
-
-			holding.setHoldingQuantity(newTotalQuantity);
-			holding.setHoldingPrice(holding.getHoldingPrice() + newHoldingPrice); // 항상 코인당 평균 매수가로 저장
+			holding.setHoldingUnits(holding.getHoldingUnits() + orderUnits);
+			holding.setHoldingCost(holding.getHoldingCost() + orderCost);
 		} else {
 			// 기존 보유량이 없는 경우 새로 생성
 			CoinHolding newHolding = new CoinHolding();
 			newHolding.setCoinInfo(coinInfo);
-			newHolding.setHoldingQuantity(request.getOrderQuantity());
-			newHolding.setHoldingPrice(request.getOrderPrice() * request.getOrderQuantity());
-			user.addCoinHolding(newHolding);
+			newHolding.setHoldingUnits(orderUnits);
+			newHolding.setHoldingCost(orderCost);
+			newHolding.setUser(context.user());
+			coinHoldingRepository.save(newHolding);
+			context.putHolding(coinInfo.getId(), newHolding);
 		}
 	}
 
-	private void processSell(User user, CoinInfo coinInfo, CoinSellBuyRequestDto request) {
-		// 코인 보유 정보 락 획득
-		Optional<CoinHolding> existingHolding = coinHoldingRepository.findByUserAndCoinInfoWithLock(user, coinInfo);
-
-		// 현금 잔액 락 획득
-		CashBalance cashBalance = cashBalanceRepository.findByUserWithLock(user).orElseGet(() -> {
-			CashBalance newBalance = new CashBalance();
-			user.setCashBalance(newBalance);
-			return newBalance;
-		});
-
-		if (existingHolding.isEmpty() || existingHolding.get().getHoldingQuantity() < request.getOrderQuantity()) {
+	private void processSell(OrderContext context, CoinInfo coinInfo, CoinSellBuyRequestDto request) {
+		CashBalance cashBalance = context.cashBalance();
+		Optional<CoinHolding> existingHolding = context.holding(coinInfo.getId());
+		long orderUnits = CoinUnits.toUnits(request.getOrderQuantity());
+		if (existingHolding.isEmpty() || existingHolding.get().getHoldingUnits() < orderUnits) {
 			throw new CustomException(403, "코인 보유량이 부족합니다.");
 		} else if (request.getOrderAmount() < 5000) {
 			throw new CustomException(400, "최소 주문 금액은 5000원입니다. 현재 주문 금액: " + request.getOrderAmount());
 		}
-		if (request.getOrderQuantity() / existingHolding.get().getHoldingQuantity() <= 1) {
-			CoinHolding holding = existingHolding.get();
-
-			// 전체 수량 판매 요청인 경우
-			if (Math.abs(holding.getHoldingQuantity() - request.getOrderQuantity()) < 0.00000001
-					&& 0 <= Math.abs(holding.getHoldingQuantity() - request.getOrderQuantity())) { // 소수점 8자리 미만은 전부 판매
-				// 현재가 조회
-				Double currentPrice = getCurrentPrice(coinInfo.getTicker());
-				// 보유량 전체 제거
-				user.getCoinHoldings().remove(holding);
-				// 정확한 금액 계산
-				request.setOrderAmount(Math.round(holding.getHoldingQuantity() * currentPrice));
-			} else {
-				// 일부 수량 판매
-				holding.setHoldingQuantity(holding.getHoldingQuantity() - request.getOrderQuantity());
-				// 평균 매수가 비율 유지
-				holding.setHoldingPrice(holding.getHoldingPrice()
-						* (holding.getHoldingQuantity() / (holding.getHoldingQuantity() + request.getOrderQuantity())));
-			}
-
-			// 현금 잔액 증가
-			cashBalance.setBalance(cashBalance.getBalance() + request.getOrderAmount());
+		CoinHolding holding = existingHolding.get();
+		long holdingUnits = holding.getHoldingUnits();
+
+		// 전체 수량 판매 요청인 경우 (단위가 같으면 정확히 전량)
+		if (orderUnits == holdingUnits) {
+			// 보유량 전체 제거
+			coinHoldingRepository.delete(holding);
+			context.removeHolding(coinInfo.getId());
+			// 정확한 금액 계산 (주문 시점에 결정한 체결가 재사용)
+			request.setOrderAmount(CoinUnits.value(holdingUnits, request.getOrderPrice()));
+		} else {
+			// 일부 수량 판매
+			long remainingUnits = holdingUnits - orderUnits;
+			holding.setHoldingUnits(remainingUnits);
+			// 매수 금액은 남은 수량 비율만큼 유지
+			holding.setHoldingCost(Math.round(holding.getHoldingCost() * ((double) remainingUnits / holdingUnits)));
 		}
+
+		// 현금 잔액 증가
+		cashBalance.setBalance(cashBalance.getBalance() + request.getOrderAmount());
 	}
 
-	private CoinInfoResponseDto convertToCoinInfosResponse(CoinInfo coinInfo) {
-		return new CoinInfoResponseDto(coinInfo.getTicker(), coinInfo.getKrCoinName());
+	private CoinInfoResponseDto convertToCoinInfosResponse(CoinCatalogService.CoinEntry coin) {
+		return new CoinInfoResponseDto(coin.getTicker(), coin.getKrCoinName());
 	}
 }
\ No newline at end of file
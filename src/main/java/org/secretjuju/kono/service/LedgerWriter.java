@@ -0,0 +1,346 @@
+package org.secretjuju.kono.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.secretjuju.kono.entity.CoinUnits;
+import org.secretjuju.kono.entity.IdBlock;
+import org.secretjuju.kono.entity.OrderOutbox;
+import org.secretjuju.kono.entity.OrderOutboxOffset;
+import org.secretjuju.kono.exception.CustomException;
+import org.secretjuju.kono.repository.CoinTransactionRepository;
+import org.secretjuju.kono.repository.IdBlockRepository;
+import org.secretjuju.kono.repository.OrderOutboxOffsetRepository;
+import org.secretjuju.kono.repository.OrderOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 거래 내역(coin_transaction) write-behind 기록기.
+ *
+ * <p>
+ * 주문 트랜잭션은 거래 기록을 coin_transaction 대신 주문 아웃박스 행에 담아 함께 커밋한다. 이 기록기는 아웃박스 구독자("ledger")로 릴레이가 넘겨준 묶음을 JDBC 배치(다중 행
+ * INSERT)로 저장하며, 저장과 전달 위치 갱신이 한 트랜잭션이라 커밋된 주문은 재기동이나 장애 뒤에도 빠짐없이 한 번만 저장된다. ID 는 id_block 테이블에서 블록 단위(hi/lo)로 받아
+ * 주문 시점에 미리 배정하므로 IDENTITY 와 달리 배치가 가능하고(다음 블록은 남은 ID 가 절반 이하일 때 별도 스레드에서 미리 받아 주문 트랜잭션이 커넥션을 쥔 채 기다리지 않는다), 다시 전달돼도 INSERT IGNORE 로 중복이 없다. 아직 저장되지 않은 기록은 아웃박스에서 사용자별로 조회할 수 있어
+ * 거래 내역 조회는 (어느 인스턴스에서 체결했든) 방금 체결한 주문을 바로 본다. 아웃박스를 끄면 주문 트랜잭션에서 바로 저장한다.
+ */
+@Service
+@Slf4j
+public class LedgerWriter {
+
+	static final String SUBSCRIBER = "ledger";
+	private static final String ID_BLOCK_NAME = "coin_transaction";
+	private static final ZoneId SEOUL = ZoneId.of("Asia/Seoul");
+	private static final String INSERT_SQL = "INSERT IGNORE INTO coin_transaction "
+			+ "(id, user_id, coin_info_id, order_type, order_quantity, order_price, order_amount, created_at) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final IdBlockRepository idBlockRepository;
+	private final CoinTransactionRepository coinTransactionRepository;
+	private final OrderOutboxRepository orderOutboxRepository;
+	private final OrderOutboxOffsetRepository orderOutboxOffsetRepository;
+	private final OrderOutboxRelay orderOutboxRelay;
+	private final TransactionTemplate idBlockTransaction;
+
+	@Value("${order.ledger.id-block-size:1000}")
+	private int idBlockSize;
+
+	@Value("${order.ledger.id-block-timeout-ms:5000}")
+	private long idBlockTimeoutMillis;
+
+	private final Counter flushedCounter;
+	private final Counter failureCounter;
+	private final Timer flushTimer;
+	private final Timer lagTimer;
+
+	// 다음 ID 블록을 받는 전용 스레드 (주문 스레드는 DB 호출 없이 메모리에서 배정)
+	private final ExecutorService idBlockExecutor = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "ledger-id-block");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	// 아래 필드는 this 로 동기화
+	private long nextId;
+	private long idLimit;
+	// 받고 있거나 받아 둔 다음 블록의 시작값
+	private CompletableFuture<Long> nextBlock;
+	// id_block 행을 만들었는지 (idBlockExecutor 스레드 전용)
+	private boolean idBlockSeeded;
+
+	public LedgerWriter(JdbcTemplate jdbcTemplate, IdBlockRepository idBlockRepository,
+			CoinTransactionRepository coinTransactionRepository, OrderOutboxRepository orderOutboxRepository,
+			OrderOutboxOffsetRepository orderOutboxOffsetRepository, OrderOutboxRelay orderOutboxRelay,
+			PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.idBlockRepository = idBlockRepository;
+		this.coinTransactionRepository = coinTransactionRepository;
+		this.orderOutboxRepository = orderOutboxRepository;
+		this.orderOutboxOffsetRepository = orderOutboxOffsetRepository;
+		this.orderOutboxRelay = orderOutboxRelay;
+		// 주문 트랜잭션과 별개로 idBlockExecutor 스레드에서 ID 블록을 받아 바로 커밋한다
+		this.idBlockTransaction = new TransactionTemplate(transactionManager);
+
+		this.flushedCounter = meterRegistry.counter("ledger.flushed");
+		this.failureCounter = meterRegistry.counter("ledger.flush.failures");
+		this.flushTimer = meterRegistry.timer("ledger.flush.latency");
+		// 커밋부터 DB 저장까지 걸린 시간 (배치의 가장 오래된 기록 기준)
+		this.lagTimer = meterRegistry.timer("ledger.flush.lag");
+		// 커밋됐지만 아직 coin_transaction 에 저장되지 않은 기록 수
+		Gauge.builder("ledger.queue.depth", this, LedgerWriter::pendingCount).register(meterRegistry);
+	}
+
+	/**
+	 * 아직 DB 에 저장되지 않은 거래 기록.
+	 */
+	public static final class LedgerEntry {
+		private final int id;
+		private final int userId;
+		private final int coinId;
+		private final String orderType;
+		private final long orderUnits;
+		private final double orderPrice;
+		private final long orderAmount;
+		private final long createdAtMillis;
+
+		private LedgerEntry(int id, int userId, int coinId, String orderType, long orderUnits, double orderPrice,
+				long orderAmount, long createdAtMillis) {
+			this.id = id;
+			this.userId = userId;
+			this.coinId = coinId;
+			this.orderType = orderType;
+			this.orderUnits = orderUnits;
+			this.orderPrice = orderPrice;
+			this.orderAmount = orderAmount;
+			this.createdAtMillis = createdAtMillis;
+		}
+
+		public int getId() {
+			return id;
+		}
+
+		public int getUserId() {
+			return userId;
+		}
+
+		public int getCoinId() {
+			return coinId;
+		}
+
+		public String getOrderType() {
+			return orderType;
+		}
+
+		public long getOrderUnits() {
+			return orderUnits;
+		}
+
+		public double getOrderQuantity() {
+			return CoinUnits.toQuantity(orderUnits);
+		}
+
+		public double getOrderPrice() {
+			return orderPrice;
+		}
+
+		public long getOrderAmount() {
+			return orderAmount;
+		}
+
+		public ZonedDateTime getCreatedAt() {
+			return Instant.ofEpochMilli(createdAtMillis).atZone(SEOUL);
+		}
+	}
+
+	@PostConstruct
+	public void start() {
+		if (orderOutboxRelay.isEnabled()) {
+			orderOutboxRelay.subscribe(SUBSCRIBER, this::onOrderEvents);
+		}
+		// 첫 주문이 블록을 기다리지 않도록 미리 받아 둔다
+		synchronized (this) {
+			prefetchIdBlock();
+		}
+	}
+
+	@PreDestroy
+	public void stop() {
+		idBlockExecutor.shutdownNow();
+	}
+
+	/**
+	 * 아웃박스를 쓰는지. 쓰면 주문 트랜잭션은 {@link #allocateId()} 로 받은 ID 를 아웃박스 행에 담고, 아니면 {@link #insert} 로 바로 저장한다.
+	 */
+	public boolean isWriteBehind() {
+		return orderOutboxRelay.isEnabled();
+	}
+
+	// 거래 기록 ID 배정 (id_block 에서 블록 단위로 받는다). 블록이 바닥나면 모니터 밖에서 미리 받는 중인 블록을 기다린다
+	public int allocateId() {
+		while (true) {
+			CompletableFuture<Long> block;
+			synchronized (this) {
+				if (nextId < idLimit) {
+					if (idLimit - nextId <= idBlockSize / 2) {
+						prefetchIdBlock();
+					}
+					return Math.toIntExact(nextId++);
+				}
+				prefetchIdBlock();
+				block = nextBlock;
+			}
+			long start = awaitIdBlock(block);
+			synchronized (this) {
+				// 먼저 깨어난 스레드가 한 번만 설치한다
+				if (nextBlock == block) {
+					nextBlock = null;
+					nextId = start;
+					idLimit = start + idBlockSize;
+				}
+			}
+		}
+	}
+
+	// this 를 잡은 채 호출한다
+	private void prefetchIdBlock() {
+		if (nextBlock == null) {
+			nextBlock = CompletableFuture.supplyAsync(this::fetchIdBlock, idBlockExecutor);
+		}
+	}
+
+	private long awaitIdBlock(CompletableFuture<Long> block) {
+		try {
+			return block.get(idBlockTimeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			throw new CustomException(503, "주문 처리가 지연되고 있습니다. 잠시 후 다시 시도해주세요.");
+		} catch (ExecutionException e) {
+			log.warn("거래 기록 ID 블록 조회 실패: {}", e.getCause().getMessage());
+			synchronized (this) {
+				// 다음 호출이 다시 받도록
+				if (nextBlock == block) {
+					nextBlock = null;
+				}
+			}
+			throw new CustomException(503, "주문 처리가 지연되고 있습니다. 잠시 후 다시 시도해주세요.");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CustomException(503, "주문 처리가 지연되고 있습니다. 잠시 후 다시 시도해주세요.");
+		}
+	}
+
+	/**
+	 * 거래 기록을 바로 저장한다 (아웃박스를 끈 경우). 주문 트랜잭션에 참여한다.
+	 */
+	public void insert(int id, int userId, int coinId, String orderType, long orderUnits, double orderPrice,
+			long orderAmount, ZonedDateTime createdAt) {
+		jdbcTemplate.update(INSERT_SQL, id, userId, coinId, orderType, CoinUnits.toQuantity(orderUnits), orderPrice,
+				orderAmount, Timestamp.from(createdAt.toInstant()));
+	}
+
+	// 사용자의 아직 저장되지 않은 기록 (오래된 순)
+	public List<LedgerEntry> pendingFor(Integer userId) {
+		if (!isWriteBehind()) {
+			return List.of();
+		}
+		List<OrderOutbox> rows = orderOutboxRepository.findLedgerPending(userId, storedUpTo());
+		List<LedgerEntry> pending = new ArrayList<>(rows.size());
+		for (OrderOutbox row : rows) {
+			pending.add(new LedgerEntry(row.getTransactionId(), row.getUserId(), row.getCoinId(), row.getOrderType(),
+					row.getOrderUnits(), row.getOrderPrice(), row.getOrderAmount(),
+					row.getCreatedAt().toInstant().toEpochMilli()));
+		}
+		return pending;
+	}
+
+	// 아직 저장되지 않은 기록 중 가장 오래된 체결 시각
+	public Optional<ZonedDateTime> oldestPendingAt() {
+		if (!isWriteBehind()) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(orderOutboxRepository.findOldestLedgerPending(storedUpTo()));
+	}
+
+	// 릴레이 트랜잭션 안에서 호출된다. 실패하면 예외를 던져 같은 묶음을 다시 받는다
+	private void onOrderEvents(List<OrderEvent> events) {
+		List<Object[]> rows = new ArrayList<>(events.size());
+		for (OrderEvent event : events) {
+			if (event.getTransactionId() > 0) {
+				rows.add(new Object[]{event.getTransactionId(), event.getUserId(), event.getCoinId(),
+						event.getOrderType(), CoinUnits.toQuantity(event.getOrderUnits()), event.getOrderPrice(),
+						event.getOrderAmount(), new Timestamp(event.getCreatedAtMillis())});
+			}
+		}
+		if (rows.isEmpty()) {
+			return;
+		}
+		long startedAt = System.nanoTime();
+		try {
+			jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+		} catch (RuntimeException e) {
+			failureCounter.increment();
+			throw e;
+		}
+		flushTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+		lagTimer.record(Math.max(0, System.currentTimeMillis() - events.get(0).getCreatedAtMillis()),
+				TimeUnit.MILLISECONDS);
+		flushedCounter.increment(rows.size());
+	}
+
+	// 이 순번까지의 아웃박스 행은 저장이 끝났다
+	private long storedUpTo() {
+		return orderOutboxOffsetRepository.findById(SUBSCRIBER).map(OrderOutboxOffset::getLastSeq).orElse(0L);
+	}
+
+	private double pendingCount() {
+		if (!isWriteBehind()) {
+			return 0;
+		}
+		try {
+			return orderOutboxRepository.countUndelivered(storedUpTo());
+		} catch (RuntimeException e) {
+			log.debug("거래 내역 대기 건수 조회 실패: {}", e.getMessage());
+			return Double.NaN;
+		}
+	}
+
+	// id_block 에서 다음 블록을 받아 바로 커밋 (idBlockExecutor 스레드)
+	private long fetchIdBlock() {
+		if (!idBlockSeeded) {
+			// 처음이면 기존 거래 내역 다음 번호부터. 여러 인스턴스가 동시에 만들어도 행은 하나만 생기고 나머지는 그 값을 쓴다
+			idBlockTransaction.executeWithoutResult(
+					status -> idBlockRepository.seed(ID_BLOCK_NAME, coinTransactionRepository.findMaxId() + 1L));
+			idBlockSeeded = true;
+		}
+		return idBlockTransaction.execute(status -> {
+			IdBlock block = idBlockRepository.findByNameWithLock(ID_BLOCK_NAME)
+					.orElseThrow(() -> new IllegalStateException("거래 기록 ID 블록이 없습니다."));
+			long blockStart = block.getNextId();
+			block.setNextId(blockStart + idBlockSize);
+			idBlockRepository.save(block);
+			return blockStart;
+		});
+	}
+}
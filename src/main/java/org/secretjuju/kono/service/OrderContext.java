@@ -0,0 +1,53 @@
+package org.secretjuju.kono.service;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.secretjuju.kono.entity.CashBalance;
+import org.secretjuju.kono.entity.CoinHolding;
+import org.secretjuju.kono.entity.User;
+
+/**
+ * 주문 한 건(또는 일괄 주문 한 묶음)에 필요한 행만 담은 컨텍스트.
+ *
+ * <p>
+ * 현금 잔액 행과 주문하는 코인의 보유 정보 행만 가지며 User 엔티티와 그 컬렉션은 읽지 않는다. user 는 연관관계 설정용 참조(프록시)이다. 일괄 주문에서 앞선 주문이 만들거나 지운
+ * 보유 정보가 뒤 주문에 보이도록 holdings 를 함께 갱신한다.
+ */
+final class OrderContext {
+
+	private final User user;
+	private final CashBalance cashBalance;
+	// 코인 ID -> 보유 정보
+	private final Map<Integer, CoinHolding> holdings;
+
+	OrderContext(CashBalance cashBalance, Map<Integer, CoinHolding> holdings) {
+		this.user = cashBalance.getUser();
+		this.cashBalance = cashBalance;
+		this.holdings = holdings;
+	}
+
+	User user() {
+		return user;
+	}
+
+	Integer userId() {
+		return user.getId();
+	}
+
+	CashBalance cashBalance() {
+		return cashBalance;
+	}
+
+	Optional<CoinHolding> holding(Integer coinId) {
+		return Optional.ofNullable(holdings.get(coinId));
+	}
+
+	void putHolding(Integer coinId, CoinHolding holding) {
+		holdings.put(coinId, holding);
+	}
+
+	void removeHolding(Integer coinId) {
+		holdings.remove(coinId);
+	}
+}
@@ -0,0 +1,85 @@
+package org.secretjuju.kono.service;
+
+/**
+ * 체결된 주문 이벤트. 주문 트랜잭션이 커밋된 뒤 아웃박스 릴레이가 전달한다. 처리 위치를 갱신하는 트랜잭션이 커밋되지 못하면 같은 이벤트가 다시 전달될 수 있으므로 DB 밖에
+ * 반영하는 소비자는 id 로 중복을 걸러야 한다.
+ */
+public final class OrderEvent {
+
+	private final long id;
+	private final int transactionId;
+	private final int userId;
+	private final int coinId;
+	private final String orderType;
+	private final long orderUnits;
+	private final double orderPrice;
+	private final long orderAmount;
+	private final long cashBalance;
+	private final long holdingUnits;
+	private final long createdAtMillis;
+
+	public OrderEvent(long id, int transactionId, int userId, int coinId, String orderType, long orderUnits, double orderPrice,
+			long orderAmount, long cashBalance, long holdingUnits, long createdAtMillis) {
+		this.id = id;
+		this.transactionId = transactionId;
+		this.userId = userId;
+		this.coinId = coinId;
+		this.orderType = orderType;
+		this.orderUnits = orderUnits;
+		this.orderPrice = orderPrice;
+		this.orderAmount = orderAmount;
+		this.cashBalance = cashBalance;
+		this.holdingUnits = holdingUnits;
+		this.createdAtMillis = createdAtMillis;
+	}
+
+	// 아웃박스 순번 (같은 사용자의 이벤트는 체결 순서대로 증가)
+	public long getId() {
+		return id;
+	}
+
+	// 거래 내역(coin_transaction) ID. 거래 내역 없이 기록된 이벤트면 0
+	public int getTransactionId() {
+		return transactionId;
+	}
+
+	public int getUserId() {
+		return userId;
+	}
+
+	public int getCoinId() {
+		return coinId;
+	}
+
+	// "buy" 또는 "sell"
+	public String getOrderType() {
+		return orderType;
+	}
+
+	// 주문 수량 (CoinUnits 단위)
+	public long getOrderUnits() {
+		return orderUnits;
+	}
+
+	public double getOrderPrice() {
+		return orderPrice;
+	}
+
+	public long getOrderAmount() {
+		return orderAmount;
+	}
+
+	// 체결 후 현금 잔액
+	public long getCashBalance() {
+		return cashBalance;
+	}
+
+	// 체결 후 이 코인 보유 수량 (CoinUnits 단위)
+	public long getHoldingUnits() {
+		return holdingUnits;
+	}
+
+	public long getCreatedAtMillis() {
+		return createdAtMillis;
+	}
+}
@@ -0,0 +1,280 @@
+package org.secretjuju.kono.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.secretjuju.kono.dto.request.CoinSellBuyRequestDto;
+import org.secretjuju.kono.dto.response.CoinOrderResponseDto;
+import org.secretjuju.kono.exception.CustomException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 주문 Idempotency-Key 중복 제거 저장소.
+ *
+ * <p>
+ * 키는 사용자별로 구분한다. 처음 보는 키면 Redis 에 SETNX 로 처리 중 표시(lease-ms 동안만 유효)를 남긴 뒤 주문을 실행하고 결과를 저장한다
+ * (ttl-ms 동안 유지). 처리 중 표시에는 짧은 만료를 두어, 표시를 남긴 노드가 결과 저장/표시 삭제 전에 죽어도 그 키가 오래 막히지 않는다. 주문이 lease 보다 오래
+ * 걸려도 표시가 먼저 사라지지 않도록 처리하는 동안 lease/3 마다 만료를 다시 lease 로 늘린다. 같은 키로 다시 오면 주문을 실행하지 않고 저장된 결과를
+ * 돌려준다. 결과는 로컬 캐시(크기/TTL 제한)에도 두어 같은 노드로 온 재시도는 Redis 를 거치지 않으며, Redis 에 접근할 수 없으면 로컬 캐시만으로 동작한다. 주문이 실패하면
+ * 표시를 지워 같은 키로 다시 시도할 수 있게 한다.
+ */
+@Service
+@Slf4j
+public class OrderIdempotencyService {
+
+	private static final String KEY_PREFIX = "order:idempotency:";
+	private static final int MAX_KEY_LENGTH = 128;
+
+	private final UserService userService;
+	private final RedisTemplate<String, Object> redisTemplate;
+	private final ObjectMapper objectMapper;
+	private final Duration ttl;
+	private final Duration lease;
+
+	private final Cache<String, StoredOrder> localCache;
+	// 같은 노드에서 동시에 들어온 같은 키 요청은 먼저 온 요청의 결과를 기다린다
+	private final ConcurrentHashMap<String, CompletableFuture<StoredOrder>> inFlight = new ConcurrentHashMap<>();
+	// 처리 중 표시 만료 연장
+	private final ScheduledExecutorService leaseRenewer = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "order-idempotency-lease");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Counter executedCounter;
+	private final Counter replayedCounter;
+	private final Counter conflictCounter;
+	private final Counter redisErrorCounter;
+
+	public OrderIdempotencyService(UserService userService, RedisTemplate<String, Object> redisTemplate,
+			ObjectMapper objectMapper, MeterRegistry meterRegistry,
+			@Value("${order.idempotency.ttl-ms:86400000}") long ttlMillis,
+			@Value("${order.idempotency.lease-ms:30000}") long leaseMillis,
+			@Value("${order.idempotency.local-max-size:100000}") long localMaxSize) {
+		this.userService = userService;
+		this.redisTemplate = redisTemplate;
+		this.objectMapper = objectMapper;
+		this.ttl = Duration.ofMillis(ttlMillis);
+		this.lease = Duration.ofMillis(leaseMillis);
+		this.localCache = Caffeine.newBuilder().maximumSize(localMaxSize).expireAfterWrite(ttl).build();
+
+		this.executedCounter = meterRegistry.counter("order.idempotency", "result", "executed");
+		this.replayedCounter = meterRegistry.counter("order.idempotency", "result", "replayed");
+		this.conflictCounter = meterRegistry.counter("order.idempotency", "result", "conflict");
+		this.redisErrorCounter = meterRegistry.counter("order.idempotency", "result", "redis_error");
+	}
+
+	@PreDestroy
+	public void stop() {
+		leaseRenewer.shutdownNow();
+	}
+
+	/**
+	 * 저장된 주문 결과. response 가 null 이면 아직 처리 중이다.
+	 */
+	@Getter
+	@NoArgsConstructor
+	public static class StoredOrder {
+		private String fingerprint;
+		private CoinOrderResponseDto response;
+
+		private StoredOrder(String fingerprint, CoinOrderResponseDto response) {
+			this.fingerprint = fingerprint;
+			this.response = response;
+		}
+	}
+
+	// 주문 결과와 재전송 여부
+	@Getter
+	public static class Result {
+		private final CoinOrderResponseDto response;
+		private final boolean replayed;
+
+		private Result(CoinOrderResponseDto response, boolean replayed) {
+			this.response = response;
+			this.replayed = replayed;
+		}
+	}
+
+	/**
+	 * idempotencyKey 로 처음 들어온 주문이면 order 를 실행하고, 이미 처리한 키면 저장된 결과를 돌려준다.
+	 */
+	public Result execute(String idempotencyKey, CoinSellBuyRequestDto request, Supplier<CoinOrderResponseDto> order) {
+		if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+			throw new CustomException(400, "Idempotency-Key 는 1~" + MAX_KEY_LENGTH + "자여야 합니다.");
+		}
+		String key = KEY_PREFIX + userService.getCurrentKakaoId() + ":" + idempotencyKey;
+		// 주문 처리 중 요청 객체가 바뀌므로 실행 전에 요청 내용을 기록한다
+		String fingerprint = fingerprint(request);
+
+		StoredOrder cached = localCache.getIfPresent(key);
+		if (cached != null) {
+			return replay(cached, fingerprint);
+		}
+
+		CompletableFuture<StoredOrder> call = new CompletableFuture<>();
+		CompletableFuture<StoredOrder> existing = inFlight.putIfAbsent(key, call);
+		if (existing != null) {
+			return replay(await(existing), fingerprint);
+		}
+
+		LeaseRenewal renewal = null;
+		try {
+			StoredOrder stored = claim(key, fingerprint);
+			if (stored != null) {
+				localCache.put(key, stored);
+				call.complete(stored);
+				return replay(stored, fingerprint);
+			}
+			renewal = new LeaseRenewal(key);
+
+			CoinOrderResponseDto response = order.get();
+			// 결과를 저장한 뒤 연장이 ttl 을 lease 로 줄이지 않도록 먼저 멈춘다
+			renewal.stop();
+			StoredOrder done = new StoredOrder(fingerprint, response);
+			localCache.put(key, done);
+			store(key, done);
+			executedCounter.increment();
+			call.complete(done);
+			return new Result(response, false);
+		} catch (RuntimeException e) {
+			if (renewal != null) {
+				renewal.stop();
+				release(key);
+			}
+			call.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, call);
+		}
+	}
+
+	// Redis 에 처리 중 표시를 lease 동안 남긴다. 이미 처리된 키면 저장된 결과, 새로 표시했거나 Redis 를 쓸 수 없으면 null
+	private StoredOrder claim(String key, String fingerprint) {
+		try {
+			String pending = objectMapper.writeValueAsString(new StoredOrder(fingerprint, null));
+			for (int attempt = 0; attempt < 2; attempt++) {
+				if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, pending, lease))) {
+					return null;
+				}
+				Object value = redisTemplate.opsForValue().get(key);
+				if (value == null) {
+					// 그 사이 만료됨: 다시 표시를 시도한다
+					continue;
+				}
+				StoredOrder stored = objectMapper.readValue(value.toString(), StoredOrder.class);
+				if (stored.getResponse() == null) {
+					conflictCounter.increment();
+					if (!stored.getFingerprint().equals(fingerprint)) {
+						throw new CustomException(422, "같은 Idempotency-Key 로 다른 주문을 보낼 수 없습니다.");
+					}
+					throw new CustomException(409, "같은 주문을 처리하고 있습니다. 잠시 후 다시 시도해주세요.");
+				}
+				return stored;
+			}
+			return null;
+		} catch (DataAccessException | JsonProcessingException e) {
+			redisErrorCounter.increment();
+			log.warn("주문 중복 제거 Redis 조회 실패, 로컬 캐시만 사용: {}", e.toString());
+			return null;
+		}
+	}
+
+	// 주문을 처리하는 동안 처리 중 표시의 만료를 lease 로 되돌린다
+	private final class LeaseRenewal implements Runnable {
+		private final String key;
+		private final ScheduledFuture<?> task;
+		// this 로 동기화
+		private boolean stopped;
+
+		private LeaseRenewal(String key) {
+			this.key = key;
+			long periodMillis = Math.max(1, lease.toMillis() / 3);
+			this.task = leaseRenewer.scheduleAtFixedRate(this, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public synchronized void run() {
+			if (stopped) {
+				return;
+			}
+			try {
+				redisTemplate.expire(key, lease);
+			} catch (DataAccessException e) {
+				redisErrorCounter.increment();
+				log.warn("주문 중복 제거 처리 중 표시 연장 실패: {}", e.toString());
+			}
+		}
+
+		// 반환 후에는 연장이 실행되지 않는다
+		private synchronized void stop() {
+			stopped = true;
+			task.cancel(false);
+		}
+	}
+
+	private void store(String key, StoredOrder done) {
+		try {
+			redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(done), ttl);
+		} catch (DataAccessException | JsonProcessingException e) {
+			redisErrorCounter.increment();
+			log.warn("주문 중복 제거 결과 저장 실패: {}", e.toString());
+		}
+	}
+
+	private void release(String key) {
+		try {
+			redisTemplate.delete(key);
+		} catch (DataAccessException e) {
+			redisErrorCounter.increment();
+			log.warn("주문 중복 제거 표시 삭제 실패: {}", e.toString());
+		}
+	}
+
+	private Result replay(StoredOrder stored, String fingerprint) {
+		if (!stored.getFingerprint().equals(fingerprint)) {
+			conflictCounter.increment();
+			throw new CustomException(422, "같은 Idempotency-Key 로 다른 주문을 보낼 수 없습니다.");
+		}
+		replayedCounter.increment();
+		return new Result(stored.getResponse(), true);
+	}
+
+	private StoredOrder await(CompletableFuture<StoredOrder> call) {
+		try {
+			return call.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	private String fingerprint(CoinSellBuyRequestDto request) {
+		return request.getTicker() + "|" + request.getOrderType() + "|" + request.getOrderQuantity() + "|"
+				+ request.getOrderAmount();
+	}
+}
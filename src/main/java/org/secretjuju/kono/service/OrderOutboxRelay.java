@@ -0,0 +1,272 @@
+package org.secretjuju.kono.service;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.secretjuju.kono.entity.IdBlock;
+import org.secretjuju.kono.entity.OrderOutbox;
+import org.secretjuju.kono.repository.IdBlockRepository;
+import org.secretjuju.kono.repository.OrderOutboxOffsetRepository;
+import org.secretjuju.kono.repository.OrderOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 주문 아웃박스 릴레이.
+ *
+ * <p>
+ * 주문 트랜잭션이 order_outbox 에 남긴 이벤트를 batch-size 건씩 읽어 등록된 구독자에게 묶음으로 전달한다. IDENTITY 값은 INSERT 시점에 정해지고 커밋 순서는 그와 다를 수
+ * 있으므로(N+1 이 N 보다 먼저 커밋) 전달 위치로 쓰지 않는다. 대신 릴레이가 커밋된 행에만 전달 순번(relay_seq)을 붙이고 구독자는 이 순번 순으로 받는다. 아직 커밋되지 않은 행은
+ * 잠겨 있어 건너뛰고, 커밋된 뒤 더 큰 순번을 받으므로 늦게 커밋된 주문도 빠지지 않는다. 순번은 id_block 의 카운터 행을 잠근 채 붙여 인스턴스가 여럿이어도 커밋 순서대로 증가한다.
+ *
+ * <p>
+ * 구독자마다 처리를 마친 순번(order_outbox_offset)을 따로 두고, 구독자 호출과 위치 갱신을 한 트랜잭션에서 하므로 구독자가 예외를 던지면 그 구독자만 다음 폴링 때 같은 묶음을 다시
+ * 받는다. 모든 인스턴스의 모든 구독자(order_outbox_offset 의 모든 행)가 넘긴 행만 삭제한다. 구독자가 DB 에 쓰는 작업은 같은 트랜잭션에 참여하므로 정확히 한 번 반영되고, 메모리
+ * 작업은 커밋 실패 시 다시 전달될 수 있다(최소 한 번).
+ *
+ * <p>
+ * 위치 행을 SELECT ... FOR UPDATE SKIP LOCKED 로 잠그므로 인스턴스가 여럿이어도 한 구독자의 묶음은 한 인스턴스만 전달한다. 구독자는 자기 인스턴스가 전달한 묶음만 받으므로
+ * 전체 이벤트를 받아야 하는 구독자가 있으면 order.outbox.relay-enabled 로 릴레이할 인스턴스를 하나만 켠다.
+ */
+@Service
+@Slf4j
+public class OrderOutboxRelay {
+
+	private static final ZoneId SEOUL = ZoneId.of("Asia/Seoul");
+	// id_block 에 두는 전달 순번 카운터
+	static final String SEQUENCE_NAME = "order_outbox_seq";
+
+	private final OrderOutboxRepository orderOutboxRepository;
+	private final OrderOutboxOffsetRepository orderOutboxOffsetRepository;
+	private final IdBlockRepository idBlockRepository;
+	private final TransactionTemplate relayTransaction;
+	private final TransactionTemplate sequenceTransaction;
+	private final MeterRegistry meterRegistry;
+	private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+	private final boolean enabled;
+	private final boolean relayEnabled;
+	private final int batchSize;
+	private final long pollIntervalMillis;
+
+	private final Counter relayedCounter;
+	private final Counter failureCounter;
+
+	private volatile boolean running;
+	private Thread relayThread;
+	// 마지막으로 삭제한 위치 (릴레이 스레드 전용)
+	private long prunedUpTo;
+	private boolean sequenceSeeded;
+
+	public OrderOutboxRelay(OrderOutboxRepository orderOutboxRepository,
+			OrderOutboxOffsetRepository orderOutboxOffsetRepository, IdBlockRepository idBlockRepository,
+			PlatformTransactionManager transactionManager, MeterRegistry meterRegistry, @Value("${order.outbox.enabled:true}") boolean enabled,
+			@Value("${order.outbox.relay-enabled:true}") boolean relayEnabled,
+			@Value("${order.outbox.batch-size:500}") int batchSize,
+			@Value("${order.outbox.poll-interval-ms:100}") long pollIntervalMillis) {
+		this.orderOutboxRepository = orderOutboxRepository;
+		this.orderOutboxOffsetRepository = orderOutboxOffsetRepository;
+		this.idBlockRepository = idBlockRepository;
+		this.relayTransaction = new TransactionTemplate(transactionManager);
+		// 순번을 붙일 때 갭 락으로 주문의 아웃박스 INSERT 를 막지 않도록
+		this.sequenceTransaction = new TransactionTemplate(transactionManager);
+		this.sequenceTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+		this.meterRegistry = meterRegistry;
+		this.enabled = enabled;
+		this.relayEnabled = relayEnabled;
+		this.batchSize = batchSize;
+		this.pollIntervalMillis = pollIntervalMillis;
+
+		// 모든 구독자가 처리를 마쳐 삭제한 이벤트 수
+		this.relayedCounter = meterRegistry.counter("order.outbox.relayed");
+		this.failureCounter = meterRegistry.counter("order.outbox.failures");
+	}
+
+	// 구독 해지용 핸들
+	public interface Subscription extends AutoCloseable {
+		@Override
+		void close();
+	}
+
+	private static final class Subscriber {
+		private final String name;
+		private final Consumer<List<OrderEvent>> handler;
+		// 주문 체결부터 이 구독자 전달까지 걸린 시간
+		private final Timer lagTimer;
+		private volatile boolean registered;
+
+		private Subscriber(String name, Consumer<List<OrderEvent>> handler, Timer lagTimer) {
+			this.name = name;
+			this.handler = handler;
+			this.lagTimer = lagTimer;
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 구독자를 등록한다. name 은 전달 위치의 키이므로 인스턴스와 재기동에 걸쳐 같아야 하고, 구독자를 없애면 order_outbox_offset 의 그 행도 지워야 삭제가 진행된다. handler
+	 * 는 릴레이 스레드에서 이벤트 묶음(커밋 순)으로 호출되며, 예외를 던지면 같은 묶음을 다음 폴링 때 다시 받는다 (다른 구독자는 계속 진행).
+	 */
+	public Subscription subscribe(String name, Consumer<List<OrderEvent>> handler) {
+		Timer lagTimer = Timer.builder("order.outbox.lag").tag("subscriber", name).publishPercentiles(0.5, 0.99)
+				.register(meterRegistry);
+		Subscriber subscriber = new Subscriber(name, handler, lagTimer);
+		subscribers.add(subscriber);
+		log.info("주문 이벤트 구독자 등록: {}", name);
+		return () -> subscribers.remove(subscriber);
+	}
+
+	@PostConstruct
+	public void start() {
+		if (!enabled || !relayEnabled) {
+			return;
+		}
+		running = true;
+		relayThread = new Thread(this::runRelay, "order-outbox-relay");
+		relayThread.setDaemon(true);
+		relayThread.start();
+	}
+
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		running = false;
+		if (relayThread != null) {
+			relayThread.interrupt();
+			relayThread.join(5000);
+		}
+	}
+
+	private void runRelay() {
+		while (running) {
+			try {
+				int relayed = relayOnce();
+				if (relayed < batchSize) {
+					// 밀린 이벤트가 없으면 잠시 쉰다 (가득 찬 묶음이면 바로 다음 묶음)
+					Thread.sleep(pollIntervalMillis);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				failureCounter.increment();
+				log.warn("주문 이벤트 릴레이 실패: {}", e.getMessage());
+				try {
+					Thread.sleep(pollIntervalMillis * 10);
+				} catch (InterruptedException interrupted) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	// 새로 커밋된 행에 순번을 붙이고, 구독자마다 한 묶음씩 전달한 뒤 모든 구독자가 넘긴 행을 삭제한다. 한 구독자에게 전달한 최대 건수를 돌려준다
+	int relayOnce() {
+		sequence();
+		int relayed = 0;
+		for (Subscriber subscriber : subscribers) {
+			relayed = Math.max(relayed, relayTo(subscriber));
+		}
+		prune();
+		return relayed;
+	}
+
+	// 순번이 없는 커밋된 행에 id 순으로 순번을 붙인다. 카운터 행을 잠가 순번 배정을 인스턴스 사이에서도 한 번에 하나씩 한다
+	private void sequence() {
+		if (!sequenceSeeded) {
+			relayTransaction.executeWithoutResult(status -> idBlockRepository.seed(SEQUENCE_NAME, 1L));
+			sequenceSeeded = true;
+		}
+		sequenceTransaction.executeWithoutResult(status -> {
+			IdBlock counter = idBlockRepository.findByNameWithLock(SEQUENCE_NAME)
+					.orElseThrow(() -> new IllegalStateException("아웃박스 순번 카운터가 없습니다."));
+			List<Long> ids = orderOutboxRepository.lockUnsequenced(batchSize);
+			if (ids.isEmpty()) {
+				return;
+			}
+			long firstId = ids.get(0);
+			long base = counter.getNextId();
+			orderOutboxRepository.assignSequence(base, firstId, ids);
+			counter.setNextId(base + ids.get(ids.size() - 1) - firstId + 1);
+			idBlockRepository.save(counter);
+		});
+	}
+
+	private int relayTo(Subscriber subscriber) {
+		if (!subscriber.registered) {
+			relayTransaction.executeWithoutResult(status -> orderOutboxOffsetRepository.register(subscriber.name));
+			subscriber.registered = true;
+		}
+		List<OrderEvent> delivered;
+		try {
+			delivered = relayTransaction.execute(status -> {
+				Optional<Long> lastSeq = orderOutboxOffsetRepository.lockLastSeq(subscriber.name);
+				if (lastSeq.isEmpty()) {
+					// 다른 인스턴스가 전달 중
+					return List.<OrderEvent>of();
+				}
+				List<OrderOutbox> rows = orderOutboxRepository.findByRelaySeqGreaterThanOrderByRelaySeqAsc(lastSeq.get(),
+						PageRequest.of(0, batchSize));
+				if (rows.isEmpty()) {
+					return List.<OrderEvent>of();
+				}
+				List<OrderEvent> events = new ArrayList<>(rows.size());
+				for (OrderOutbox row : rows) {
+					events.add(toEvent(row));
+				}
+				events = List.copyOf(events);
+				subscriber.handler.accept(events);
+				orderOutboxOffsetRepository.advance(subscriber.name, rows.get(rows.size() - 1).getRelaySeq(),
+						ZonedDateTime.now(SEOUL));
+				return events;
+			});
+		} catch (RuntimeException e) {
+			failureCounter.increment();
+			log.warn("주문 이벤트 구독자 {} 처리 실패, 다음 폴링 때 다시 전달: {}", subscriber.name, e.getMessage());
+			return 0;
+		}
+
+		long now = System.currentTimeMillis();
+		for (OrderEvent event : delivered) {
+			subscriber.lagTimer.record(Math.max(0, now - event.getCreatedAtMillis()), TimeUnit.MILLISECONDS);
+		}
+		return delivered.size();
+	}
+
+	// 모든 구독자가 처리를 마친 위치까지 삭제. 다른 인스턴스에만 있는 구독자도 포함하도록 위치 테이블 전체의 최솟값을 쓴다
+	private void prune() {
+		Long upTo = orderOutboxOffsetRepository.findMinLastSeq();
+		if (upTo == null || upTo <= prunedUpTo) {
+			return;
+		}
+		Integer deleted = relayTransaction.execute(status -> orderOutboxRepository.deleteUpTo(upTo));
+		relayedCounter.increment(deleted != null ? deleted : 0);
+		prunedUpTo = upTo;
+	}
+
+	private OrderEvent toEvent(OrderOutbox row) {
+		return new OrderEvent(row.getId(), row.getTransactionId() != null ? row.getTransactionId() : 0, row.getUserId(),
+				row.getCoinId(), row.getOrderType(), row.getOrderUnits(), row.getOrderPrice(), row.getOrderAmount(),
+				row.getCashBalance(), row.getHoldingUnits(), row.getCreatedAt().toInstant().toEpochMilli());
+	}
+}
@@ -0,0 +1,149 @@
+package org.secretjuju.kono.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.secretjuju.kono.exception.CustomException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 사용자별 단일 작성자 주문 처리기.
+ *
+ * <p>
+ * 사용자 키를 고정된 수의 레인(스레드 하나짜리 실행기)에 나눠 배정한다. 같은 사용자의 주문은 항상 같은 레인에서 하나씩 순서대로 실행되므로 잔액/보유량 행 락이 필요 없고, 다른 레인의
+ * 주문은 서로 기다리지 않고 병렬로 실행된다. 직렬화는 이 인스턴스 안에서만 보장된다.
+ */
+@Service
+@Slf4j
+public class OrderSequencer {
+
+	private final Lane[] lanes;
+	private final long timeoutMillis;
+
+	private final Counter rejectedCounter;
+	private final Counter expiredCounter;
+
+	public OrderSequencer(MeterRegistry meterRegistry, @Value("${order.execution.lanes:0}") int laneCount,
+			@Value("${order.execution.queue-capacity:256}") int queueCapacity,
+			@Value("${order.execution.timeout-ms:5000}") long timeoutMillis) {
+		int count = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+		this.lanes = new Lane[count];
+		for (int i = 0; i < count; i++) {
+			lanes[i] = new Lane(i, queueCapacity);
+		}
+		this.timeoutMillis = timeoutMillis;
+
+		this.rejectedCounter = meterRegistry.counter("order.sequencer.rejected", "reason", "queue_full");
+		this.expiredCounter = meterRegistry.counter("order.sequencer.rejected", "reason", "timeout");
+		Gauge.builder("order.sequencer.queued", this, OrderSequencer::queued).register(meterRegistry);
+		log.info("주문 레인 {}개 시작 (레인당 대기 {}건)", count, queueCapacity);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		for (Lane lane : lanes) {
+			lane.executor.shutdown();
+		}
+		for (Lane lane : lanes) {
+			try {
+				lane.executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * key 에 배정된 레인에서 task 를 실행하고 결과를 기다린다. task 가 던진 예외는 그대로 다시 던진다.
+	 *
+	 * <p>
+	 * 레인 대기열이 가득 찼거나 timeout-ms 안에 실행이 시작되지 못하면 실행하지 않고 503 으로 응답한다. 이미 실행이 시작된 작업은 끝날 때까지 기다린다.
+	 */
+	public <T> T execute(long key, Supplier<T> task) {
+		Lane lane = laneOf(key);
+		if (Thread.currentThread() == lane.thread) {
+			// 같은 레인 안에서 다시 호출된 경우 (대기열에 넣으면 자기 자신을 기다리게 된다)
+			return task.get();
+		}
+
+		Future<T> future;
+		try {
+			future = lane.executor.submit(task::get);
+		} catch (RejectedExecutionException e) {
+			rejectedCounter.increment();
+			throw new CustomException(503, "주문이 많아 처리할 수 없습니다. 잠시 후 다시 시도해주세요.");
+		}
+
+		try {
+			try {
+				return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				if (future.cancel(false)) {
+					expiredCounter.increment();
+					throw new CustomException(503, "주문 처리가 지연되고 있습니다. 잠시 후 다시 시도해주세요.");
+				}
+				// 이미 실행 중이면 결과가 나올 때까지 기다린다 (체결 여부를 모른 채 응답하지 않기 위해)
+				return future.get();
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException("주문 처리 중 오류", cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("주문 처리 대기 중 인터럽트", e);
+		}
+	}
+
+	public int laneCount() {
+		return lanes.length;
+	}
+
+	private Lane laneOf(long key) {
+		int hash = Long.hashCode(key);
+		hash ^= hash >>> 16;
+		return lanes[Math.floorMod(hash, lanes.length)];
+	}
+
+	private double queued() {
+		int total = 0;
+		for (Lane lane : lanes) {
+			total += lane.executor.getQueue().size();
+		}
+		return total;
+	}
+
+	private static final class Lane {
+		private final ThreadPoolExecutor executor;
+		private volatile Thread thread;
+
+		private Lane(int index, int queueCapacity) {
+			this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(queueCapacity), r -> {
+						Thread laneThread = new Thread(r, "order-lane-" + index);
+						laneThread.setDaemon(true);
+						thread = laneThread;
+						return laneThread;
+					});
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package org.secretjuju.kono.service;
+
+/**
+ * 가격 변경 이벤트. 가격이 실제로 바뀐 경우에만 발행된다.
+ */
+public final class PriceDelta {
+
+	private final int slot;
+	private final double oldPrice;
+	private final double newPrice;
+	private final long epoch;
+	private final long timestamp;
+
+	public PriceDelta(int slot, double oldPrice, double newPrice, long epoch, long timestamp) {
+		this.slot = slot;
+		this.oldPrice = oldPrice;
+		this.newPrice = newPrice;
+		this.epoch = epoch;
+		this.timestamp = timestamp;
+	}
+
+	// 가격표 슬롯
+	public int getSlot() {
+		return slot;
+	}
+
+	// 이전 가격, 처음 들어온 시세면 0
+	public double getOldPrice() {
+		return oldPrice;
+	}
+
+	public double getNewPrice() {
+		return newPrice;
+	}
+
+	// 변경을 반영한 직후의 가격표 변경 순번
+	public long getEpoch() {
+		return epoch;
+	}
+
+	// 시세 시각 (epoch millis)
+	public long getTimestamp() {
+		return timestamp;
+	}
+}
@@ -0,0 +1,186 @@
+package org.secretjuju.kono.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 프로세스 내부 가격 변경 이벤트 버스.
+ *
+ * <p>
+ * 구독자마다 크기가 정해진 큐와 전용 전달 스레드를 둔다. 발행은 절대 막히지 않으며, 구독자 큐가 가득 차면 가장 오래된 이벤트를 버리고 새 이벤트를 넣는다(최신 가격 우선). 구독자별 큐
+ * 깊이, 버린 이벤트 수, 처리 지연(발행된 최신 epoch 와 마지막으로 처리한 epoch 의 차이)을 메트릭으로 남긴다.
+ */
+@Service
+@Slf4j
+public class PriceEventBus {
+
+	// 한 번에 꺼내 처리하는 최대 이벤트 수
+	private static final int DRAIN_BATCH = 256;
+
+	private final MeterRegistry meterRegistry;
+	private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+	private volatile long publishedEpoch;
+
+	public PriceEventBus(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	// 구독 해지용 핸들
+	public interface Subscription extends AutoCloseable {
+		@Override
+		void close();
+	}
+
+	public void publish(PriceDelta delta) {
+		publishedEpoch = Math.max(publishedEpoch, delta.getEpoch());
+		for (Subscriber subscriber : subscribers) {
+			subscriber.offer(delta);
+		}
+	}
+
+	/**
+	 * 구독자를 등록한다. handler 는 구독자 전용 스레드에서 순서대로 호출된다.
+	 *
+	 * @param name
+	 *            메트릭 태그와 스레드 이름에 쓰는 구독자 이름
+	 * @param capacity
+	 *            큐 크기. 가득 차면 가장 오래된 이벤트부터 버린다
+	 */
+	public Subscription subscribe(String name, int capacity, Consumer<PriceDelta> handler) {
+		return subscribe(name, capacity, handler, null);
+	}
+
+	/**
+	 * 이벤트를 버렸을 때 알림을 받는 구독자를 등록한다. onGap 은 큐가 넘쳐 이벤트를 버린 뒤, 구독자 스레드가 큐에 남은 이벤트를 모두 처리하고 나서 한 번 호출된다. 버린 변경을 현재
+	 * 가격표로 다시 확인해야 하는 구독자(대기 주문 등)가 쓴다.
+	 */
+	public Subscription subscribe(String name, int capacity, Consumer<PriceDelta> handler, Runnable onGap) {
+		Subscriber subscriber = new Subscriber(name, capacity, handler, onGap);
+		subscribers.add(subscriber);
+		subscriber.start();
+		log.info("가격 이벤트 구독자 등록: {} (큐 크기 {})", name, capacity);
+		return () -> {
+			subscribers.remove(subscriber);
+			subscriber.stop();
+		};
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		for (Subscriber subscriber : subscribers) {
+			subscriber.stop();
+		}
+		subscribers.clear();
+	}
+
+	private final class Subscriber implements Runnable {
+		private final String name;
+		private final ArrayBlockingQueue<PriceDelta> queue;
+		private final Consumer<PriceDelta> handler;
+		private final Runnable onGap;
+		private final Thread thread;
+		private final Counter deliveredCounter;
+		private final Counter droppedCounter;
+		private final Counter failedCounter;
+
+		// 마지막 onGap 호출 이후 버린 이벤트가 있는지
+		private final AtomicBoolean gap = new AtomicBoolean();
+		private volatile long consumedEpoch;
+		private volatile boolean running = true;
+
+		private Subscriber(String name, int capacity, Consumer<PriceDelta> handler, Runnable onGap) {
+			this.name = name;
+			this.queue = new ArrayBlockingQueue<>(capacity);
+			this.handler = handler;
+			this.onGap = onGap;
+			this.thread = new Thread(this, "price-bus-" + name);
+			this.thread.setDaemon(true);
+			this.deliveredCounter = meterRegistry.counter("price.bus.delivered", "subscriber", name);
+			this.droppedCounter = meterRegistry.counter("price.bus.dropped", "subscriber", name);
+			this.failedCounter = meterRegistry.counter("price.bus.failures", "subscriber", name);
+			Gauge.builder("price.bus.queue.depth", queue, ArrayBlockingQueue::size).tag("subscriber", name)
+					.register(meterRegistry);
+			Gauge.builder("price.bus.lag.epochs", this, s -> s.queue.isEmpty() ? 0 : publishedEpoch - s.consumedEpoch)
+					.tag("subscriber", name).register(meterRegistry);
+		}
+
+		private void start() {
+			thread.start();
+		}
+
+		private void stop() {
+			running = false;
+			thread.interrupt();
+		}
+
+		// 막히지 않는 전달. 큐가 가득 차면 가장 오래된 이벤트를 버린다
+		private void offer(PriceDelta delta) {
+			while (!queue.offer(delta)) {
+				if (queue.poll() != null) {
+					droppedCounter.increment();
+					gap.set(true);
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			List<PriceDelta> batch = new ArrayList<>(DRAIN_BATCH);
+			while (running) {
+				try {
+					PriceDelta first = queue.poll(1, TimeUnit.SECONDS);
+					if (first == null) {
+						continue;
+					}
+					batch.add(first);
+					queue.drainTo(batch, DRAIN_BATCH - 1);
+					for (PriceDelta delta : batch) {
+						deliver(delta);
+					}
+					batch.clear();
+					// 버린 이벤트가 있었으면 밀린 이벤트를 다 처리한 뒤 한 번 복구
+					if (onGap != null && queue.isEmpty() && gap.getAndSet(false)) {
+						recover();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+
+		private void recover() {
+			try {
+				onGap.run();
+			} catch (RuntimeException e) {
+				failedCounter.increment();
+				log.warn("가격 이벤트 누락 복구 실패: subscriber={}, {}", name, e.getMessage());
+			}
+		}
+
+		private void deliver(PriceDelta delta) {
+			try {
+				handler.accept(delta);
+				deliveredCounter.increment();
+			} catch (RuntimeException e) {
+				failedCounter.increment();
+				log.warn("가격 이벤트 처리 실패: subscriber={}, {}", name, e.getMessage());
+			}
+			consumedEpoch = delta.getEpoch();
+		}
+	}
+}
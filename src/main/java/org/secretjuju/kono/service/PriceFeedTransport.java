@@ -0,0 +1,30 @@
+package org.secretjuju.kono.service;
+
+import java.util.List;
+
+/**
+ * 실시간 시세 수신 채널 추상화. 업비트 WebSocket 외에 테스트/벤치마크용 스텁 피드로 교체할 수 있다.
+ */
+public interface PriceFeedTransport {
+
+	/**
+	 * 주어진 마켓(KRW-BTC 형식) 목록을 구독하는 연결을 연다. 연결에 실패하면 예외를 던진다.
+	 */
+	Connection connect(List<String> markets, Listener listener);
+
+	interface Connection {
+		// 연결 유지용 ping
+		default void ping() {
+		}
+
+		void close();
+	}
+
+	interface Listener {
+		// 체결 시세 수신
+		void onTick(String market, double price, double volume, long timestamp);
+
+		// 연결 종료 (정상 종료면 cause 는 null)
+		void onDisconnected(Throwable cause);
+	}
+}
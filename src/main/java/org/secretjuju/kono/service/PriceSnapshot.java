@@ -0,0 +1,50 @@
+package org.secretjuju.kono.service;
+
+/**
+ * 가격표의 불변 스냅샷. 한 번 공개된 뒤에는 바뀌지 않으므로, 계산 하나(예: 랭킹 갱신 한 회차)가 스냅샷을 잡고 있으면 모든 사용자를 같은 시장가로 평가한다.
+ *
+ * <p>
+ * epoch 는 캡처 시점의 가격표 변경 순번이다. 스냅샷을 잡는 것은 참조를 얻는 것뿐이며 시세 배열을 복사하지 않는다.
+ */
+public final class PriceSnapshot {
+
+	private final long epoch;
+	private final long capturedAt;
+	private final double[] prices;
+	private final long[] timestamps;
+
+	PriceSnapshot(long epoch, long capturedAt, double[] prices, long[] timestamps) {
+		this.epoch = epoch;
+		this.capturedAt = capturedAt;
+		this.prices = prices;
+		this.timestamps = timestamps;
+	}
+
+	static PriceSnapshot empty() {
+		return new PriceSnapshot(0L, 0L, new double[0], new long[0]);
+	}
+
+	public long getEpoch() {
+		return epoch;
+	}
+
+	// 캡처 시각 (epoch millis)
+	public long getCapturedAt() {
+		return capturedAt;
+	}
+
+	// 스냅샷에 포함된 슬롯 수
+	public int size() {
+		return prices.length;
+	}
+
+	// 슬롯 시세, 스냅샷에 없는 슬롯이면 0
+	public double price(int slot) {
+		return slot >= 0 && slot < prices.length ? prices[slot] : 0.0;
+	}
+
+	// 슬롯 시세 시각, 스냅샷에 없는 슬롯이면 0
+	public long timestamp(int slot) {
+		return slot >= 0 && slot < timestamps.length ? timestamps[slot] : 0L;
+	}
+}
@@ -0,0 +1,194 @@
+package org.secretjuju.kono.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.secretjuju.kono.dto.response.PriceStreamResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 구독한 코인의 바뀐 시세만 SSE 로 밀어주는 스트림.
+ *
+ * <p>
+ * 공용 시계 하나가 주기마다 가격 스냅샷을 확인해 새 스냅샷이 공개됐을 때만 모든 구독자에게 같은 스냅샷을 전달한다. 연결마다 마지막으로 보낸 가격만 기억해 바뀐 코인만 보내며, 느린 연결은 중간
+ * 스냅샷을 건너뛰고 다음 스냅샷에서 한꺼번에 따라잡는다(conflation). 따라서 연결당 전송 빈도는 시계 주기를 넘지 않고, 연결별 버퍼가 쌓이지 않는다.
+ */
+@Service
+@Slf4j
+public class PriceStreamService {
+
+	private final CoinPriceService coinPriceService;
+
+	// 연결당 최대 전송 주기
+	@Value("${price-stream.interval-ms:500}")
+	private long intervalMillis;
+
+	// 바뀐 시세가 없을 때 연결 유지를 위한 주석 이벤트 주기
+	@Value("${price-stream.heartbeat-ms:15000}")
+	private long heartbeatMillis;
+
+	// 연결 하나가 구독할 수 있는 최대 코인 수
+	@Value("${price-stream.max-tickers:100}")
+	private int maxTickers;
+
+	// 구독자가 요청하지 않은 스냅샷은 버린다 (느린 연결은 다음 스냅샷으로 따라잡음)
+	private final Sinks.Many<PriceSnapshot> frames = Sinks.many().multicast().directBestEffort();
+
+	private final ScheduledExecutorService clock = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "price-stream-clock");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final AtomicInteger subscribers = new AtomicInteger();
+	private final Counter eventCounter;
+
+	// 마지막으로 전달한 스냅샷의 변경 순번
+	private long lastFrameEpoch = -1;
+	private volatile long lastFrameAt;
+
+	public PriceStreamService(CoinPriceService coinPriceService, MeterRegistry meterRegistry) {
+		this.coinPriceService = coinPriceService;
+		this.eventCounter = meterRegistry.counter("price.stream.events");
+		Gauge.builder("price.stream.subscribers", subscribers, AtomicInteger::get).register(meterRegistry);
+	}
+
+	@PostConstruct
+	public void start() {
+		clock.scheduleAtFixedRate(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		clock.shutdownNow();
+		frames.tryEmitComplete();
+	}
+
+	// 새 스냅샷이 공개됐거나 하트비트 주기가 되면 최신 스냅샷을 구독자에게 전달
+	private void tick() {
+		try {
+			if (subscribers.get() == 0) {
+				return;
+			}
+			long now = System.currentTimeMillis();
+			PriceSnapshot snapshot = coinPriceService.latestSnapshot();
+			if (snapshot.getEpoch() == lastFrameEpoch && now - lastFrameAt < heartbeatMillis) {
+				return;
+			}
+			lastFrameEpoch = snapshot.getEpoch();
+			lastFrameAt = now;
+			frames.tryEmitNext(snapshot);
+		} catch (Exception e) {
+			log.warn("가격 스트림 전송 중 오류: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * 코인 목록을 구독한다. 목록이 비어 있으면 전체 코인을 구독한다. 첫 이벤트는 구독한 코인의 현재 시세 전체이다.
+	 */
+	public Flux<ServerSentEvent<PriceStreamResponseDto>> subscribe(List<String> tickers) {
+		SubscriberState state = new SubscriberState(tickers);
+		PriceSnapshot current = coinPriceService.latestSnapshot();
+
+		return frames.asFlux().publishOn(Schedulers.boundedElastic(), 1).startWith(current)
+				.mapNotNull(state::next).doOnSubscribe(s -> subscribers.incrementAndGet())
+				.doFinally(signal -> subscribers.decrementAndGet());
+	}
+
+	// 연결 하나의 구독 상태
+	private class SubscriberState {
+		// null 이면 전체 코인
+		private final String[] tickers;
+		private final int[] slots;
+		private double[] lastSent;
+		private long lastEmitAt = System.currentTimeMillis();
+
+		SubscriberState(List<String> requested) {
+			if (requested == null || requested.isEmpty()) {
+				tickers = null;
+				slots = null;
+				lastSent = new double[0];
+				return;
+			}
+			List<String> limited = requested.stream().distinct().limit(maxTickers).toList();
+			tickers = limited.toArray(String[]::new);
+			slots = new int[tickers.length];
+			for (int i = 0; i < tickers.length; i++) {
+				slots[i] = coinPriceService.slotOf(tickers[i]);
+			}
+			lastSent = new double[tickers.length];
+			Arrays.fill(lastSent, Double.NaN);
+		}
+
+		// 지난 전송 이후 바뀐 시세만 담은 이벤트. 보낼 것이 없으면 하트비트 주석 또는 null
+		ServerSentEvent<PriceStreamResponseDto> next(PriceSnapshot snapshot) {
+			Map<String, Double> changed = tickers == null ? diffAll(snapshot) : diffSubscribed(snapshot);
+			long now = System.currentTimeMillis();
+			if (changed.isEmpty()) {
+				if (now - lastEmitAt < heartbeatMillis) {
+					return null;
+				}
+				lastEmitAt = now;
+				return ServerSentEvent.<PriceStreamResponseDto>builder().comment("heartbeat").build();
+			}
+			lastEmitAt = now;
+			eventCounter.increment();
+			return ServerSentEvent.<PriceStreamResponseDto>builder()
+					.data(new PriceStreamResponseDto(snapshot.getEpoch(), changed)).build();
+		}
+
+		private Map<String, Double> diffSubscribed(PriceSnapshot snapshot) {
+			Map<String, Double> changed = new HashMap<>();
+			for (int i = 0; i < slots.length; i++) {
+				if (slots[i] < 0) {
+					// 구독 이후 처음 시세가 들어온 코인일 수 있다
+					slots[i] = coinPriceService.slotOf(tickers[i]);
+					if (slots[i] < 0) {
+						continue;
+					}
+				}
+				double price = snapshot.price(slots[i]);
+				if (snapshot.timestamp(slots[i]) > 0 && price != lastSent[i]) {
+					lastSent[i] = price;
+					changed.put(tickers[i], price);
+				}
+			}
+			return changed;
+		}
+
+		private Map<String, Double> diffAll(PriceSnapshot snapshot) {
+			if (lastSent.length < snapshot.size()) {
+				int previous = lastSent.length;
+				lastSent = Arrays.copyOf(lastSent, snapshot.size());
+				Arrays.fill(lastSent, previous, lastSent.length, Double.NaN);
+			}
+			Map<String, Double> changed = new HashMap<>();
+			for (int slot = 0; slot < snapshot.size(); slot++) {
+				double price = snapshot.price(slot);
+				if (snapshot.timestamp(slot) > 0 && price != lastSent[slot]) {
+					lastSent[slot] = price;
+					changed.put(coinPriceService.tickerAt(slot), price);
+				}
+			}
+			return changed;
+		}
+	}
+}
@@ -0,0 +1,324 @@
+package org.secretjuju.kono.service;
+
+import java.lang.invoke.VarHandle;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 티커마다 고정된 정수 슬롯을 한 번만 배정하고, 시세/시각을 원시 배열에 보관하는 가격표.
+ *
+ * <p>
+ * 슬롯마다 seqlock 순번(홀수 = 쓰는 중)을 두어 읽기는 락 없이 시세와 시각을 한 쌍으로 일관되게 읽는다. 슬롯 번호를 알고 있으면 조회 시 문자열 연산이나 박싱이 일어나지 않는다.
+ */
+public class PriceTable {
+
+	private static final String MARKET_PREFIX = "KRW-";
+
+	private final int capacity;
+	private final double[] prices;
+	private final long[] timestamps;
+	private final AtomicLongArray sequences;
+	private final String[] tickers;
+
+	private final ConcurrentHashMap<String, Integer> tickerSlots = new ConcurrentHashMap<>(); // BTC -> slot
+	private final ConcurrentHashMap<String, Integer> marketSlots = new ConcurrentHashMap<>(); // KRW-BTC -> slot
+
+	// 배정된 슬롯 수. volatile 쓰기로 tickers[slot] 을 함께 공개한다
+	private volatile int slotCount;
+	// 가격표 전체 변경 순번 (시세가 반영될 때마다 증가)
+	private final AtomicLong version = new AtomicLong();
+
+	public PriceTable(int capacity) {
+		this.capacity = capacity;
+		this.prices = new double[capacity];
+		this.timestamps = new long[capacity];
+		this.sequences = new AtomicLongArray(capacity);
+		this.tickers = new String[capacity];
+	}
+
+	/**
+	 * 조회 결과를 담는 재사용 가능한 홀더. 호출자가 한 번 만들어 반복 사용하면 조회 시 할당이 없다.
+	 */
+	public static final class Reading {
+		private double price;
+		private long timestamp;
+
+		public double getPrice() {
+			return price;
+		}
+
+		public long getTimestamp() {
+			return timestamp;
+		}
+	}
+
+	// 티커(BTC 형식)에 슬롯을 배정한다. 이미 있으면 기존 슬롯을 반환
+	public int register(String ticker) {
+		Integer existing = tickerSlots.get(ticker);
+		if (existing != null) {
+			return existing;
+		}
+		synchronized (this) {
+			existing = tickerSlots.get(ticker);
+			if (existing != null) {
+				return existing;
+			}
+			int slot = slotCount;
+			if (slot >= capacity) {
+				throw new IllegalStateException("가격표 슬롯이 부족합니다. capacity=" + capacity);
+			}
+			tickers[slot] = ticker;
+			marketSlots.put(MARKET_PREFIX + ticker, slot);
+			tickerSlots.put(ticker, slot);
+			slotCount = slot + 1;
+			return slot;
+		}
+	}
+
+	// 티커(BTC 형식)의 슬롯, 없으면 -1
+	public int slotOfTicker(String ticker) {
+		Integer slot = tickerSlots.get(ticker);
+		return slot != null ? slot : -1;
+	}
+
+	// 마켓(KRW-BTC 형식)의 슬롯, 없으면 -1
+	public int slotOfMarket(String market) {
+		Integer slot = marketSlots.get(market);
+		return slot != null ? slot : -1;
+	}
+
+	// 마켓(KRW-BTC 형식)의 슬롯. 처음 보는 KRW 마켓이면 새로 배정한다
+	public int registerMarket(String market) {
+		int slot = slotOfMarket(market);
+		if (slot >= 0) {
+			return slot;
+		}
+		if (!market.startsWith(MARKET_PREFIX)) {
+			return -1;
+		}
+		return register(market.substring(MARKET_PREFIX.length()));
+	}
+
+	public String tickerAt(int slot) {
+		return tickers[slot];
+	}
+
+	public int size() {
+		return slotCount;
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public long version() {
+		return version.get();
+	}
+
+	/**
+	 * 슬롯 시세를 갱신한다. 이미 더 최신 시각의 시세가 있으면 반영하지 않고 false 를 반환한다.
+	 */
+	public boolean update(int slot, double price, long timestamp) {
+		return !Double.isNaN(exchange(slot, price, timestamp));
+	}
+
+	/**
+	 * 슬롯 시세를 갱신하고 이전 가격(처음이면 0)을 반환한다. 이미 더 최신 시각의 시세가 있으면 반영하지 않고 NaN 을 반환한다.
+	 */
+	public double exchange(int slot, double price, long timestamp) {
+		while (true) {
+			long sequence = sequences.get(slot);
+			if ((sequence & 1) != 0) {
+				Thread.onSpinWait();
+				continue;
+			}
+			if (!sequences.compareAndSet(slot, sequence, sequence + 1)) {
+				continue;
+			}
+			if (timestamps[slot] > timestamp) {
+				// 변경 없음: 순번을 원래대로 되돌린다
+				sequences.set(slot, sequence);
+				return Double.NaN;
+			}
+			double previous = prices[slot];
+			prices[slot] = price;
+			timestamps[slot] = timestamp;
+			sequences.set(slot, sequence + 2);
+			version.incrementAndGet();
+			return previous;
+		}
+	}
+
+	/**
+	 * 슬롯의 시세와 시각을 한 쌍으로 읽어 reading 에 담는다. 시세가 한 번도 들어오지 않았으면 false.
+	 */
+	public boolean read(int slot, Reading reading) {
+		while (true) {
+			long before = sequences.get(slot);
+			if ((before & 1) != 0) {
+				Thread.onSpinWait();
+				continue;
+			}
+			double price = prices[slot];
+			long timestamp = timestamps[slot];
+			VarHandle.acquireFence();
+			if (sequences.get(slot) == before) {
+				reading.price = price;
+				reading.timestamp = timestamp;
+				return timestamp > 0;
+			}
+		}
+	}
+
+	// 슬롯 시세, 없으면 0
+	public double price(int slot) {
+		while (true) {
+			long before = sequences.get(slot);
+			if ((before & 1) != 0) {
+				Thread.onSpinWait();
+				continue;
+			}
+			double price = prices[slot];
+			VarHandle.acquireFence();
+			if (sequences.get(slot) == before) {
+				return price;
+			}
+		}
+	}
+
+	// 슬롯 시세 시각, 없으면 0
+	public long timestamp(int slot) {
+		while (true) {
+			long before = sequences.get(slot);
+			if ((before & 1) != 0) {
+				Thread.onSpinWait();
+				continue;
+			}
+			long timestamp = timestamps[slot];
+			VarHandle.acquireFence();
+			if (sequences.get(slot) == before) {
+				return timestamp;
+			}
+		}
+	}
+
+	/**
+	 * 현재 가격표를 불변 스냅샷으로 복사한다. epoch 는 복사를 시작하기 전의 변경 순번이므로, 스냅샷에는 적어도 epoch 까지의 변경이 모두 들어 있다.
+	 */
+	public PriceSnapshot capture() {
+		long epoch = version.get();
+		int size = slotCount;
+		double[] snapshotPrices = new double[size];
+		long[] snapshotTimestamps = new long[size];
+		Reading reading = new Reading();
+		for (int slot = 0; slot < size; slot++) {
+			if (read(slot, reading)) {
+				snapshotPrices[slot] = reading.price;
+				snapshotTimestamps[slot] = reading.timestamp;
+			}
+		}
+		return new PriceSnapshot(epoch, System.currentTimeMillis(), snapshotPrices, snapshotTimestamps);
+	}
+
+	// 시세가 한 번이라도 들어온 슬롯 수
+	public int pricedCount() {
+		int count = 0;
+		int size = slotCount;
+		for (int slot = 0; slot < size; slot++) {
+			if (timestamp(slot) > 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 가격표를 읽기 전용 Map 으로 본다. 복사하지 않으며, 조회 시점의 최신 시세가 보인다.
+	 *
+	 * @param marketKeys
+	 *            true 면 KRW-BTC, false 면 BTC 형식의 키
+	 */
+	public Map<String, Double> asMap(boolean marketKeys) {
+		return new MapView(marketKeys);
+	}
+
+	private final class MapView extends AbstractMap<String, Double> {
+		private final boolean marketKeys;
+
+		private MapView(boolean marketKeys) {
+			this.marketKeys = marketKeys;
+		}
+
+		@Override
+		public Double get(Object key) {
+			if (!(key instanceof String)) {
+				return null;
+			}
+			int slot = marketKeys ? slotOfMarket((String) key) : slotOfTicker((String) key);
+			if (slot < 0 || timestamp(slot) == 0) {
+				return null;
+			}
+			return price(slot);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+
+		@Override
+		public Set<Entry<String, Double>> entrySet() {
+			return new AbstractSet<>() {
+				@Override
+				public Iterator<Entry<String, Double>> iterator() {
+					return new EntryIterator(marketKeys);
+				}
+
+				@Override
+				public int size() {
+					return pricedCount();
+				}
+			};
+		}
+	}
+
+	private final class EntryIterator implements Iterator<Map.Entry<String, Double>> {
+		private final boolean marketKeys;
+		private final int size = slotCount;
+		private int next = -1;
+
+		private EntryIterator(boolean marketKeys) {
+			this.marketKeys = marketKeys;
+			advance();
+		}
+
+		private void advance() {
+			do {
+				next++;
+			} while (next < size && timestamp(next) == 0);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < size;
+		}
+
+		@Override
+		public Map.Entry<String, Double> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int slot = next;
+			advance();
+			String key = marketKeys ? MARKET_PREFIX + tickers[slot] : tickers[slot];
+			return new AbstractMap.SimpleImmutableEntry<>(key, price(slot));
+		}
+	}
+}
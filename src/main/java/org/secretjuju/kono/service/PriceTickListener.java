@@ -0,0 +1,7 @@
+package org.secretjuju.kono.service;
+
+// 가격표에 반영된 시세를 동기적으로 전달받는 리스너. 시세 수신 스레드에서 호출되므로 오래 걸리는 작업을 하면 안 된다
+public interface PriceTickListener {
+
+	void onTick(int slot, double price, double volume, long timestamp);
+}
@@ -1,20 +1,28 @@
 package org.secretjuju.kono.service;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.secretjuju.kono.dto.response.DailyRankingResponseDto;
 import org.secretjuju.kono.dto.response.TotalRankingResponseDto;
 import org.secretjuju.kono.entity.Badge;
-import org.secretjuju.kono.entity.CashBalance;
+import org.secretjuju.kono.entity.CoinUnits;
 import org.secretjuju.kono.entity.DailyRanking;
 import org.secretjuju.kono.entity.TotalRanking;
 import org.secretjuju.kono.entity.User;
-import org.secretjuju.kono.repository.CashBalanceRepository;
-import org.secretjuju.kono.repository.CoinHoldingRepository;
 import org.secretjuju.kono.repository.DailyRankingRepository;
 import org.secretjuju.kono.repository.TotalRankingRepository;
-import org.secretjuju.kono.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,41 +33,38 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 @Slf4j
 public class RankingService {
-	private final UserRepository userRepository;
+	private static final ZoneId SEOUL = ZoneId.of("Asia/Seoul");
+
+	// 랭킹 평가 대상: 현금 잔액 행마다 보유 코인 수만큼 (보유 코인이 없으면 코인 열이 NULL 인 한 행)
+	private static final String VALUATION_SQL = "SELECT cb.user_id, cb.balance, ch.coin_id, ch.holding_quantity, "
+			+ "ci.ticker, dr.last_day_total_assets FROM cash_balance cb "
+			+ "JOIN daily_ranking dr ON dr.user_id = cb.user_id "
+			+ "LEFT JOIN coin_holdings ch ON ch.user_id = cb.user_id "
+			+ "LEFT JOIN coin_info ci ON ci.id = ch.coin_id ORDER BY cb.user_id";
+	private static final String INSERT_MISSING_CASH_BALANCE_SQL = "INSERT INTO cash_balance (user_id, balance, version) "
+			+ "SELECT u.id, ?, 0 FROM `user` u LEFT JOIN cash_balance cb ON cb.user_id = u.id WHERE cb.id IS NULL";
+	private static final String INSERT_MISSING_TOTAL_RANKING_SQL = "INSERT INTO total_ranking "
+			+ "(user_id, current_total_assets, last_day_total_assets, profit_rate, total_rank, updated_at) "
+			+ "SELECT u.id, ?, ?, 0.0, 0, ? FROM `user` u LEFT JOIN total_ranking tr ON tr.user_id = u.id "
+			+ "WHERE tr.id IS NULL";
+	private static final String INSERT_MISSING_DAILY_RANKING_SQL = "INSERT INTO daily_ranking "
+			+ "(user_id, current_total_assets, last_day_total_assets, profit_rate, daily_rank, updated_at) "
+			+ "SELECT u.id, ?, ?, 0.0, 0, ? FROM `user` u LEFT JOIN daily_ranking dr ON dr.user_id = u.id "
+			+ "WHERE dr.id IS NULL";
+	private static final String UPDATE_TOTAL_RANKING_SQL = "UPDATE total_ranking SET current_total_assets = ?, "
+			+ "total_rank = ?, price_epoch = ?, priced_at = ?, updated_at = ? WHERE user_id = ?";
+	private static final String UPDATE_DAILY_RANKING_SQL = "UPDATE daily_ranking SET current_total_assets = ?, "
+			+ "profit_rate = ?, daily_rank = ?, price_epoch = ?, priced_at = ?, updated_at = ? WHERE user_id = ?";
+
 	private final TotalRankingRepository totalRankingRepository;
 	private final DailyRankingRepository dailyRankingRepository;
-	private final CoinHoldingRepository coinHoldingRepository;
-	private final CashBalanceRepository cashBalanceRepository;
 	private final UserService userService;
 	private final CoinPriceService coinPriceService;
 	private final RedisCacheService redisCacheService;
+	private final JdbcTemplate jdbcTemplate;
 
-	// 사용자의 총 자산 계산
-	private Long calculateTotalAssets(User user) {
-		// 현금 잔액
-		Long cashBalance = 0L;
-		if (user.getCashBalance() != null) {
-			cashBalance = user.getCashBalance().getBalance();
-		} else {
-			// CashBalance가 없는 사용자에게 새로운 CashBalance 생성
-			CashBalance newCashBalance = new CashBalance();
-			newCashBalance.setUser(user);
-			newCashBalance.setBalance(10000000L);
-			cashBalanceRepository.save(newCashBalance);
-			user.setCashBalance(newCashBalance);
-			log.warn("사용자 ID: {}에 CashBalance가 없어 새로 생성했습니다.", user.getId());
-			cashBalance = newCashBalance.getBalance();
-		}
-
-		// 코인 자산
-		Long coinAssets = coinHoldingRepository.findByUser(user).stream().map(holding -> {
-			String ticker = holding.getCoinInfo().getTicker(); // "BTC" 형식 가정
-			Double currentPrice = coinPriceService.getPriceByTicker(ticker);
-			return (long) (holding.getHoldingQuantity() * currentPrice);
-		}).reduce(0L, Long::sum);
-
-		return cashBalance + coinAssets;
-	}
+	@Value("${ranking.batch-size:1000}")
+	private int batchSize;
 
 	// 수익률 계산
 	private Double calculateProfitRate(Long currentAssets, Long lastDayAssets) {
@@ -68,55 +73,113 @@ public class RankingService {
 		return ((double) (currentAssets - lastDayAssets) / lastDayAssets) * 100;
 	}
 
+	/**
+	 * 모든 사용자의 총 자산/수익률과 순위를 갱신한다.
+	 *
+	 * <p>
+	 * 사용자별로 엔티티를 읽고 저장하지 않고, (사용자, 현금, 코인, 수량) 행을 한 쿼리로 스트리밍해 고정된 가격 스냅샷 배열로 평가한 뒤 메모리에서 순위를 매기고 JDBC 배치
+	 * UPDATE 로 한 번에 기록한다.
+	 */
 	@Transactional
 	public void updateRankings() {
 		log.info("랭킹 업데이트 시작");
-
-		// 1. 모든 사용자 조회
-		List<User> users = userRepository.findAll();
-
-		// 2. 각 사용자의 총 자산 계산 및 랭킹 업데이트
-		for (User user : users) {
-			try {
-				Long currentAssets = calculateTotalAssets(user);
-
-				// findByUser() 사용하여 사용자별 단일 레코드만 찾도록 함
-				TotalRanking totalRanking = totalRankingRepository.findByUser(user).orElse(new TotalRanking(user));
-				totalRanking.setCurrentTotalAssets(currentAssets);
-				totalRanking.updateTime();
-				totalRankingRepository.save(totalRanking);
-
-				DailyRanking dailyRanking = dailyRankingRepository.findByUser(user).orElse(new DailyRanking(user));
-				dailyRanking.setCurrentTotalAssets(currentAssets);
-				dailyRanking.setProfitRate(calculateProfitRate(currentAssets, dailyRanking.getLastDayTotalAssets()));
-				dailyRanking.updateTime();
-				dailyRankingRepository.save(dailyRanking);
-			} catch (Exception e) {
-				log.error("사용자 ID: {}의 랭킹 업데이트 중 오류 발생", user.getId(), e);
-				// 오류가 있어도 다음 사용자 처리 계속
+		long startedAt = System.currentTimeMillis();
+
+		// 이번 회차의 모든 사용자를 같은 시세로 평가하도록 가격 스냅샷 하나를 고정
+		PriceSnapshot snapshot = coinPriceService.latestSnapshot();
+		ZonedDateTime pricedAt = ZonedDateTime.ofInstant(Instant.ofEpochMilli(snapshot.getCapturedAt()),
+				SEOUL);
+		log.info("랭킹 가격 스냅샷: epoch={}, pricedAt={}", snapshot.getEpoch(), pricedAt);
+
+		// 1. 현금 잔액/랭킹 행이 없는 사용자에게 초기값 행 생성
+		int createdBalances = jdbcTemplate.update(INSERT_MISSING_CASH_BALANCE_SQL, TotalRanking.INITIAL_ASSET);
+		if (createdBalances > 0) {
+			log.warn("CashBalance가 없는 사용자 {}명에게 새로 생성했습니다.", createdBalances);
+		}
+		Timestamp now = Timestamp.from(Instant.now());
+		jdbcTemplate.update(INSERT_MISSING_TOTAL_RANKING_SQL, TotalRanking.INITIAL_ASSET, TotalRanking.INITIAL_ASSET,
+				now);
+		jdbcTemplate.update(INSERT_MISSING_DAILY_RANKING_SQL, DailyRanking.INITIAL_ASSET, DailyRanking.INITIAL_ASSET,
+				now);
+
+		// 2. 총 자산 평가 (사용자 순으로 정렬된 행을 스트리밍)
+		List<Valuation> valuations = new ArrayList<>();
+		Map<Integer, Integer> slotByCoinId = new HashMap<>();
+		jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(VALUATION_SQL);
+			// MySQL 드라이버가 결과를 한 행씩 스트리밍
+			statement.setFetchSize(Integer.MIN_VALUE);
+			return statement;
+		}, rs -> {
+			int userId = rs.getInt(1);
+			Valuation current = valuations.isEmpty() ? null : valuations.get(valuations.size() - 1);
+			if (current == null || current.userId != userId) {
+				current = new Valuation(userId, rs.getLong(2), rs.getLong(6));
+				valuations.add(current);
+			}
+			int coinId = rs.getInt(3);
+			if (!rs.wasNull()) {
+				String ticker = rs.getString(5);
+				int slot = slotByCoinId.computeIfAbsent(coinId, id -> coinPriceService.slotOf(ticker));
+				current.totalAssets += CoinUnits.value(CoinUnits.toUnits(rs.getDouble(4)), snapshot.price(slot));
 			}
+		});
+		for (Valuation valuation : valuations) {
+			valuation.profitRate = calculateProfitRate(valuation.totalAssets, valuation.lastDayTotalAssets);
 		}
 
-		// 3. 전체 랭킹 순위 업데이트
-		List<TotalRanking> totalRankings = totalRankingRepository.findAllByOrderByCurrentTotalAssetsDesc();
-		for (int i = 0; i < totalRankings.size(); i++) {
-			totalRankings.get(i).setTotalRank(i + 1);
-			totalRankings.get(i).updateTime();
+		// 3. 순위 (같으면 사용자 ID 순)
+		valuations.sort(Comparator.comparingLong((Valuation valuation) -> valuation.totalAssets).reversed()
+				.thenComparingInt(valuation -> valuation.userId));
+		for (int i = 0; i < valuations.size(); i++) {
+			valuations.get(i).totalRank = i + 1;
 		}
-		totalRankingRepository.saveAll(totalRankings);
-
-		// 4. 일간 랭킹 순위 업데이트
-		List<DailyRanking> dailyRankings = dailyRankingRepository.findAllByOrderByProfitRateDesc();
-		for (int i = 0; i < dailyRankings.size(); i++) {
-			dailyRankings.get(i).setDailyRank(i + 1);
-			dailyRankings.get(i).updateTime();
+		valuations.sort(Comparator.comparingDouble((Valuation valuation) -> valuation.profitRate).reversed()
+				.thenComparingInt(valuation -> valuation.userId));
+		for (int i = 0; i < valuations.size(); i++) {
+			valuations.get(i).dailyRank = i + 1;
 		}
-		dailyRankingRepository.saveAll(dailyRankings);
 
-		// log.info("랭킹 업데이트 완료");
+		// 4. 배치 UPDATE
+		Timestamp pricedAtTimestamp = Timestamp.from(pricedAt.toInstant());
+		Timestamp updatedAt = Timestamp.from(Instant.now());
+		jdbcTemplate.batchUpdate(UPDATE_TOTAL_RANKING_SQL, valuations, batchSize, (statement, valuation) -> {
+			statement.setLong(1, valuation.totalAssets);
+			statement.setInt(2, valuation.totalRank);
+			statement.setLong(3, snapshot.getEpoch());
+			statement.setTimestamp(4, pricedAtTimestamp);
+			statement.setTimestamp(5, updatedAt);
+			statement.setInt(6, valuation.userId);
+		});
+		jdbcTemplate.batchUpdate(UPDATE_DAILY_RANKING_SQL, valuations, batchSize, (statement, valuation) -> {
+			statement.setLong(1, valuation.totalAssets);
+			statement.setDouble(2, valuation.profitRate);
+			statement.setInt(3, valuation.dailyRank);
+			statement.setLong(4, snapshot.getEpoch());
+			statement.setTimestamp(5, pricedAtTimestamp);
+			statement.setTimestamp(6, updatedAt);
+			statement.setInt(7, valuation.userId);
+		});
+		log.info("랭킹 평가 완료: 사용자 {}명 ({}ms)", valuations.size(), System.currentTimeMillis() - startedAt);
+
 		refreshRankingCache();
 		log.info("랭킹 업데이트 및 캐시 갱신 완료");
+	}
 
+	// 한 사용자의 평가 결과
+	private static final class Valuation {
+		private final int userId;
+		private final long lastDayTotalAssets;
+		private long totalAssets; // 현금 + 코인 평가액
+		private double profitRate;
+		private int totalRank;
+		private int dailyRank;
+
+		private Valuation(int userId, long cashBalance, long lastDayTotalAssets) {
+			this.userId = userId;
+			this.totalAssets = cashBalance;
+			this.lastDayTotalAssets = lastDayTotalAssets;
+		}
 	}
 
 	@Transactional
@@ -213,7 +276,8 @@ public class RankingService {
 		DailyRankingResponseDto result = DailyRankingResponseDto.builder().nickname(currentUser.getNickname())
 				.profileImageUrl(currentUser.getProfileImageUrl()).badgeImageUrl(badgeImageUrls)
 				.profitRate(dailyRanking.getProfitRate()).rank(dailyRanking.getDailyRank())
-				.updatedAt(dailyRanking.getUpdatedAt()).build();
+				.updatedAt(dailyRanking.getUpdatedAt()).priceEpoch(dailyRanking.getPriceEpoch())
+				.pricedAt(dailyRanking.getPricedAt()).build();
 
 		// 결과 캐싱
 		redisCacheService.cacheUserDailyRanking(userId, result);
@@ -249,7 +313,8 @@ public class RankingService {
 		TotalRankingResponseDto result = TotalRankingResponseDto.builder().nickname(currentUser.getNickname())
 				.profileImageUrl(currentUser.getProfileImageUrl()).badgeImageUrl(badgeImageUrls)
 				.profit(totalRanking.getProfit()).rank(totalRanking.getTotalRank())
-				.updatedAt(totalRanking.getUpdatedAt()).build();
+				.updatedAt(totalRanking.getUpdatedAt()).priceEpoch(totalRanking.getPriceEpoch())
+				.pricedAt(totalRanking.getPricedAt()).build();
 
 		// 결과 캐싱
 		redisCacheService.cacheUserTotalRanking(userId, result);
@@ -261,7 +326,8 @@ public class RankingService {
 		return new DailyRankingResponseDto(dailyRanking.getUser().getNickname(),
 				dailyRanking.getUser().getProfileImageUrl(),
 				dailyRanking.getUser().getBadges().stream().map(Badge::getBadgeImageUrl).collect(Collectors.toList()),
-				dailyRanking.getProfitRate(), dailyRanking.getDailyRank(), dailyRanking.getUpdatedAt());
+				dailyRanking.getProfitRate(), dailyRanking.getDailyRank(), dailyRanking.getUpdatedAt(),
+				dailyRanking.getPriceEpoch(), dailyRanking.getPricedAt());
 	}
 
 	private TotalRankingResponseDto convertToTotalRankingResponse(TotalRanking totalRanking) {
@@ -270,7 +336,8 @@ public class RankingService {
 				.badgeImageUrl(totalRanking.getUser().getBadges().stream().map(Badge::getBadgeImageUrl)
 						.collect(Collectors.toList()))
 				.profit(totalRanking.getProfit()).rank(totalRanking.getTotalRank())
-				.updatedAt(totalRanking.getUpdatedAt()).build();
+				.updatedAt(totalRanking.getUpdatedAt()).priceEpoch(totalRanking.getPriceEpoch())
+				.pricedAt(totalRanking.getPricedAt()).build();
 	}
 
 	// 캐시 갱신 메서드
@@ -0,0 +1,427 @@
+package org.secretjuju.kono.service;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.secretjuju.kono.dto.request.CoinSellBuyRequestDto;
+import org.secretjuju.kono.dto.request.RestingOrderRequestDto;
+import org.secretjuju.kono.dto.response.RestingOrderResponseDto;
+import org.secretjuju.kono.entity.RestingOrder;
+import org.secretjuju.kono.entity.User;
+import org.secretjuju.kono.exception.CustomException;
+import org.secretjuju.kono.repository.CashBalanceRepository;
+import org.secretjuju.kono.repository.CoinInfoRepository;
+import org.secretjuju.kono.repository.RestingOrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 지정가(limit) / 스탑(stop) 대기 주문 엔진.
+ *
+ * <p>
+ * 열린 주문은 DB 에 저장하고, 메모리에는 가격표 슬롯별로 트리거 가격 순 주문장을 둔다. 가격 이벤트 버스에서 시세 변경을 받을 때마다 그 슬롯 주문장에서 트리거를 넘은 주문만 꺼내
+ * 체결 스레드 풀(fill-threads, 대기열 fill-queue-capacity)에 넘기므로, 열린 주문 수와 관계없이 틱당 O(log n + k) 이고 구독 스레드는 DB 를 기다리지 않는다. 풀과
+ * 대기열이 가득 차면 구독 스레드가 직접 체결해 속도를 맞춘다. 기동 시 DB 의 열린 주문으로 주문장을 다시 만들고, 애플리케이션 준비가 끝난 뒤 가격 이벤트를 구독한다.
+ *
+ * <p>
+ * 발동 조건: 매수 지정가/매도 스탑은 시세가 트리거 이하로 내려올 때, 매도 지정가/매수 스탑은 트리거 이상으로 올라갈 때. 체결가는 발동시킨 시세이며, 잔액/보유량은 체결 시점에
+ * 검증한다 (부족하면 REJECTED). 주문 대기열 포화/버전 충돌 같은 일시적 오류(503/409)는 같은 체결가로 max-attempts 번까지 다시 시도한다.
+ *
+ * <p>
+ * 접수 시 이미 트리거를 넘은 주문은 현재 시세로 요청 스레드에서 바로 발동한다. 사용자별 열린 주문 수 제한은 현금 잔액 행을 잠근 채 세고 저장해 동시 접수로 넘지 않는다. 가격 이벤트 버스가 대기열이 넘쳐 이벤트를 버리면, 남은 이벤트를 처리한 뒤 주문장 전체를 현재 가격표로 다시
+ * 확인한다.
+ */
+@Service
+@Slf4j
+public class RestingOrderService {
+
+	private static final ZoneId SEOUL = ZoneId.of("Asia/Seoul");
+
+	private final RestingOrderRepository restingOrderRepository;
+	private final CoinInfoRepository coinInfoRepository;
+	private final CashBalanceRepository cashBalanceRepository;
+	private final CoinCatalogService coinCatalogService;
+	private final CoinService coinService;
+	private final UserService userService;
+	private final CoinPriceService coinPriceService;
+	private final PriceEventBus priceEventBus;
+	private final TransactionTemplate transactionTemplate;
+	private final int queueCapacity;
+	private final int maxOpenPerUser;
+	private final int maxAttempts;
+	private final long retryDelayMillis;
+
+	// 슬롯 -> 주문장 (주문이 들어온 적 있는 슬롯에만 할당)
+	private final AtomicReferenceArray<SlotBook> books;
+	// 열린 주문. 여기서 먼저 제거한 쪽(체결 또는 취소)이 주문을 가져간다
+	private final ConcurrentHashMap<Long, OpenOrder> openOrders = new ConcurrentHashMap<>();
+	// 일시적 오류로 다시 시도를 기다리는 주문. 여기서 먼저 제거한 쪽(재시도 또는 취소)이 주문을 가져간다
+	private final ConcurrentHashMap<Long, OpenOrder> pendingRetries = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "resting-order-retry");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final ThreadPoolExecutor fillExecutor;
+
+	private final Counter filledCounter;
+	private final Counter rejectedCounter;
+	private final Counter retriedCounter;
+
+	private PriceEventBus.Subscription subscription;
+
+	public RestingOrderService(RestingOrderRepository restingOrderRepository, CoinInfoRepository coinInfoRepository,
+			CashBalanceRepository cashBalanceRepository, CoinCatalogService coinCatalogService, CoinService coinService,
+			UserService userService, CoinPriceService coinPriceService, PriceEventBus priceEventBus,
+			PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+			@Value("${upbit.price.slot-capacity:1024}") int slotCapacity,
+			@Value("${order.resting.queue-capacity:4096}") int queueCapacity,
+			@Value("${order.resting.max-open-per-user:20}") int maxOpenPerUser,
+			@Value("${order.resting.max-attempts:3}") int maxAttempts,
+			@Value("${order.resting.retry-delay-ms:200}") long retryDelayMillis,
+			@Value("${order.resting.fill-threads:4}") int fillThreads,
+			@Value("${order.resting.fill-queue-capacity:1024}") int fillQueueCapacity) {
+		this.restingOrderRepository = restingOrderRepository;
+		this.coinInfoRepository = coinInfoRepository;
+		this.cashBalanceRepository = cashBalanceRepository;
+		this.coinCatalogService = coinCatalogService;
+		this.coinService = coinService;
+		this.userService = userService;
+		this.coinPriceService = coinPriceService;
+		this.priceEventBus = priceEventBus;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.queueCapacity = queueCapacity;
+		this.maxOpenPerUser = maxOpenPerUser;
+		this.maxAttempts = maxAttempts;
+		this.retryDelayMillis = retryDelayMillis;
+		this.books = new AtomicReferenceArray<>(slotCapacity);
+
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.fillExecutor = new ThreadPoolExecutor(fillThreads, fillThreads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(fillQueueCapacity), r -> {
+					Thread thread = new Thread(r, "resting-order-fill-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+		this.fillExecutor.allowCoreThreadTimeOut(true);
+
+		this.filledCounter = meterRegistry.counter("order.resting.closed", "result", "filled");
+		this.rejectedCounter = meterRegistry.counter("order.resting.closed", "result", "rejected");
+		this.retriedCounter = meterRegistry.counter("order.resting.retries");
+		Gauge.builder("order.resting.open", openOrders, ConcurrentHashMap::size).register(meterRegistry);
+	}
+
+	// 메모리에 올린 열린 주문
+	private static final class OpenOrder {
+		private final long id;
+		private final Long kakaoId;
+		private final String ticker;
+		private final int slot;
+		private final String orderType;
+		private final boolean rising; // true: 시세가 트리거 이상으로 오르면 발동
+		private final double triggerPrice;
+		private final Double orderQuantity;
+		private final Long orderAmount;
+
+		private OpenOrder(RestingOrder order, Long kakaoId, String ticker, int slot) {
+			this.id = order.getId();
+			this.kakaoId = kakaoId;
+			this.ticker = ticker;
+			this.slot = slot;
+			this.orderType = order.getOrderType();
+			boolean sell = "sell".equalsIgnoreCase(order.getOrderType());
+			boolean limit = "limit".equalsIgnoreCase(order.getTriggerType());
+			this.rising = sell == limit; // 매도 지정가, 매수 스탑
+			this.triggerPrice = order.getTriggerPrice();
+			this.orderQuantity = order.getOrderQuantity();
+			this.orderAmount = order.getOrderAmount();
+		}
+
+		// 오르면 발동하는 주문은 부호를 바꿔 "키가 probe 이상이면 발동" 하나로 다룬다
+		private double key() {
+			return rising ? -triggerPrice : triggerPrice;
+		}
+
+		private boolean triggeredBy(double price) {
+			return key() >= (rising ? -price : price);
+		}
+	}
+
+	// 슬롯 하나의 주문장: 내려오면 발동 / 올라가면 발동
+	private static final class SlotBook {
+		private final TriggerBook falling = new TriggerBook();
+		private final TriggerBook rising = new TriggerBook();
+
+		private synchronized void add(OpenOrder order) {
+			(order.rising ? rising : falling).add(order.key(), order.id);
+		}
+
+		private synchronized void remove(OpenOrder order) {
+			(order.rising ? rising : falling).remove(order.key(), order.id);
+		}
+
+		// 이번 시세로 발동한 주문 ID 를 모두 꺼낸다
+		private synchronized long[] drain(double price) {
+			long[] down = falling.drainAtOrAbove(price);
+			long[] up = rising.drainAtOrAbove(-price);
+			if (up.length == 0) {
+				return down;
+			}
+			if (down.length == 0) {
+				return up;
+			}
+			long[] both = new long[down.length + up.length];
+			System.arraycopy(down, 0, both, 0, down.length);
+			System.arraycopy(up, 0, both, down.length, up.length);
+			return both;
+		}
+	}
+
+	@PostConstruct
+	public void start() {
+		List<RestingOrder> open = restingOrderRepository.findAllOpenWithUser();
+		for (RestingOrder order : open) {
+			CoinCatalogService.CoinEntry coin = coinCatalogService
+					.findById(order.getCoinInfo().getId()).orElse(null);
+			if (coin == null) {
+				log.warn("대기 주문의 코인을 찾을 수 없어 건너뜀: orderId={}", order.getId());
+				continue;
+			}
+			track(new OpenOrder(order, order.getUser().getKakaoId(), coin.getTicker(), coin.getSlot()));
+		}
+		log.info("대기 주문장 재구성 완료: {} 건", openOrders.size());
+	}
+
+	// 체결에 쓰는 빈(트랜잭션, 주문 처리)이 모두 준비된 뒤 구독을 시작한다
+	@EventListener(ApplicationReadyEvent.class)
+	public void onReady() {
+		subscription = priceEventBus.subscribe("resting-orders", queueCapacity, this::onPriceDelta,
+				this::reevaluateAll);
+		// 꺼져 있는 동안 트리거를 넘은 주문
+		reevaluateAll();
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (subscription != null) {
+			subscription.close();
+		}
+		retryScheduler.shutdownNow();
+		fillExecutor.shutdown();
+	}
+
+	public RestingOrderResponseDto placeOrder(RestingOrderRequestDto request) {
+		User user = userService.getCurrentUser();
+		validate(request);
+		CoinCatalogService.CoinEntry coin = coinCatalogService.findByTicker(request.getTicker())
+				.orElseThrow(() -> new CustomException(404, "해당 코인을 찾을 수 없습니다."));
+
+		RestingOrder order = new RestingOrder();
+		order.setUser(user);
+		order.setCoinInfo(coinInfoRepository.getReferenceById(coin.getId()));
+		order.setOrderType(request.getOrderType().toLowerCase());
+		order.setTriggerType(request.getTriggerType().toLowerCase());
+		order.setTriggerPrice(request.getTriggerPrice());
+		order.setOrderQuantity(request.getOrderQuantity());
+		order.setOrderAmount(request.getOrderAmount());
+		order.setCreatedAt(ZonedDateTime.now(SEOUL));
+		transactionTemplate.executeWithoutResult(status -> {
+			// 같은 사용자의 동시 접수가 함께 제한을 넘지 않도록 현금 잔액 행을 잠근 채 세고 저장한다
+			cashBalanceRepository.findByUserWithLock(user)
+					.orElseThrow(() -> new CustomException(404, "사용자를 찾을 수 없습니다."));
+			if (restingOrderRepository.countByUserAndStatus(user, RestingOrder.OPEN) >= maxOpenPerUser) {
+				throw new CustomException(400, "대기 주문은 최대 " + maxOpenPerUser + "개까지 둘 수 있습니다.");
+			}
+			restingOrderRepository.save(order);
+		});
+
+		OpenOrder open = new OpenOrder(order, user.getKakaoId(), coin.getTicker(), coin.getSlot());
+		track(open);
+		// 이미 트리거를 넘은 주문은 다음 시세 변경을 기다리지 않고 현재 시세로 발동 (결과를 응답에 담도록 이 스레드에서)
+		double currentPrice = coinPriceService.getPrice(coin.getSlot());
+		if (currentPrice > 0 && open.triggeredBy(currentPrice) && openOrders.remove(open.id, open)) {
+			books.get(open.slot).remove(open);
+			fill(open, currentPrice, 1);
+			return toResponse(restingOrderRepository.findById(order.getId()).orElse(order), coin.getTicker());
+		}
+		return toResponse(order, coin.getTicker());
+	}
+
+	public List<RestingOrderResponseDto> getOpenOrders() {
+		User user = userService.getCurrentUser();
+		return restingOrderRepository.findByUserAndStatusOrderByCreatedAtDesc(user, RestingOrder.OPEN).stream()
+				.map(order -> toResponse(order, coinCatalogService.findById(order.getCoinInfo().getId())
+						.map(CoinCatalogService.CoinEntry::getTicker).orElse(null)))
+				.toList();
+	}
+
+	public void cancelOrder(Long orderId) {
+		Long kakaoId = userService.getCurrentKakaoId();
+		OpenOrder order = openOrders.get(orderId);
+		if (order == null) {
+			order = pendingRetries.get(orderId);
+		}
+		if (order == null || !order.kakaoId.equals(kakaoId)) {
+			throw new CustomException(404, "대기 주문을 찾을 수 없습니다.");
+		}
+		if (openOrders.remove(orderId, order)) {
+			books.get(order.slot).remove(order);
+		} else if (!pendingRetries.remove(orderId, order)) {
+			throw new CustomException(409, "이미 체결되었거나 취소된 주문입니다.");
+		}
+		if (restingOrderRepository.close(orderId, RestingOrder.CANCELLED, null, null, ZonedDateTime.now(SEOUL)) == 0) {
+			throw new CustomException(409, "이미 체결되었거나 취소된 주문입니다.");
+		}
+	}
+
+	// 가격 이벤트 버스 구독 스레드에서 호출
+	private void onPriceDelta(PriceDelta delta) {
+		evaluate(delta.getSlot(), delta.getNewPrice());
+	}
+
+	// 버린 가격 이벤트가 있었거나 기동 직후: 모든 주문장을 현재 가격표로 다시 확인
+	private void reevaluateAll() {
+		for (int slot = 0; slot < books.length(); slot++) {
+			if (books.get(slot) != null) {
+				double price = coinPriceService.getPrice(slot);
+				if (price > 0) {
+					evaluate(slot, price);
+				}
+			}
+		}
+	}
+
+	// slot 주문장에서 price 로 발동한 주문을 체결 스레드 풀에 넘긴다
+	private void evaluate(int slot, double price) {
+		SlotBook book = books.get(slot);
+		if (book == null) {
+			return;
+		}
+		for (long orderId : book.drain(price)) {
+			OpenOrder order = openOrders.remove(orderId);
+			if (order != null) {
+				submitFill(order, price, 1);
+			}
+		}
+	}
+
+	private void submitFill(OpenOrder order, double price, int attempt) {
+		try {
+			fillExecutor.execute(() -> fill(order, price, attempt));
+		} catch (RejectedExecutionException e) {
+			// 종료 중: 다음 기동 때 주문장을 다시 만들며 재확인한다
+			log.info("종료 중이라 대기 주문 체결 보류: orderId={}", order.id);
+		}
+	}
+
+	private void fill(OpenOrder order, double price, int attempt) {
+		CoinSellBuyRequestDto request = new CoinSellBuyRequestDto();
+		request.setTicker(order.ticker);
+		request.setOrderType(order.orderType);
+		request.setOrderQuantity(order.orderQuantity);
+		request.setOrderAmount(order.orderAmount);
+		try {
+			coinService.executeTriggeredOrder(order.kakaoId, request, price, () -> {
+				// 체결과 같은 트랜잭션에서 주문을 닫는다 (이미 닫혔으면 체결도 되돌린다)
+				if (restingOrderRepository.close(order.id, RestingOrder.FILLED, price, null,
+						ZonedDateTime.now(SEOUL)) == 0) {
+					throw new AlreadyClosedException();
+				}
+			});
+			filledCounter.increment();
+		} catch (AlreadyClosedException e) {
+			// 다른 경로에서 이미 종료된 주문: 체결은 롤백됐으므로 할 일 없음
+			log.info("이미 종료된 대기 주문 발동 무시: orderId={}", order.id);
+		} catch (CustomException e) {
+			if ((e.getStatus() == 503 || e.getStatus() == 409) && attempt < maxAttempts) {
+				retry(order, price, attempt);
+				return;
+			}
+			reject(order, e.getMessage());
+			log.info("대기 주문 체결 거절: orderId={}, reason={}", order.id, e.getMessage());
+		} catch (RuntimeException e) {
+			reject(order, "체결 중 오류");
+			log.error("대기 주문 체결 실패: orderId={}", order.id, e);
+		}
+	}
+
+	// 일시적 오류: 잠시 뒤 같은 체결가로 다시 시도 (그 사이 취소할 수 있음)
+	private void retry(OpenOrder order, double price, int attempt) {
+		retriedCounter.increment();
+		pendingRetries.put(order.id, order);
+		retryScheduler.schedule(() -> {
+			if (pendingRetries.remove(order.id, order)) {
+				submitFill(order, price, attempt + 1);
+			}
+		}, retryDelayMillis * attempt, TimeUnit.MILLISECONDS);
+	}
+
+	private void reject(OpenOrder order, String reason) {
+		if (restingOrderRepository.close(order.id, RestingOrder.REJECTED, null, reason, ZonedDateTime.now(SEOUL)) > 0) {
+			rejectedCounter.increment();
+		}
+	}
+
+	// 체결 트랜잭션 안에서 주문이 이미 종료된 것을 발견 (트랜잭션을 되돌리기 위해 던짐)
+	private static final class AlreadyClosedException extends RuntimeException {
+		private AlreadyClosedException() {
+			super("이미 종료된 대기 주문입니다.", null, false, false);
+		}
+	}
+
+	private void track(OpenOrder order) {
+		openOrders.put(order.id, order);
+		SlotBook book = books.get(order.slot);
+		if (book == null) {
+			books.compareAndSet(order.slot, null, new SlotBook());
+			book = books.get(order.slot);
+		}
+		book.add(order);
+	}
+
+	private void validate(RestingOrderRequestDto request) {
+		if (!"buy".equalsIgnoreCase(request.getOrderType()) && !"sell".equalsIgnoreCase(request.getOrderType())) {
+			throw new CustomException(400, "유효하지 않은 거래 타입입니다.");
+		}
+		if (!"limit".equalsIgnoreCase(request.getTriggerType()) && !"stop".equalsIgnoreCase(request.getTriggerType())) {
+			throw new CustomException(400, "대기 주문 종류는 limit 또는 stop 이어야 합니다.");
+		}
+		if (request.getTriggerPrice() == null || request.getTriggerPrice() <= 0) {
+			throw new CustomException(400, "발동 가격은 0보다 커야 합니다.");
+		}
+		if (request.getOrderAmount() == null && request.getOrderQuantity() == null) {
+			throw new CustomException(400, "주문 금액 또는 수량이 필요합니다.");
+		}
+		if (request.getOrderAmount() != null && request.getOrderAmount() < 5000) {
+			throw new CustomException(400, "최소 주문 금액은 5000원입니다. 현재 주문 금액: " + request.getOrderAmount());
+		}
+	}
+
+	private RestingOrderResponseDto toResponse(RestingOrder order, String ticker) {
+		return RestingOrderResponseDto.builder().id(order.getId()).ticker(ticker).orderType(order.getOrderType())
+				.triggerType(order.getTriggerType()).triggerPrice(order.getTriggerPrice())
+				.orderAmount(order.getOrderAmount()).orderQuantity(order.getOrderQuantity())
+				.status(order.getStatus()).createdAt(order.getCreatedAt()).build();
+	}
+}
@@ -0,0 +1,80 @@
+package org.secretjuju.kono.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 로컬 스텁 시세 피드. intervalMillis 가 0보다 크면 구독한 마켓마다 랜덤워크 시세를 주기적으로 생성하고, 테스트에서는 emit 으로 시세를 직접 밀어넣을 수 있다.
+ */
+@Slf4j
+public class StubPriceFeedTransport implements PriceFeedTransport {
+
+	private static final double INITIAL_PRICE = 10000.0;
+
+	private final long intervalMillis;
+	private final Map<String, Double> lastPrices = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "stub-price-feed");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private volatile Listener currentListener;
+
+	public StubPriceFeedTransport(long intervalMillis) {
+		this.intervalMillis = intervalMillis;
+	}
+
+	@Override
+	public Connection connect(List<String> markets, Listener listener) {
+		currentListener = listener;
+		ScheduledFuture<?> generator = null;
+		if (intervalMillis > 0) {
+			generator = scheduler.scheduleAtFixedRate(() -> markets.forEach(this::randomWalk), intervalMillis,
+					intervalMillis, TimeUnit.MILLISECONDS);
+		}
+		log.info("스텁 시세 피드 구독 시작: {} 개 마켓", markets.size());
+
+		ScheduledFuture<?> task = generator;
+		return () -> {
+			if (task != null) {
+				task.cancel(false);
+			}
+			if (currentListener == listener) {
+				currentListener = null;
+			}
+		};
+	}
+
+	// 현재 연결된 구독자에게 시세를 직접 전달
+	public void emit(String market, double price, double volume, long timestamp) {
+		lastPrices.put(market, price);
+		Listener listener = currentListener;
+		if (listener != null) {
+			listener.onTick(market, price, volume, timestamp);
+		}
+	}
+
+	// 연결 끊김 시뮬레이션
+	public void dropConnection(Throwable cause) {
+		Listener listener = currentListener;
+		currentListener = null;
+		if (listener != null) {
+			listener.onDisconnected(cause);
+		}
+	}
+
+	private void randomWalk(String market) {
+		double last = lastPrices.getOrDefault(market, INITIAL_PRICE);
+		double next = Math.max(1.0, last * (1 + ThreadLocalRandom.current().nextGaussian() * 0.001));
+		emit(market, next, ThreadLocalRandom.current().nextDouble(0.01, 1.0), System.currentTimeMillis());
+	}
+}
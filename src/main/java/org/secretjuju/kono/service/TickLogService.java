@@ -0,0 +1,323 @@
+package org.secretjuju.kono.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 가격표에 반영된 모든 시세를 고정 폭 바이너리 레코드(슬롯 int, 시각 long, 가격 double = 20 바이트)로 메모리 맵 세그먼트 파일에 덧붙인다.
+ *
+ * <p>
+ * 슬롯 번호는 실행마다 달라질 수 있으므로 실행(run)마다 슬롯 -> 코인 심볼 인덱스 파일을 함께 남기고, 재생 시 현재 가격표 슬롯으로 다시 매핑한다. 기록된 시세는 N 배속으로
+ * 가격표에 다시 재생할 수 있으며, 기동 시 최근 구간을 재생해 가격표를 미리 채울 수 있다.
+ */
+@Service
+@Slf4j
+public class TickLogService implements PriceTickListener {
+
+	static final int RECORD_BYTES = Integer.BYTES + Long.BYTES + Double.BYTES;
+	private static final String FILE_PREFIX = "ticks-";
+	private static final String SEGMENT_SUFFIX = ".log";
+	private static final String INDEX_SUFFIX = ".idx";
+
+	private final CoinPriceService coinPriceService;
+
+	@Value("${upbit.tick-log.enabled:false}")
+	private boolean enabled;
+
+	@Value("${upbit.tick-log.dir:./data/tick-log}")
+	private String directory;
+
+	@Value("${upbit.tick-log.segment-bytes:33554432}")
+	private int segmentBytes;
+
+	// 이 개수를 넘으면 오래된 세그먼트부터 삭제
+	@Value("${upbit.tick-log.max-segments:32}")
+	private int maxSegments;
+
+	// 기동 시 최근 구간을 재생해 가격표를 채울지 여부
+	@Value("${upbit.tick-log.warm-start:false}")
+	private boolean warmStart;
+
+	@Value("${upbit.tick-log.warm-start-window-ms:600000}")
+	private long warmStartWindowMillis;
+
+	// 실행 식별자. 세그먼트/인덱스 파일 이름에 들어간다
+	private final String runId = String.valueOf(System.currentTimeMillis());
+
+	private final ExecutorService replayExecutor = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "tick-log-replay");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Counter appendedCounter;
+	private final Counter failedCounter;
+	private final Counter replayedCounter;
+
+	// 아래 필드는 this 로 동기화
+	private Path root;
+	private FileChannel channel;
+	private MappedByteBuffer segment;
+	private int segmentSequence;
+	private BufferedWriter indexWriter;
+	private final BitSet indexedSlots = new BitSet();
+
+	// 재생 중인 스레드. 재생한 시세를 다시 기록하지 않기 위해 사용
+	private volatile Thread replayThread;
+
+	public TickLogService(CoinPriceService coinPriceService, MeterRegistry meterRegistry) {
+		this.coinPriceService = coinPriceService;
+		this.appendedCounter = meterRegistry.counter("price.tick_log.appended");
+		this.failedCounter = meterRegistry.counter("price.tick_log.failures");
+		this.replayedCounter = meterRegistry.counter("price.tick_log.replayed");
+	}
+
+	@PostConstruct
+	public void start() throws IOException {
+		if (!enabled) {
+			log.info("틱 로그 비활성화");
+			return;
+		}
+		root = Paths.get(directory);
+		Files.createDirectories(root);
+
+		if (warmStart) {
+			long now = System.currentTimeMillis();
+			long replayed = replayRecords(now - warmStartWindowMillis, now, 0);
+			log.info("틱 로그 웜 스타트: 최근 {}ms 구간 {} 건 재생", warmStartWindowMillis, replayed);
+		}
+
+		synchronized (this) {
+			indexWriter = Files.newBufferedWriter(root.resolve(FILE_PREFIX + runId + INDEX_SUFFIX),
+					StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+			openSegment();
+		}
+		coinPriceService.addTickListener(this);
+		log.info("틱 로그 기록 시작: dir={}, run={}", root.toAbsolutePath(), runId);
+	}
+
+	@PreDestroy
+	public synchronized void stop() {
+		replayExecutor.shutdownNow();
+		closeSegment();
+		if (indexWriter != null) {
+			try {
+				indexWriter.close();
+			} catch (IOException e) {
+				log.debug("틱 로그 인덱스 닫기 실패: {}", e.getMessage());
+			}
+			indexWriter = null;
+		}
+	}
+
+	@Override
+	public void onTick(int slot, double price, double volume, long timestamp) {
+		if (Thread.currentThread() == replayThread) {
+			return;
+		}
+		append(slot, price, timestamp);
+	}
+
+	private synchronized void append(int slot, double price, long timestamp) {
+		if (segment == null) {
+			return;
+		}
+		try {
+			if (!indexedSlots.get(slot)) {
+				indexWriter.write(slot + "," + coinPriceService.tickerAt(slot));
+				indexWriter.newLine();
+				indexWriter.flush();
+				indexedSlots.set(slot);
+			}
+			if (segment.remaining() < RECORD_BYTES) {
+				closeSegment();
+				segmentSequence++;
+				openSegment();
+				pruneSegments();
+			}
+			segment.putInt(slot).putLong(timestamp).putDouble(price);
+			appendedCounter.increment();
+		} catch (IOException | UncheckedIOException e) {
+			failedCounter.increment();
+			log.warn("틱 로그 기록 실패: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * [fromMillis, toMillis] 구간의 기록을 가격표에 재생한다. speed 가 1 이면 기록된 간격 그대로, N 이면 N 배속, 0 이하면 대기 없이 재생한다. 이미 더 최신 시세가 있는
+	 * 코인에는 반영되지 않는다.
+	 *
+	 * @return 재생한 레코드 수
+	 */
+	public CompletableFuture<Long> replay(long fromMillis, long toMillis, double speed) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return replayRecords(fromMillis, toMillis, speed);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, replayExecutor);
+	}
+
+	private long replayRecords(long fromMillis, long toMillis, double speed) throws IOException {
+		replayThread = Thread.currentThread();
+		try {
+			long replayed = 0;
+			long firstTimestamp = -1;
+			long startedAt = System.currentTimeMillis();
+			Map<String, int[]> slotMappings = new HashMap<>();
+
+			for (Path file : listSegments()) {
+				String fileRunId = runIdOf(file);
+				int[] slotMapping = slotMappings.computeIfAbsent(fileRunId, this::loadSlotMapping);
+
+				try (FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+					MappedByteBuffer records = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+					while (records.remaining() >= RECORD_BYTES) {
+						int loggedSlot = records.getInt();
+						long timestamp = records.getLong();
+						double price = records.getDouble();
+						if (timestamp == 0) {
+							break; // 세그먼트의 아직 쓰지 않은 영역
+						}
+						if (timestamp < fromMillis || timestamp > toMillis || loggedSlot >= slotMapping.length
+								|| slotMapping[loggedSlot] < 0) {
+							continue;
+						}
+						if (speed > 0) {
+							if (firstTimestamp < 0) {
+								firstTimestamp = timestamp;
+							}
+							long wait = (long) ((timestamp - firstTimestamp) / speed)
+									- (System.currentTimeMillis() - startedAt);
+							if (wait > 0) {
+								Thread.sleep(wait);
+							}
+						}
+						coinPriceService.applyTick(slotMapping[loggedSlot], price, 0.0, timestamp);
+						replayed++;
+					}
+				}
+			}
+			replayedCounter.increment(replayed);
+			return replayed;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("틱 로그 재생이 중단되었습니다.", e);
+		} finally {
+			replayThread = null;
+		}
+	}
+
+	// 기록된 슬롯 -> 현재 가격표 슬롯 (인덱스에 없으면 -1)
+	private int[] loadSlotMapping(String fileRunId) {
+		Path index = root.resolve(FILE_PREFIX + fileRunId + INDEX_SUFFIX);
+		if (!Files.exists(index)) {
+			return new int[0];
+		}
+		try {
+			List<String> lines = Files.readAllLines(index, StandardCharsets.UTF_8);
+			int maxSlot = -1;
+			Map<Integer, String> tickers = new HashMap<>();
+			for (String line : lines) {
+				int comma = line.indexOf(',');
+				if (comma <= 0) {
+					continue;
+				}
+				int slot = Integer.parseInt(line.substring(0, comma));
+				tickers.put(slot, line.substring(comma + 1));
+				maxSlot = Math.max(maxSlot, slot);
+			}
+			int[] mapping = new int[maxSlot + 1];
+			Arrays.fill(mapping, -1);
+			tickers.forEach((slot, ticker) -> mapping[slot] = coinPriceService.registerTicker(ticker));
+			return mapping;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private List<Path> listSegments() throws IOException {
+		if (root == null || !Files.isDirectory(root)) {
+			return List.of();
+		}
+		try (Stream<Path> files = Files.list(root)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted()
+					.collect(Collectors.toList());
+		}
+	}
+
+	// ticks-<runId>-<seq>.log -> runId
+	private String runIdOf(Path segmentFile) {
+		String name = segmentFile.getFileName().toString();
+		return name.substring(FILE_PREFIX.length(), name.lastIndexOf('-'));
+	}
+
+	private void openSegment() throws IOException {
+		Path file = root.resolve(String.format("%s%s-%05d%s", FILE_PREFIX, runId, segmentSequence, SEGMENT_SUFFIX));
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+	}
+
+	private void closeSegment() {
+		if (segment != null) {
+			segment.force();
+			segment = null;
+		}
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				log.debug("틱 로그 세그먼트 닫기 실패: {}", e.getMessage());
+			}
+			channel = null;
+		}
+	}
+
+	// 오래된 세그먼트 삭제. 세그먼트가 하나도 남지 않은 실행의 인덱스도 함께 삭제
+	private void pruneSegments() throws IOException {
+		List<Path> segments = listSegments();
+		for (int i = 0; i < segments.size() - maxSegments; i++) {
+			Files.deleteIfExists(segments.get(i));
+			log.info("오래된 틱 로그 세그먼트 삭제: {}", segments.get(i).getFileName());
+		}
+		List<String> liveRuns = listSegments().stream().map(this::runIdOf).distinct().collect(Collectors.toList());
+		try (Stream<Path> files = Files.list(root)) {
+			for (Path index : files.filter(file -> file.getFileName().toString().endsWith(INDEX_SUFFIX))
+					.collect(Collectors.toList())) {
+				String name = index.getFileName().toString();
+				String indexRunId = name.substring(FILE_PREFIX.length(), name.length() - INDEX_SUFFIX.length());
+				if (!liveRuns.contains(indexRunId)) {
+					Files.deleteIfExists(index);
+				}
+			}
+		}
+	}
+}
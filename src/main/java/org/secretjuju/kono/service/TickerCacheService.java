@@ -0,0 +1,93 @@
+package org.secretjuju.kono.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.secretjuju.kono.dto.response.TickerResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * /api/v1/ticker 프록시용 시세 캐시. 같은 마켓에 대한 동시 요청은 하나의 업비트 호출을 공유하고(single-flight), 결과는 짧은 TTL 동안 재사용한다.
+ */
+@Service
+@Slf4j
+public class TickerCacheService {
+
+	private final UpbitService upbitService;
+	private final Cache<String, TickerResponse> microCache;
+	private final ConcurrentHashMap<String, CompletableFuture<TickerResponse>> inFlight = new ConcurrentHashMap<>();
+
+	private final Counter hitCounter;
+	private final Counter missCounter;
+	private final Counter coalescedCounter;
+
+	public TickerCacheService(UpbitService upbitService, MeterRegistry meterRegistry,
+			@Value("${upbit.ticker-cache.ttl-ms:500}") long ttlMillis,
+			@Value("${upbit.ticker-cache.max-size:1000}") long maxSize) {
+		this.upbitService = upbitService;
+		this.microCache = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(Duration.ofMillis(ttlMillis))
+				.build();
+		this.hitCounter = meterRegistry.counter("upbit.ticker.proxy", "result", "hit");
+		this.missCounter = meterRegistry.counter("upbit.ticker.proxy", "result", "miss");
+		this.coalescedCounter = meterRegistry.counter("upbit.ticker.proxy", "result", "coalesced");
+	}
+
+	public TickerResponse getTicker(String market) {
+		TickerResponse cached = microCache.getIfPresent(market);
+		if (cached != null) {
+			hitCounter.increment();
+			return cached;
+		}
+
+		CompletableFuture<TickerResponse> call = new CompletableFuture<>();
+		CompletableFuture<TickerResponse> existing = inFlight.putIfAbsent(market, call);
+		if (existing != null) {
+			// 이미 진행 중인 업비트 호출 결과를 기다린다
+			coalescedCounter.increment();
+			return await(existing);
+		}
+
+		try {
+			// 직전 호출이 방금 끝나 캐시가 채워졌을 수 있음
+			TickerResponse ticker = microCache.getIfPresent(market);
+			if (ticker != null) {
+				hitCounter.increment();
+			} else {
+				missCounter.increment();
+				ticker = upbitService.getTicker(market);
+				// 대체 시세는 캐시하지 않아 업비트가 회복되면 바로 새 시세를 받는다
+				if (!ticker.isStale()) {
+					microCache.put(market, ticker);
+				}
+			}
+			call.complete(ticker);
+			return ticker;
+		} catch (RuntimeException e) {
+			call.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(market, call);
+		}
+	}
+
+	private TickerResponse await(CompletableFuture<TickerResponse> call) {
+		try {
+			return call.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+}
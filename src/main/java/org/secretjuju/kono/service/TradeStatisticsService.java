@@ -0,0 +1,52 @@
+package org.secretjuju.kono.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 코인별 체결 통계. 주문 아웃박스 이벤트로 체결 건수와 거래 금액을 누적한다 (DB 를 다시 읽지 않음).
+ */
+@Service
+@Slf4j
+public class TradeStatisticsService {
+
+	private final OrderOutboxRelay orderOutboxRelay;
+	private final CoinCatalogService coinCatalogService;
+	private final MeterRegistry meterRegistry;
+
+	// "티커:매수/매도" -> [체결 건수, 거래 금액]
+	private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+
+	public TradeStatisticsService(OrderOutboxRelay orderOutboxRelay, CoinCatalogService coinCatalogService,
+			MeterRegistry meterRegistry) {
+		this.orderOutboxRelay = orderOutboxRelay;
+		this.coinCatalogService = coinCatalogService;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@PostConstruct
+	public void init() {
+		orderOutboxRelay.subscribe("trade-statistics", this::onOrderEvents);
+	}
+
+	private void onOrderEvents(List<OrderEvent> events) {
+		for (OrderEvent event : events) {
+			String ticker = coinCatalogService.findById(event.getCoinId()).map(CoinCatalogService.CoinEntry::getTicker)
+					.orElse("UNKNOWN");
+			String side = "sell".equalsIgnoreCase(event.getOrderType()) ? "sell" : "buy";
+			Counter[] coinCounters = counters.computeIfAbsent(ticker + ":" + side,
+					key -> new Counter[]{meterRegistry.counter("order.trades", "ticker", ticker, "side", side),
+							meterRegistry.counter("order.trade.amount", "ticker", ticker, "side", side)});
+			coinCounters[0].increment();
+			coinCounters[1].increment(event.getOrderAmount());
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package org.secretjuju.kono.service;
+
+import java.util.Arrays;
+
+/**
+ * 트리거 키 오름차순으로 정렬된 대기 주문 ID 목록 (원시 배열).
+ *
+ * <p>
+ * 키가 probe 이상인 주문은 항상 배열 끝쪽에 모여 있으므로, 이진 탐색 한 번으로 경계를 찾고 그 뒤의 k 건만 꺼낸다 (O(log n + k)). 발동할 주문이 없으면 마지막 키 비교 한 번으로
+ * 끝난다. 동기화하지 않으므로 호출자가 보호한다.
+ */
+class TriggerBook {
+
+	private static final long[] NONE = new long[0];
+
+	private double[] keys = new double[8];
+	private long[] ids = new long[8];
+	private int size;
+
+	// 같은 키끼리는 먼저 넣은 주문이 앞에 온다
+	public void add(double key, long id) {
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, size * 2);
+			ids = Arrays.copyOf(ids, size * 2);
+		}
+		int index = upperBound(key);
+		System.arraycopy(keys, index, keys, index + 1, size - index);
+		System.arraycopy(ids, index, ids, index + 1, size - index);
+		keys[index] = key;
+		ids[index] = id;
+		size++;
+	}
+
+	public boolean remove(double key, long id) {
+		for (int index = lowerBound(key); index < size && keys[index] == key; index++) {
+			if (ids[index] == id) {
+				System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+				System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+				size--;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// 키가 probe 이상인 주문을 모두 목록에서 빼고 ID 를 반환 (없으면 빈 배열)
+	public long[] drainAtOrAbove(double probe) {
+		if (size == 0 || keys[size - 1] < probe) {
+			return NONE;
+		}
+		int from = lowerBound(probe);
+		long[] drained = Arrays.copyOfRange(ids, from, size);
+		size = from;
+		return drained;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	// key 이상인 첫 위치
+	private int lowerBound(double key) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (keys[mid] < key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	// key 보다 큰 첫 위치
+	private int upperBound(double key) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (keys[mid] <= key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,221 @@
+package org.secretjuju.kono.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 업비트 실시간 시세 스트리밍 수집기. 연결이 끊기거나 일정 시간 메시지가 없으면(갭) 재연결/재구독하고, 놓친 구간은 REST 일괄 조회로 메운다.
+ */
+@Service
+@Slf4j
+public class UpbitPriceStreamService {
+
+	private final PriceFeedTransport transport;
+	private final CoinPriceService coinPriceService;
+
+	@Value("${upbit.stream.enabled:false}")
+	private boolean enabled;
+
+	// 이 시간 동안 메시지가 없으면 스트림이 끊긴 것으로 보고 재연결
+	@Value("${upbit.stream.stale-threshold-ms:10000}")
+	private long staleThresholdMillis;
+
+	@Value("${upbit.stream.reconnect-min-backoff-ms:1000}")
+	private long minBackoffMillis;
+
+	@Value("${upbit.stream.reconnect-max-backoff-ms:30000}")
+	private long maxBackoffMillis;
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "upbit-price-stream");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	// 마켓별 마지막 수신 시각 (순서 역전 감지)
+	private final Map<String, Long> lastTickTimestamps = new ConcurrentHashMap<>();
+
+	private final Counter messageCounter;
+	private final Counter reconnectCounter;
+	private final Counter gapCounter;
+	private final Counter outOfOrderCounter;
+
+	private volatile PriceFeedTransport.Connection connection;
+	private volatile List<String> subscribedMarkets = List.of();
+	private volatile long lastMessageAt;
+	// 연결 세대. 이전 연결에서 늦게 도착한 콜백을 무시하기 위해 사용
+	private volatile long generation;
+	private volatile boolean running;
+	private int failedAttempts;
+
+	public UpbitPriceStreamService(PriceFeedTransport transport, CoinPriceService coinPriceService,
+			MeterRegistry meterRegistry) {
+		this.transport = transport;
+		this.coinPriceService = coinPriceService;
+		this.messageCounter = meterRegistry.counter("upbit.stream.messages");
+		this.reconnectCounter = meterRegistry.counter("upbit.stream.reconnects");
+		this.gapCounter = meterRegistry.counter("upbit.stream.gaps");
+		this.outOfOrderCounter = meterRegistry.counter("upbit.stream.out_of_order");
+		Gauge.builder("upbit.stream.connected", this, service -> service.isHealthy() ? 1 : 0)
+				.register(meterRegistry);
+	}
+
+	@PostConstruct
+	public void start() {
+		if (!enabled) {
+			log.info("업비트 실시간 시세 스트리밍 비활성화");
+			return;
+		}
+		running = true;
+		scheduler.execute(this::connect);
+		long checkInterval = Math.max(1000, staleThresholdMillis / 2);
+		scheduler.scheduleWithFixedDelay(this::checkHealth, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		running = false;
+		closeConnection();
+		scheduler.shutdownNow();
+	}
+
+	// 스트림이 연결되어 있고 최근에 메시지를 받았는지 여부
+	public boolean isHealthy() {
+		return connection != null && System.currentTimeMillis() - lastMessageAt < staleThresholdMillis;
+	}
+
+	// 스케줄러 스레드에서만 호출
+	private void connect() {
+		if (!running) {
+			return;
+		}
+		closeConnection();
+		List<String> markets = coinPriceService.getAllMarkets();
+		if (markets.isEmpty()) {
+			log.warn("구독할 마켓이 없어 스트림 연결을 미룹니다.");
+			scheduleReconnect();
+			return;
+		}
+
+		long connectGeneration = ++generation;
+		try {
+			connection = transport.connect(markets, new StreamListener(connectGeneration));
+			subscribedMarkets = markets;
+			lastMessageAt = System.currentTimeMillis();
+			failedAttempts = 0;
+			// 끊겨 있던 동안 놓친 시세를 REST 로 한 번 메운다
+			coinPriceService.updateAllCoinPrices();
+		} catch (Exception e) {
+			log.warn("업비트 스트림 연결 실패: {}", e.getMessage());
+			connection = null;
+			scheduleReconnect();
+		}
+	}
+
+	private void checkHealth() {
+		if (!running || connection == null) {
+			return;
+		}
+		try {
+			long silence = System.currentTimeMillis() - lastMessageAt;
+			if (silence >= staleThresholdMillis) {
+				gapCounter.increment();
+				log.warn("업비트 스트림 갭 감지: {}ms 동안 수신 없음, 재연결합니다.", silence);
+				reconnectNow();
+				return;
+			}
+
+			// 코인 목록이 바뀌었으면 재구독
+			List<String> markets = coinPriceService.getAllMarkets();
+			if (!markets.isEmpty() && !markets.equals(subscribedMarkets)) {
+				log.info("구독 마켓 변경 감지 ({} -> {}), 재구독합니다.", subscribedMarkets.size(), markets.size());
+				reconnectNow();
+				return;
+			}
+
+			connection.ping();
+		} catch (Exception e) {
+			log.warn("업비트 스트림 상태 점검 중 오류: {}", e.getMessage());
+		}
+	}
+
+	private void reconnectNow() {
+		reconnectCounter.increment();
+		connect();
+	}
+
+	private void scheduleReconnect() {
+		if (!running) {
+			return;
+		}
+		reconnectCounter.increment();
+		long backoff = Math.min(maxBackoffMillis, minBackoffMillis << Math.min(failedAttempts, 10));
+		long jitter = ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+		failedAttempts++;
+		scheduler.schedule(this::connect, backoff / 2 + jitter, TimeUnit.MILLISECONDS);
+	}
+
+	private void closeConnection() {
+		PriceFeedTransport.Connection current = connection;
+		connection = null;
+		if (current != null) {
+			try {
+				current.close();
+			} catch (Exception e) {
+				log.debug("스트림 연결 종료 중 오류: {}", e.getMessage());
+			}
+		}
+	}
+
+	private class StreamListener implements PriceFeedTransport.Listener {
+		private final long connectGeneration;
+
+		StreamListener(long connectGeneration) {
+			this.connectGeneration = connectGeneration;
+		}
+
+		@Override
+		public void onTick(String market, double price, double volume, long timestamp) {
+			if (connectGeneration != generation) {
+				return;
+			}
+			lastMessageAt = System.currentTimeMillis();
+			messageCounter.increment();
+
+			Long previous = lastTickTimestamps.put(market, timestamp);
+			if (previous != null && previous > timestamp) {
+				outOfOrderCounter.increment();
+			}
+			coinPriceService.applyTick(market, price, volume, timestamp);
+		}
+
+		@Override
+		public void onDisconnected(Throwable cause) {
+			if (connectGeneration != generation || !running) {
+				return;
+			}
+			log.warn("업비트 스트림 연결 끊김, 재연결을 예약합니다.");
+			scheduler.execute(() -> {
+				if (connectGeneration == generation) {
+					connection = null;
+					scheduleReconnect();
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package org.secretjuju.kono.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.Refill;
+
+/**
+ * 업비트 REST 호출이 공유하는 초당 요청 예산. 업비트 시세 API 제한(초당 10회)보다 약간 낮게 잡는다.
+ */
+@Service
+public class UpbitRequestBudget {
+
+	private final Bucket bucket;
+
+	public UpbitRequestBudget(@Value("${upbit.rest.requests-per-second:8}") int requestsPerSecond) {
+		Refill refill = Refill.greedy(requestsPerSecond, Duration.ofSeconds(1));
+		this.bucket = Bucket4j.builder().addLimit(Bandwidth.classic(requestsPerSecond, refill)).build();
+	}
+
+	/**
+	 * 백그라운드 작업용. 예산이 생길 때까지 대기한다.
+	 */
+	public void acquire() {
+		try {
+			bucket.asBlocking().consume(1);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("업비트 요청 예산 대기 중 인터럽트", e);
+		}
+	}
+
+	/**
+	 * 사용자 요청용. 기다리지 않고 예산만 차감한다 (예산이 없어도 호출은 진행하고, 대신 백그라운드 작업이 양보한다).
+	 */
+	public boolean tryAcquire() {
+		return bucket.tryConsume(1);
+	}
+}
@@ -1,31 +1,197 @@
 package org.secretjuju.kono.service;
 
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.secretjuju.kono.dto.response.TickerResponse;
+import org.secretjuju.kono.exception.CustomException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 업비트 단건 시세 조회 클라이언트.
+ *
+ * <p>
+ * 호출마다 마감 시간(deadline)을 두고, 연속 실패 시 서킷 브레이커를 열어 업비트를 더 호출하지 않는다. hedge-delay-ms 안에 응답이 없으면 같은 요청을 한 번 더 보내 먼저 온
+ * 응답을 쓴다. 호출할 수 없거나 실패하면 마켓별 마지막 정상 시세를 stale 표시와 함께 돌려주고, 그것도 없으면 503 으로 응답한다.
+ */
 @Service
+@Slf4j
 public class UpbitService {
 
 	private final RestTemplate restTemplate;
+	private final UpbitRequestBudget requestBudget;
+	private final String upbitApiUrl;
+	private final long deadlineMillis;
+	private final long hedgeDelayMillis;
+
+	private final CircuitBreaker circuitBreaker;
+	private final ThreadPoolExecutor executor;
+	// 마켓별 마지막 정상 시세
+	private final Map<String, TickerResponse> lastGoodTickers = new ConcurrentHashMap<>();
 
-	@Value("${upbit.api.url}")
-	private String upbitApiUrl;
+	private final Counter successCounter;
+	private final Counter failureCounter;
+	private final Counter timeoutCounter;
+	private final Counter hedgeCounter;
+	private final Counter fallbackCounter;
+	private final Counter unavailableCounter;
 
-	public UpbitService(RestTemplate restTemplate) {
+	public UpbitService(RestTemplate restTemplate, UpbitRequestBudget requestBudget, MeterRegistry meterRegistry,
+			@Value("${upbit.api.url}") String upbitApiUrl,
+			@Value("${upbit.client.deadline-ms:1500}") long deadlineMillis,
+			@Value("${upbit.client.hedge-delay-ms:300}") long hedgeDelayMillis,
+			@Value("${upbit.client.max-concurrency:16}") int maxConcurrency,
+			@Value("${upbit.client.breaker.failure-threshold:5}") int failureThreshold,
+			@Value("${upbit.client.breaker.open-ms:5000}") long openMillis) {
 		this.restTemplate = restTemplate;
+		this.requestBudget = requestBudget;
+		this.upbitApiUrl = upbitApiUrl;
+		this.deadlineMillis = deadlineMillis;
+		this.hedgeDelayMillis = hedgeDelayMillis;
+
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(maxConcurrency * 4), r -> {
+					Thread thread = new Thread(r, "upbit-client-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.executor.allowCoreThreadTimeOut(true);
+
+		this.successCounter = meterRegistry.counter("upbit.client.calls", "outcome", "success");
+		this.failureCounter = meterRegistry.counter("upbit.client.calls", "outcome", "failure");
+		this.timeoutCounter = meterRegistry.counter("upbit.client.calls", "outcome", "timeout");
+		this.hedgeCounter = meterRegistry.counter("upbit.client.hedges");
+		this.fallbackCounter = meterRegistry.counter("upbit.client.fallbacks", "result", "last_good");
+		this.unavailableCounter = meterRegistry.counter("upbit.client.fallbacks", "result", "unavailable");
+		this.circuitBreaker = new CircuitBreaker(failureThreshold, openMillis, (from, to) -> {
+			meterRegistry.counter("upbit.client.breaker.transitions", "to", to.name().toLowerCase()).increment();
+			log.warn("업비트 서킷 브레이커 상태 변경: {} -> {}", from, to);
+		});
+		Gauge.builder("upbit.client.breaker.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+				.description("0=closed, 1=open, 2=half_open").register(meterRegistry);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
 	}
 
 	public TickerResponse getTicker(String market) {
+		if (!circuitBreaker.tryAcquirePermission()) {
+			return fallback(market, null);
+		}
+
+		requestBudget.tryAcquire();
+		CompletableFuture<TickerResponse> result = new CompletableFuture<>();
+		AtomicInteger pending = new AtomicInteger(1);
+		try {
+			submit(market, result, pending);
+			if (hedgeDelayMillis > 0 && hedgeDelayMillis < deadlineMillis) {
+				// 첫 요청이 늦으면 예산이 남아 있을 때만 같은 요청을 한 번 더 보낸다
+				CompletableFuture.delayedExecutor(hedgeDelayMillis, TimeUnit.MILLISECONDS).execute(() -> {
+					if (!result.isDone() && requestBudget.tryAcquire()) {
+						hedgeCounter.increment();
+						pending.incrementAndGet();
+						try {
+							submit(market, result, pending);
+						} catch (RejectedExecutionException e) {
+							pending.decrementAndGet();
+						}
+					}
+				});
+			}
+
+			TickerResponse ticker = result.get(deadlineMillis, TimeUnit.MILLISECONDS);
+			circuitBreaker.onSuccess();
+			successCounter.increment();
+			lastGoodTickers.put(market, ticker);
+			return ticker;
+		} catch (TimeoutException e) {
+			timeoutCounter.increment();
+			circuitBreaker.onFailure();
+			return fallback(market, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof HttpClientErrorException clientError
+					&& clientError.getStatusCode() != HttpStatus.TOO_MANY_REQUESTS) {
+				// 잘못된 마켓 등 요청 자체의 문제는 업비트 장애로 보지 않는다
+				circuitBreaker.onSuccess();
+				throw new CustomException(clientError.getStatusCode().value(), "업비트 시세 조회 요청이 올바르지 않습니다: " + market);
+			}
+			failureCounter.increment();
+			circuitBreaker.onFailure();
+			return fallback(market, e.getCause());
+		} catch (RejectedExecutionException e) {
+			// 동시 호출 한도 초과: 업비트가 느려 호출이 밀린 상태
+			failureCounter.increment();
+			circuitBreaker.onFailure();
+			return fallback(market, e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			circuitBreaker.onFailure();
+			return fallback(market, e);
+		} finally {
+			result.cancel(false);
+		}
+	}
+
+	// 요청 하나를 보내고 먼저 성공한 응답으로 result 를 완료. 모든 요청이 실패하면 마지막 실패로 완료
+	private void submit(String market, CompletableFuture<TickerResponse> result, AtomicInteger pending) {
+		executor.execute(() -> {
+			try {
+				result.complete(fetch(market));
+			} catch (RuntimeException e) {
+				if (pending.decrementAndGet() == 0) {
+					result.completeExceptionally(e);
+				}
+			}
+		});
+	}
+
+	private TickerResponse fetch(String market) {
 		String url = upbitApiUrl + "/ticker?markets=" + market;
 		ResponseEntity<TickerResponse[]> response = restTemplate.getForEntity(url, TickerResponse[].class);
-		if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-			return response.getBody()[0];
-		} else {
-			throw new RuntimeException("업비트 API 호출 실패");
+		TickerResponse[] body = response.getBody();
+		if (response.getStatusCode() != HttpStatus.OK || body == null || body.length == 0) {
+			throw new IllegalStateException("업비트 API 호출 실패: " + response.getStatusCode());
 		}
+		return body[0];
+	}
+
+	// 마지막 정상 시세를 stale 로 표시해 반환. 없으면 503
+	private TickerResponse fallback(String market, Throwable cause) {
+		TickerResponse lastGood = lastGoodTickers.get(market);
+		if (lastGood == null) {
+			unavailableCounter.increment();
+			log.warn("업비트 시세 조회 불가, 대체 시세 없음: market={}, cause={}", market,
+					cause != null ? cause.toString() : "circuit open");
+			throw new CustomException(503, "업비트 시세를 조회할 수 없습니다. 잠시 후 다시 시도해주세요.");
+		}
+		fallbackCounter.increment();
+		log.debug("업비트 시세 조회 실패, 마지막 정상 시세 사용: market={}", market);
+		return new TickerResponse(lastGood.getMarket(), lastGood.getTrade_price(), lastGood.getTimestamp(), true);
+	}
+
+	public CircuitBreaker.State getCircuitState() {
+		return circuitBreaker.getState();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,183 @@
+package org.secretjuju.kono.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 업비트 WebSocket 시세(ticker) 구독 구현체. 연결마다 구독 메시지를 다시 보내므로 재연결 시 자동으로 재구독된다.
+ */
+@Slf4j
+public class UpbitWebSocketTransport implements PriceFeedTransport {
+
+	private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+	private final HttpClient httpClient;
+	private final URI uri;
+	private final ObjectMapper objectMapper;
+
+	public UpbitWebSocketTransport(HttpClient httpClient, URI uri, ObjectMapper objectMapper) {
+		this.httpClient = httpClient;
+		this.uri = uri;
+		this.objectMapper = objectMapper;
+	}
+
+	// 업비트 WebSocket ticker 메시지 (DEFAULT 포맷)
+	public static class TickerMessage {
+		private String code;
+
+		@JsonProperty("trade_price")
+		private Double tradePrice;
+
+		@JsonProperty("trade_volume")
+		private Double tradeVolume;
+
+		private Long timestamp;
+
+		public String getCode() {
+			return code;
+		}
+
+		public void setCode(String code) {
+			this.code = code;
+		}
+
+		public Double getTradePrice() {
+			return tradePrice;
+		}
+
+		public void setTradePrice(Double tradePrice) {
+			this.tradePrice = tradePrice;
+		}
+
+		public Double getTradeVolume() {
+			return tradeVolume;
+		}
+
+		public void setTradeVolume(Double tradeVolume) {
+			this.tradeVolume = tradeVolume;
+		}
+
+		public Long getTimestamp() {
+			return timestamp;
+		}
+
+		public void setTimestamp(Long timestamp) {
+			this.timestamp = timestamp;
+		}
+	}
+
+	@Override
+	public Connection connect(List<String> markets, Listener listener) {
+		WebSocket webSocket = httpClient.newWebSocketBuilder().connectTimeout(CONNECT_TIMEOUT)
+				.buildAsync(uri, new FrameListener(listener)).join();
+		webSocket.sendText(subscribeMessage(markets), true).join();
+		log.info("업비트 WebSocket 구독 시작: {} 개 마켓", markets.size());
+
+		return new Connection() {
+			@Override
+			public void ping() {
+				webSocket.sendPing(ByteBuffer.allocate(0));
+			}
+
+			@Override
+			public void close() {
+				webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "bye");
+				webSocket.abort();
+			}
+		};
+	}
+
+	private String subscribeMessage(List<String> markets) {
+		List<Map<String, Object>> message = List.of(Map.of("ticket", "kono-" + UUID.randomUUID()),
+				Map.of("type", "ticker", "codes", markets), Map.of("format", "DEFAULT"));
+		try {
+			return objectMapper.writeValueAsString(message);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("구독 메시지 생성 실패", e);
+		}
+	}
+
+	// 분할 프레임을 모아 하나의 메시지로 파싱
+	private class FrameListener implements WebSocket.Listener {
+		private final Listener listener;
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		FrameListener(Listener listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public void onOpen(WebSocket webSocket) {
+			webSocket.request(1);
+		}
+
+		@Override
+		public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+			byte[] chunk = new byte[data.remaining()];
+			data.get(chunk);
+			buffer.write(chunk, 0, chunk.length);
+			if (last) {
+				handleMessage(buffer.toByteArray());
+				buffer.reset();
+			}
+			webSocket.request(1);
+			return null;
+		}
+
+		@Override
+		public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+			byte[] chunk = data.toString().getBytes(StandardCharsets.UTF_8);
+			buffer.write(chunk, 0, chunk.length);
+			if (last) {
+				handleMessage(buffer.toByteArray());
+				buffer.reset();
+			}
+			webSocket.request(1);
+			return null;
+		}
+
+		@Override
+		public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+			log.warn("업비트 WebSocket 종료: code={}, reason={}", statusCode, reason);
+			listener.onDisconnected(null);
+			return null;
+		}
+
+		@Override
+		public void onError(WebSocket webSocket, Throwable error) {
+			log.warn("업비트 WebSocket 오류: {}", error.getMessage());
+			listener.onDisconnected(error);
+		}
+
+		private void handleMessage(byte[] payload) {
+			try {
+				TickerMessage message = objectMapper.readValue(payload, TickerMessage.class);
+				// {"status":"UP"} 같은 상태 메시지는 무시
+				if (message.getCode() == null || message.getTradePrice() == null) {
+					return;
+				}
+				double volume = message.getTradeVolume() != null ? message.getTradeVolume() : 0.0;
+				long timestamp = message.getTimestamp() != null ? message.getTimestamp() : System.currentTimeMillis();
+				listener.onTick(message.getCode(), message.getTradePrice(), volume, timestamp);
+			} catch (IOException e) {
+				log.debug("WebSocket 메시지 파싱 실패: {}", e.getMessage());
+			}
+		}
+	}
+}
@@ -71,6 +71,11 @@ public class UserService {
 
 	// 현재 로그인한 사용자 정보 조회
 	public User getCurrentUser() {
+		return getUserByKakaoId(getCurrentKakaoId());
+	}
+
+	// 현재 로그인한 사용자의 카카오 ID (DB 조회 없음)
+	public Long getCurrentKakaoId() {
 		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
 		if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
@@ -79,8 +84,7 @@ public class UserService {
 
 		if (authentication.getPrincipal() instanceof OAuth2User) { // 여기서 카카오, 구글 로그인 사용자인지 확인 OAuth2사용자
 			OAuth2User oAuth2User = (OAuth2User) authentication.getPrincipal();
-			Long kakaoId = Long.valueOf(oAuth2User.getAttribute("id").toString());
-			return getUserByKakaoId(kakaoId);
+			return Long.valueOf(oAuth2User.getAttribute("id").toString());
 		}
 		throw new CustomException(401, "지원되지 않는 인증 방식입니다."); // OAuth방식이 아니면 오류발생
 	}
@@ -1,7 +1,9 @@
 package org.secretjuju.kono.service;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.secretjuju.kono.dto.response.CashBalanceResponseDto;
@@ -10,12 +12,11 @@ import org.secretjuju.kono.dto.response.CoinHoldingResponseDto;
 import org.secretjuju.kono.dto.response.TransactionHistoryResponseDto;
 import org.secretjuju.kono.entity.CashBalance;
 import org.secretjuju.kono.entity.CoinHolding;
-import org.secretjuju.kono.entity.CoinInfo;
 import org.secretjuju.kono.entity.CoinTransaction;
+import org.secretjuju.kono.entity.CoinUnits;
 import org.secretjuju.kono.entity.User;
 import org.secretjuju.kono.exception.PermissionDeniedException;
 import org.secretjuju.kono.exception.UserNotFoundException;
-import org.secretjuju.kono.repository.CoinRepository;
 import org.secretjuju.kono.repository.CoinTransactionRepository;
 import org.secretjuju.kono.repository.UserRepository;
 import org.springframework.stereotype.Service;
@@ -28,16 +29,31 @@ import lombok.RequiredArgsConstructor;
 public class WalletService {
 
 	private final CoinTransactionRepository coinTransactionRepository;
-	private final CoinRepository coinInfoRepository;
+	private final CoinCatalogService coinCatalogService;
 	private final UserService userService;
 	private final UserRepository userRepository;
+	private final LedgerWriter ledgerWriter;
 
 	@Transactional(readOnly = true)
 	public List<TransactionHistoryResponseDto> getTransactionHistory() {
 		User currentUser = userService.getCurrentUser();
+		// 아직 DB 에 저장되지 않은 거래를 먼저 읽는다 (그 사이 저장되면 DB 조회 결과에 포함된다)
+		List<LedgerWriter.LedgerEntry> pending = ledgerWriter.pendingFor(currentUser.getId());
 		List<CoinTransaction> transactions = coinTransactionRepository.findByUserOrderByCreatedAtDesc(currentUser);
 
-		return transactions.stream().map(this::convertToTransactionsResponse).collect(Collectors.toList());
+		List<TransactionHistoryResponseDto> history = transactions.stream().map(this::convertToTransactionsResponse)
+				.collect(Collectors.toList());
+		if (pending.isEmpty()) {
+			return history;
+		}
+		Set<Integer> storedIds = transactions.stream().map(CoinTransaction::getId).collect(Collectors.toSet());
+		for (LedgerWriter.LedgerEntry entry : pending) {
+			if (!storedIds.contains(entry.getId())) {
+				history.add(convertToTransactionsResponse(entry));
+			}
+		}
+		history.sort(Comparator.comparing(TransactionHistoryResponseDto::getCreatedAt).reversed());
+		return history;
 	}
 
 	@Transactional
@@ -89,32 +105,40 @@ public class WalletService {
 			return new CoinHoldingDetailResponseDto(false, 0);
 		}
 
-		Optional<CoinInfo> coinInfo = coinInfoRepository.findByTicker(ticker);
+		Optional<CoinCatalogService.CoinEntry> coin = coinCatalogService.findByTicker(ticker);
 
-		if (coinInfo.isEmpty()) {
+		if (coin.isEmpty()) {
 			return new CoinHoldingDetailResponseDto(false, 0);
 		}
 
-		double totalQuantity = currentUser.getCoinHoldings().stream()
-				.filter(h -> h.getCoinInfo().getId().equals(coinInfo.get().getId()))
-				.mapToDouble(CoinHolding::getHoldingQuantity).sum();
+		long totalUnits = currentUser.getCoinHoldings().stream()
+				.filter(h -> h.getCoinInfo().getId().equals(coin.get().getId()))
+				.mapToLong(CoinHolding::getHoldingUnits).sum();
 
-		if (totalQuantity == 0) {
+		if (totalUnits == 0) {
 			return new CoinHoldingDetailResponseDto(false, 0);
 		}
 
-		return new CoinHoldingDetailResponseDto(true, totalQuantity);
+		return new CoinHoldingDetailResponseDto(true, CoinUnits.toQuantity(totalUnits));
 	}
 
 	private TransactionHistoryResponseDto convertToTransactionsResponse(CoinTransaction transaction) {
 		return new TransactionHistoryResponseDto(transaction.getId(), transaction.getUser().getId(),
 				transaction.getCoinInfo().getId(), transaction.getCoinInfo().getKrCoinName(),
-				transaction.getCoinInfo().getTicker(), transaction.getOrderType(), transaction.getOrderQuantity(),
+				transaction.getCoinInfo().getTicker(), transaction.getOrderType(), CoinUnits.toQuantity(transaction.getOrderUnits()),
 				transaction.getOrderPrice(), transaction.getOrderAmount(), transaction.getCreatedAt());
 	}
 
+	private TransactionHistoryResponseDto convertToTransactionsResponse(LedgerWriter.LedgerEntry entry) {
+		Optional<CoinCatalogService.CoinEntry> coin = coinCatalogService.findById(entry.getCoinId());
+		return new TransactionHistoryResponseDto(entry.getId(), entry.getUserId(), entry.getCoinId(),
+				coin.map(CoinCatalogService.CoinEntry::getKrCoinName).orElse(null),
+				coin.map(CoinCatalogService.CoinEntry::getTicker).orElse(null), entry.getOrderType(),
+				entry.getOrderQuantity(), entry.getOrderPrice(), entry.getOrderAmount(), entry.getCreatedAt());
+	}
+
 	private CoinHoldingResponseDto convertToCoinHoldingResponse(CoinHolding holding) {
 		return new CoinHoldingResponseDto(holding.getCoinInfo().getTicker(), holding.getCoinInfo().getKrCoinName(),
-				holding.getHoldingQuantity(), holding.getHoldingPrice());
+				CoinUnits.toQuantity(holding.getHoldingUnits()), (double) holding.getHoldingCost());
 	}
 }
@@ -0,0 +1,338 @@
+package org.secretjuju.kono.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.secretjuju.kono.config.RateLimitPolicy;
+import org.secretjuju.kono.dto.request.CoinSellBuyRequestDto;
+import org.secretjuju.kono.entity.CoinUnits;
+import org.secretjuju.kono.exception.CustomException;
+import org.secretjuju.kono.service.CoinCatalogService;
+import org.secretjuju.kono.service.CoinService;
+import org.secretjuju.kono.service.LedgerWriter;
+import org.secretjuju.kono.service.RateLimitService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+/**
+ * 주문 처리량/경합 벤치마크. 내장 MariaDB 와 업비트 스텁 위에서 주문을 동시에 보내고 지연 시간 분포, 처리량, InnoDB 락 대기/교착, 잔액 보존 위반을 보고한다.
+ *
+ * <p>
+ * 기본 test 작업에서는 제외되며 {@code ./gradlew benchmark} 로 실행한다. 옵션은 시스템 프로퍼티로 준다.
+ * <ul>
+ * <li>bench.target: service (CoinService 직접 호출) | http (MockMvc 로 /api/v1/coins/orders, 보안 필터와 인터셉터 포함)</li>
+ * <li>bench.workload: many-users | hot-users | same-user</li>
+ * <li>bench.threads, bench.orders, bench.warmup-orders, bench.users, bench.hot-users, bench.sell-ratio,
+ * bench.upbit-delay-ms</li>
+ * <li>bench.execution-mode, bench.pricing-mode: order.execution.mode / order.pricing.mode 를 덮어쓴다</li>
+ * </ul>
+ * 요청 한도는 벤치마크 동안 끈다 (세션당 한도가 주문 경로 대신 측정되지 않도록).
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("benchmark")
+class OrderBenchmarkTest {
+
+	private static final long INITIAL_CASH = 100_000_000L;
+	// 티커, 시세, 초기 보유 수량, 매도 한 건 수량 (모두 한 건에 약 1만원)
+	private static final Object[][] COINS = {{"BTC", "비트코인", 100_000_000.0, 1.0, 0.0001},
+			{"ETH", "이더리움", 5_000_000.0, 20.0, 0.002}, {"XRP", "리플", 1_000.0, 100_000.0, 10.0}};
+	private static final long BUY_AMOUNT = 10_000L;
+
+	private static final DB DATABASE;
+	private static final String DATABASE_URL;
+	private static final StubUpbitServer UPBIT;
+
+	static {
+		try {
+			DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+			config.setPort(0);
+			DATABASE = DB.newEmbeddedDB(config.build());
+			DATABASE.start();
+			DATABASE.createDB("kono_bench");
+			DATABASE_URL = config.getURL("kono_bench") + "?rewriteBatchedStatements=true";
+
+			Map<String, Double> prices = new HashMap<>();
+			for (Object[] coin : COINS) {
+				prices.put("KRW-" + coin[0], (Double) coin[2]);
+			}
+			UPBIT = new StubUpbitServer(prices, Long.getLong("bench.upbit-delay-ms", 5));
+		} catch (Exception e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> DATABASE_URL);
+		registry.add("spring.datasource.username", () -> "root");
+		registry.add("spring.datasource.password", () -> "");
+		registry.add("spring.datasource.hikari.maximum-pool-size", () -> Integer.getInteger("bench.pool-size", 20));
+		registry.add("upbit.api.url", UPBIT::baseUrl);
+		registry.add("order.execution.mode", () -> System.getProperty("bench.execution-mode", "sequenced"));
+		registry.add("order.pricing.mode", () -> System.getProperty("bench.pricing-mode", "cached"));
+	}
+
+	@TestConfiguration
+	static class UnlimitedRateLimit {
+		@Bean
+		@Primary
+		RateLimitService unlimitedRateLimitService() {
+			return new RateLimitService() {
+				@Override
+				public boolean tryConsume(String key, RateLimitPolicy policy) {
+					return true;
+				}
+			};
+		}
+	}
+
+	@AfterAll
+	static void stop() throws Exception {
+		UPBIT.close();
+		DATABASE.stop();
+	}
+
+	@Autowired
+	private CoinService coinService;
+	@Autowired
+	private CoinCatalogService coinCatalogService;
+	@Autowired
+	private LedgerWriter ledgerWriter;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void testOrderThroughputAndConservation() throws Exception {
+		String target = System.getProperty("bench.target", "service");
+		OrderLoadHarness.Workload workload = OrderLoadHarness.Workload
+				.of(System.getProperty("bench.workload", "many-users"));
+		int threads = Integer.getInteger("bench.threads", 32);
+		int users = workload == OrderLoadHarness.Workload.SAME_USER ? 1 : Integer.getInteger("bench.users", 1000);
+		int orders = Integer.getInteger("bench.orders", 20_000);
+		double sellRatio = Double.parseDouble(System.getProperty("bench.sell-ratio", "0.5"));
+
+		List<Integer> userIds = seed(users);
+		OrderLoadHarness harness = new OrderLoadHarness(threads, users, Integer.getInteger("bench.hot-users", 3),
+				workload);
+		OrderLoadHarness.OrderCall call = "http".equalsIgnoreCase(target)
+				? httpCall(users, sellRatio)
+				: serviceCall(sellRatio);
+
+		harness.run(Integer.getInteger("bench.warmup-orders", 1_000), call);
+		Map<String, Long> lockStatsBefore = innodbStatus();
+		OrderLoadHarness.Report report = harness.run(orders, call);
+		Map<String, Long> lockStatsAfter = innodbStatus();
+
+		awaitLedgerDrained(userIds);
+		List<String> violations = checkConservation(userIds);
+
+		System.out.printf("[benchmark] target=%s, workload=%s, threads=%d, users=%d%n", target, workload, threads,
+				users);
+		System.out.println("[benchmark] " + report);
+		lockStatsAfter.forEach((name, value) -> System.out.printf("[benchmark] %s=%d%n", name,
+				value - lockStatsBefore.getOrDefault(name, 0L)));
+		System.out.println("[benchmark] invariant violations=" + violations.size());
+		violations.stream().limit(20).forEach(violation -> System.out.println("[benchmark]   " + violation));
+
+		assertTrue(violations.isEmpty(), "잔액/보유량 보존 위반: " + violations.size() + "건");
+	}
+
+	// 코인과 사용자(현금, 코인별 보유량)를 만든다
+	private List<Integer> seed(int users) {
+		jdbcTemplate.update("DELETE FROM coin_transaction");
+		jdbcTemplate.update("DELETE FROM coin_holdings");
+		jdbcTemplate.update("DELETE FROM cash_balance");
+		jdbcTemplate.update("DELETE FROM `user`");
+		jdbcTemplate.update("DELETE FROM coin_info");
+		for (Object[] coin : COINS) {
+			jdbcTemplate.update("INSERT INTO coin_info (ticker, kr_coin_name) VALUES (?, ?)", coin[0], coin[1]);
+		}
+		coinCatalogService.reload();
+
+		List<Integer> userIds = new ArrayList<>(users);
+		for (int i = 0; i < users; i++) {
+			jdbcTemplate.update("INSERT INTO `user` (created_at, nickname, kakao_id, role) VALUES (?, ?, ?, 'USER')",
+					ZonedDateTime.now().toLocalDateTime(), "bench-" + i, kakaoId(i));
+			Integer userId = jdbcTemplate.queryForObject("SELECT id FROM `user` WHERE kakao_id = ?", Integer.class,
+					kakaoId(i));
+			userIds.add(userId);
+			jdbcTemplate.update("INSERT INTO cash_balance (user_id, balance, version) VALUES (?, ?, 0)", userId,
+					INITIAL_CASH);
+			for (Object[] coin : COINS) {
+				double quantity = (Double) coin[3];
+				jdbcTemplate.update(
+						"INSERT INTO coin_holdings (user_id, coin_id, holding_quantity, holding_price, version) "
+								+ "SELECT ?, id, ?, ?, 0 FROM coin_info WHERE ticker = ?",
+						userId, quantity, quantity * (Double) coin[2], coin[0]);
+			}
+		}
+		return userIds;
+	}
+
+	private OrderLoadHarness.OrderCall serviceCall(double sellRatio) {
+		return (user, sequence) -> {
+			OAuth2User principal = principal(user);
+			SecurityContextHolder.getContext().setAuthentication(
+					new OAuth2AuthenticationToken(principal, principal.getAuthorities(), "kakao"));
+			try {
+				coinService.createCoinOrder(order(sequence, sellRatio));
+				return "ok";
+			} catch (CustomException e) {
+				return String.valueOf(e.getStatus());
+			} finally {
+				SecurityContextHolder.clearContext();
+			}
+		};
+	}
+
+	private OrderLoadHarness.OrderCall httpCall(int users, double sellRatio) {
+		// 사용자마다 로그인된 세션 하나 (인터셉터와 보안 필터가 세션의 인증 정보를 읽는다)
+		MockHttpSession[] sessions = new MockHttpSession[users];
+		for (int i = 0; i < users; i++) {
+			OAuth2User principal = principal(i);
+			sessions[i] = new MockHttpSession();
+			sessions[i].setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+					new SecurityContextImpl(
+							new OAuth2AuthenticationToken(principal, principal.getAuthorities(), "kakao")));
+		}
+		return (user, sequence) -> {
+			int status = mockMvc.perform(post("/api/v1/coins/orders").session(sessions[user])
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(objectMapper.writeValueAsString(order(sequence, sellRatio)))).andReturn().getResponse()
+					.getStatus();
+			return status == 200 ? "ok" : String.valueOf(status);
+		};
+	}
+
+	private CoinSellBuyRequestDto order(int sequence, double sellRatio) {
+		Object[] coin = COINS[sequence % COINS.length];
+		CoinSellBuyRequestDto request = new CoinSellBuyRequestDto();
+		request.setTicker((String) coin[0]);
+		// 순번으로 매수/매도를 정해 같은 사용자에게 두 방향 주문이 섞이도록 한다
+		if ((sequence * 0.6180339887 % 1.0) < sellRatio) {
+			request.setOrderType("sell");
+			request.setOrderQuantity((Double) coin[4]);
+		} else {
+			request.setOrderType("buy");
+			request.setOrderAmount(BUY_AMOUNT);
+		}
+		return request;
+	}
+
+	private OAuth2User principal(int user) {
+		return new DefaultOAuth2User(List.of(new SimpleGrantedAuthority("ROLE_USER")),
+				Map.of("id", kakaoId(user)), "id");
+	}
+
+	private long kakaoId(int user) {
+		return 1_000_000L + user;
+	}
+
+	private Map<String, Long> innodbStatus() {
+		Map<String, Long> status = new LinkedHashMap<>();
+		jdbcTemplate.query(
+				"SHOW GLOBAL STATUS WHERE Variable_name IN ('Innodb_row_lock_waits', 'Innodb_row_lock_time', 'Innodb_deadlocks')",
+				resultSet -> {
+					status.put(resultSet.getString(1), resultSet.getLong(2));
+				});
+		return status;
+	}
+
+	private void awaitLedgerDrained(List<Integer> userIds) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 30_000;
+		for (Integer userId : userIds) {
+			while (!ledgerWriter.pendingFor(userId).isEmpty()) {
+				if (System.currentTimeMillis() > deadline) {
+					throw new IllegalStateException("거래 내역이 30초 안에 저장되지 않았습니다.");
+				}
+				Thread.sleep(10);
+			}
+		}
+	}
+
+	/**
+	 * 사용자마다 초기값 + 거래 내역 합계가 현재 현금/보유 수량과 같은지 확인한다. 갱신 유실(동시 주문이 같은 잔액을 읽고 덮어씀)이 있으면 어긋난다.
+	 */
+	private List<String> checkConservation(List<Integer> userIds) {
+		Map<Integer, Long> expectedCash = new HashMap<>();
+		Map<String, Long> expectedUnits = new HashMap<>();
+		for (Integer userId : userIds) {
+			expectedCash.put(userId, INITIAL_CASH);
+			for (Object[] coin : COINS) {
+				expectedUnits.put(userId + ":" + coin[0], CoinUnits.toUnits((Double) coin[3]));
+			}
+		}
+		jdbcTemplate.query("SELECT t.user_id, c.ticker, t.order_type, SUM(t.order_amount), "
+				+ "SUM(ROUND(t.order_quantity * 100000000)) FROM coin_transaction t "
+				+ "JOIN coin_info c ON c.id = t.coin_info_id GROUP BY t.user_id, c.ticker, t.order_type", row -> {
+					int userId = row.getInt(1);
+					long sign = "sell".equalsIgnoreCase(row.getString(3)) ? 1 : -1;
+					expectedCash.merge(userId, sign * row.getLong(4), Long::sum);
+					expectedUnits.merge(userId + ":" + row.getString(2), -sign * row.getLong(5), Long::sum);
+				});
+
+		Map<Integer, Long> actualCash = new HashMap<>();
+		jdbcTemplate.query("SELECT user_id, balance FROM cash_balance", row -> {
+			actualCash.put(row.getInt(1), row.getLong(2));
+		});
+		Map<String, Long> actualUnits = new HashMap<>();
+		jdbcTemplate.query("SELECT h.user_id, c.ticker, ROUND(h.holding_quantity * 100000000) FROM coin_holdings h "
+				+ "JOIN coin_info c ON c.id = h.coin_id", row -> {
+					actualUnits.merge(row.getInt(1) + ":" + row.getString(2), row.getLong(3), Long::sum);
+				});
+
+		List<String> violations = new ArrayList<>();
+		expectedCash.forEach((userId, expected) -> {
+			long actual = actualCash.getOrDefault(userId, 0L);
+			if (actual != expected || actual < 0) {
+				violations.add("cash user=" + userId + " expected=" + expected + " actual=" + actual);
+			}
+		});
+		expectedUnits.forEach((key, expected) -> {
+			long actual = actualUnits.getOrDefault(key, 0L);
+			if (actual != expected || actual < 0) {
+				violations.add("units " + key + " expected=" + expected + " actual=" + actual);
+			}
+		});
+		return violations;
+	}
+}
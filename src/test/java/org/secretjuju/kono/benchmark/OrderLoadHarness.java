@@ -0,0 +1,162 @@
+package org.secretjuju.kono.benchmark;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 주문 부하 생성기. threads 개의 스레드가 전체 orders 건을 나눠 보내고, 주문마다 지연 시간과 결과(성공/상태 코드/예외)를 기록한다.
+ */
+final class OrderLoadHarness {
+
+	// 사용자 선택 방식
+	enum Workload {
+		// 모든 사용자에게 고르게 분산
+		MANY_USERS,
+		// 주문의 90% 가 소수의 인기 사용자에게 몰림
+		HOT_USERS,
+		// 모든 스레드가 한 사용자에게 매수/매도를 번갈아 보냄
+		SAME_USER;
+
+		static Workload of(String name) {
+			return valueOf(name.trim().toUpperCase().replace('-', '_'));
+		}
+
+		int pickUser(ThreadLocalRandom random, int users, int hotUsers) {
+			switch (this) {
+				case HOT_USERS :
+					return random.nextInt(10) < 9 ? random.nextInt(hotUsers) : random.nextInt(users);
+				case SAME_USER :
+					return 0;
+				default :
+					return random.nextInt(users);
+			}
+		}
+	}
+
+	// 주문 한 건 실행. 결과 분류(예: "ok", "403", "error:DeadlockLoserDataAccessException")를 돌려준다
+	@FunctionalInterface
+	interface OrderCall {
+		String execute(int user, int sequence) throws Exception;
+	}
+
+	static final class Report {
+		private final long orders;
+		private final long elapsedNanos;
+		private final long[] sortedLatencies;
+		private final Map<String, Long> outcomes;
+
+		private Report(long orders, long elapsedNanos, long[] sortedLatencies, Map<String, Long> outcomes) {
+			this.orders = orders;
+			this.elapsedNanos = elapsedNanos;
+			this.sortedLatencies = sortedLatencies;
+			this.outcomes = outcomes;
+		}
+
+		double throughput() {
+			return orders / (elapsedNanos / 1e9);
+		}
+
+		double percentileMillis(double percentile) {
+			if (sortedLatencies.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+			return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1e6;
+		}
+
+		Map<String, Long> outcomes() {
+			return outcomes;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("orders=%d, throughput=%.1f/s, p50=%.2fms, p99=%.2fms, p999=%.2fms, max=%.2fms, outcomes=%s",
+					orders, throughput(), percentileMillis(50), percentileMillis(99), percentileMillis(99.9),
+					percentileMillis(100), outcomes);
+		}
+	}
+
+	private final int threads;
+	private final int users;
+	private final int hotUsers;
+	private final Workload workload;
+
+	OrderLoadHarness(int threads, int users, int hotUsers, Workload workload) {
+		this.threads = threads;
+		this.users = users;
+		this.hotUsers = Math.min(hotUsers, users);
+		this.workload = workload;
+	}
+
+	Report run(int orders, OrderCall call) throws InterruptedException {
+		AtomicInteger next = new AtomicInteger();
+		long[][] latencies = new long[threads][];
+		int[] counts = new int[threads];
+		ConcurrentHashMap<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+
+		for (int t = 0; t < threads; t++) {
+			int worker = t;
+			latencies[t] = new long[orders / threads + 1];
+			workers[t] = new Thread(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				awaitQuietly(start);
+				int sequence;
+				while ((sequence = next.getAndIncrement()) < orders) {
+					int user = workload.pickUser(random, users, hotUsers);
+					long startedAt = System.nanoTime();
+					String outcome;
+					try {
+						outcome = call.execute(user, sequence);
+					} catch (Exception e) {
+						outcome = "error:" + e.getClass().getSimpleName();
+					}
+					long latency = System.nanoTime() - startedAt;
+					if (counts[worker] == latencies[worker].length) {
+						latencies[worker] = Arrays.copyOf(latencies[worker], counts[worker] * 2);
+					}
+					latencies[worker][counts[worker]++] = latency;
+					outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+				}
+			}, "bench-order-" + t);
+			workers[t].start();
+		}
+
+		long startedAt = System.nanoTime();
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		long elapsed = System.nanoTime() - startedAt;
+
+		int total = 0;
+		for (int count : counts) {
+			total += count;
+		}
+		long[] merged = new long[total];
+		int offset = 0;
+		for (int t = 0; t < threads; t++) {
+			System.arraycopy(latencies[t], 0, merged, offset, counts[t]);
+			offset += counts[t];
+		}
+		Arrays.sort(merged);
+		Map<String, Long> summary = new TreeMap<>();
+		outcomes.forEach((outcome, count) -> summary.put(outcome, count.sum()));
+		return new Report(total, elapsed, merged, summary);
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package org.secretjuju.kono.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 업비트 시세 API(/v1/ticker) 스텁. 고정 시세를 돌려주며, 응답 전에 delayMillis 만큼 기다려 네트워크 지연을 흉내 낸다.
+ */
+final class StubUpbitServer implements AutoCloseable {
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final Map<String, Double> prices;
+	private final long delayMillis;
+
+	StubUpbitServer(Map<String, Double> prices, long delayMillis) throws IOException {
+		this.prices = prices;
+		this.delayMillis = delayMillis;
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		this.executor = Executors.newFixedThreadPool(16);
+		server.createContext("/v1/ticker", this::ticker);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	String baseUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+	}
+
+	private void ticker(HttpExchange exchange) throws IOException {
+		String query = exchange.getRequestURI().getQuery();
+		String markets = query != null && query.startsWith("markets=") ? query.substring("markets=".length()) : "";
+		long now = System.currentTimeMillis();
+		StringBuilder body = new StringBuilder("[");
+		for (String market : markets.split(",")) {
+			Double price = prices.get(market);
+			if (price == null) {
+				continue;
+			}
+			if (body.length() > 1) {
+				body.append(',');
+			}
+			body.append("{\"market\":\"").append(market).append("\",\"trade_price\":").append(price)
+					.append(",\"timestamp\":").append(now).append('}');
+		}
+		body.append(']');
+
+		if (delayMillis > 0) {
+			try {
+				Thread.sleep(delayMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,46 @@
+package org.secretjuju.kono.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class CoinUnitsTest {
+
+	@Test
+	void testQuantityRoundTripIsExact() {
+		long units = CoinUnits.toUnits(0.12345678);
+
+		assertEquals(12345678L, units);
+		assertEquals(units, CoinUnits.toUnits(CoinUnits.toQuantity(units)));
+		// 단위 미만은 반올림
+		assertEquals(1L, CoinUnits.toUnits(0.000000009));
+	}
+
+	@Test
+	void testRepeatedPartialSellsLeaveNoDust() {
+		long holding = CoinUnits.toUnits(1.0);
+		long sell = CoinUnits.toUnits(0.1);
+		for (int i = 0; i < 10; i++) {
+			holding -= sell;
+		}
+
+		assertEquals(0L, holding);
+	}
+
+	@Test
+	void testValueAndUnitsFor() {
+		assertEquals(50_000L, CoinUnits.value(CoinUnits.toUnits(0.5), 100_000));
+		// 금액으로 살 수 있는 수량은 단위 미만 내림
+		assertEquals(33_333_333L, CoinUnits.unitsFor(10_000, 30_000));
+		assertEquals(10_000L, CoinUnits.value(CoinUnits.unitsFor(10_000, 30_000), 30_000));
+	}
+
+	@Test
+	void testValueAndUnitsForAreExactInDecimal() {
+		// 0.00000003 BTC x 5천만원 = 1.5원 -> 2원 (double 곱셈은 1.4999... 로 1원)
+		assertEquals(2L, CoinUnits.value(3, 50_000_000));
+		// 7000원 / 0.07원 = 10만 개 정확히 (double 나눗셈은 단위 하나 모자람)
+		assertEquals(CoinUnits.toUnits(100_000), CoinUnits.unitsFor(7_000, 0.07));
+		assertEquals(7_000L, CoinUnits.value(CoinUnits.unitsFor(7_000, 0.07), 0.07));
+	}
+}
@@ -0,0 +1,236 @@
+package org.secretjuju.kono.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.secretjuju.kono.entity.CoinUnits;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 내장 MariaDB 위에서 거래 내역 재생, 스냅샷 이후 재생, 차이 보고/복구를 처음부터 끝까지 확인한다.
+ */
+class AccountRebuildServiceTest {
+
+	private static final int BTC = 1;
+	private static final int ETH = 2;
+
+	private static DB database;
+	private static DriverManagerDataSource dataSource;
+	private static JdbcTemplate jdbcTemplate;
+
+	private LedgerWriter ledgerWriter;
+	private AccountRebuildService service;
+	private int nextTransactionId = 1;
+
+	@BeforeAll
+	static void startDatabase() throws Exception {
+		DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+		config.setPort(0);
+		database = DB.newEmbeddedDB(config.build());
+		database.start();
+		database.createDB("kono_rebuild");
+		dataSource = new DriverManagerDataSource(config.getURL("kono_rebuild"), "root", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE cash_balance (id INT AUTO_INCREMENT PRIMARY KEY, user_id INT NOT NULL UNIQUE, "
+				+ "balance BIGINT UNSIGNED NOT NULL, version BIGINT NOT NULL DEFAULT 0)");
+		jdbcTemplate.execute("CREATE TABLE coin_holdings (id INT AUTO_INCREMENT PRIMARY KEY, user_id INT NOT NULL, "
+				+ "coin_id INT NOT NULL, holding_quantity DOUBLE NOT NULL, holding_price DOUBLE NOT NULL, "
+				+ "version BIGINT NOT NULL DEFAULT 0)");
+		jdbcTemplate.execute("CREATE TABLE coin_transaction (id INT PRIMARY KEY, user_id INT NOT NULL, "
+				+ "coin_info_id INT NOT NULL, order_type VARCHAR(20) NOT NULL, order_quantity DOUBLE NOT NULL, "
+				+ "order_price DOUBLE NOT NULL, order_amount BIGINT NOT NULL, created_at DATETIME(6) NOT NULL, "
+				+ "INDEX idx_coin_transaction_user_created (user_id, created_at, id))");
+		jdbcTemplate.execute("CREATE TABLE account_snapshot (user_id INT PRIMARY KEY, cash_balance BIGINT NOT NULL, "
+				+ "holdings BLOB NOT NULL, covered_until DATETIME(6) NOT NULL, transaction_count BIGINT NOT NULL, "
+				+ "updated_at DATETIME(6) NOT NULL)");
+	}
+
+	@AfterAll
+	static void stopDatabase() throws Exception {
+		database.stop();
+	}
+
+	@BeforeEach
+	void setUp() {
+		for (String table : List.of("cash_balance", "coin_holdings", "coin_transaction", "account_snapshot")) {
+			jdbcTemplate.execute("TRUNCATE TABLE " + table);
+		}
+		ledgerWriter = mock(LedgerWriter.class);
+		service = new AccountRebuildService(jdbcTemplate, dataSource, new DataSourceTransactionManager(dataSource),
+				ledgerWriter, new SimpleMeterRegistry(), 2, 60_000, 500, 100);
+	}
+
+	@Test
+	void testReplayMatchesLiveAndSnapshotLimitsTail() {
+		// 사용자 1: BTC 0.5개 매수 후 0.2개 매도, 사용자 2: ETH 매수만
+		transaction(1, BTC, "buy", 0.5, 20_000, 10_000, hoursAgo(2));
+		transaction(1, BTC, "sell", 0.2, 25_000, 5_000, hoursAgo(1));
+		transaction(2, ETH, "buy", 2.0, 1_000, 2_000, hoursAgo(1));
+		live(1, AccountState.INITIAL_CASH - 10_000 + 5_000);
+		holding(1, BTC, 0.3, 6_000);
+		live(2, AccountState.INITIAL_CASH - 2_000);
+		holding(2, ETH, 2.0, 2_000);
+
+		AccountRebuildService.Report first = service.rebuild(false);
+		assertEquals(2, first.getUsersChecked());
+		assertEquals(3, first.getTransactionsReplayed());
+		assertEquals(2, first.getSnapshotsWritten());
+		assertEquals(0, first.getDriftedUsers());
+
+		// 스냅샷 이후 거래가 없으면 재생하지 않는다
+		AccountRebuildService.Report second = service.rebuild(false);
+		assertEquals(0, second.getTransactionsReplayed());
+		assertEquals(0, second.getDriftedUsers());
+
+		// 스냅샷 이후 거래만 재생해 스냅샷 상태에 더한다
+		transaction(2, ETH, "buy", 1.0, 1_000, 1_000, Timestamp.from(Instant.now().minusSeconds(30)));
+		jdbcTemplate.update("UPDATE cash_balance SET balance = balance - 1000 WHERE user_id = 2");
+		jdbcTemplate.update("UPDATE coin_holdings SET holding_quantity = 3.0, holding_price = 3000 WHERE user_id = 2");
+		AccountRebuildService.Report third = service.rebuild(false);
+		assertEquals(1, third.getTransactionsReplayed());
+		assertEquals(0, third.getDriftedUsers());
+	}
+
+	@Test
+	void testDriftReportedThenRestored() {
+		transaction(3, BTC, "buy", 0.5, 20_000, 10_000, hoursAgo(1));
+		// 현금이 5천원 많고 BTC 보유 행이 사라진 계좌
+		live(3, AccountState.INITIAL_CASH - 10_000 + 5_000);
+
+		AccountRebuildService.Report audit = service.rebuild(false);
+		assertEquals(1, audit.getDriftedUsers());
+		assertEquals(0, audit.getRestoredUsers());
+		AccountRebuildService.Drift cash = audit.getDrifts().stream().filter(drift -> drift.getField().equals("cash"))
+				.findFirst().orElseThrow();
+		assertEquals(AccountState.INITIAL_CASH - 10_000, cash.getExpected());
+		assertEquals(AccountState.INITIAL_CASH - 5_000, cash.getActual());
+		assertEquals(AccountState.INITIAL_CASH - 5_000, balance(3), "감사만 하면 바꾸지 않음");
+
+		AccountRebuildService.Report restored = service.rebuild(true);
+		assertEquals(1, restored.getRestoredUsers());
+		assertEquals(AccountState.INITIAL_CASH - 10_000, balance(3));
+		assertEquals(CoinUnits.toUnits(0.5), CoinUnits.toUnits(jdbcTemplate.queryForObject(
+				"SELECT holding_quantity FROM coin_holdings WHERE user_id = 3 AND coin_id = ?", Double.class, BTC)));
+
+		assertEquals(0, service.rebuild(false).getDriftedUsers());
+	}
+
+	@Test
+	void testRecentActivityIsReportOnly() {
+		transaction(4, BTC, "buy", 0.5, 20_000, 10_000, hoursAgo(1));
+		// 스냅샷 기준 시각(settle-ms) 이후 거래
+		transaction(4, BTC, "buy", 0.1, 20_000, 2_000, Timestamp.from(Instant.now()));
+		live(4, AccountState.INITIAL_CASH);
+
+		AccountRebuildService.Report report = service.rebuild(true);
+		assertEquals(1, report.getDriftedUsers());
+		assertEquals(0, report.getRestoredUsers());
+		assertEquals(1, report.getRestoreSkippedUsers());
+		assertEquals(AccountState.INITIAL_CASH, balance(4));
+	}
+
+	@Test
+	void testPendingLedgerRecordsAreReplayedAndBlockRestore() {
+		transaction(5, BTC, "buy", 0.5, 20_000, 10_000, hoursAgo(1));
+		// 커밋됐지만 아직 coin_transaction 에 저장되지 않은 매수
+		LedgerWriter.LedgerEntry pending = mock(LedgerWriter.LedgerEntry.class);
+		when(pending.getId()).thenReturn(999);
+		when(pending.getCoinId()).thenReturn(ETH);
+		when(pending.getOrderType()).thenReturn("buy");
+		when(pending.getOrderUnits()).thenReturn(CoinUnits.toUnits(1.0));
+		when(pending.getOrderPrice()).thenReturn(3_000.0);
+		when(pending.getOrderAmount()).thenReturn(3_000L);
+		when(ledgerWriter.pendingFor(5)).thenReturn(List.of(pending));
+		live(5, AccountState.INITIAL_CASH - 13_000);
+		holding(5, BTC, 0.5, 10_000);
+		holding(5, ETH, 1.0, 3_000);
+
+		AccountRebuildService.Report report = service.rebuild(true);
+		assertEquals(0, report.getDriftedUsers());
+
+		// 저장되지 않은 기록이 남아 있는 동안은 차이가 있어도 복구하지 않음
+		jdbcTemplate.update("UPDATE cash_balance SET balance = balance + 1000 WHERE user_id = 5");
+		report = service.rebuild(true);
+		assertEquals(1, report.getDriftedUsers());
+		assertEquals(1, report.getRestoreSkippedUsers());
+		assertEquals(AccountState.INITIAL_CASH - 12_000, balance(5));
+	}
+
+	@Test
+	void testSnapshotStopsBeforeUnstoredLedgerRecord() {
+		transaction(6, BTC, "buy", 0.5, 20_000, 10_000, hoursAgo(2));
+		// 한 시간 전에 체결됐지만 아직 coin_transaction 에 저장되지 않은 매수
+		Timestamp pendingAt = hoursAgo(1);
+		LedgerWriter.LedgerEntry pending = mock(LedgerWriter.LedgerEntry.class);
+		when(pending.getId()).thenReturn(998);
+		when(pending.getCoinId()).thenReturn(BTC);
+		when(pending.getOrderType()).thenReturn("buy");
+		when(pending.getOrderUnits()).thenReturn(CoinUnits.toUnits(0.1));
+		when(pending.getOrderPrice()).thenReturn(20_000.0);
+		when(pending.getOrderAmount()).thenReturn(2_000L);
+		when(ledgerWriter.pendingFor(6)).thenReturn(List.of(pending));
+		when(ledgerWriter.oldestPendingAt())
+				.thenReturn(Optional.of(pendingAt.toInstant().atZone(ZoneId.of("Asia/Seoul"))));
+		live(6, AccountState.INITIAL_CASH - 12_000);
+		holding(6, BTC, 0.6, 12_000);
+
+		assertEquals(0, service.rebuild(false).getDriftedUsers());
+		Timestamp coveredUntil = jdbcTemplate.queryForObject(
+				"SELECT covered_until FROM account_snapshot WHERE user_id = 6", Timestamp.class);
+		assertTrue(!coveredUntil.after(pendingAt), "스냅샷이 저장되지 않은 거래를 넘지 않음");
+
+		// 릴레이가 저장을 마친 뒤: 스냅샷 이후 거래로 재생되어 차이도 복구도 없다
+		jdbcTemplate.update("INSERT INTO coin_transaction (id, user_id, coin_info_id, order_type, order_quantity, "
+				+ "order_price, order_amount, created_at) VALUES (998, 6, ?, 'buy', 0.1, 20000, 2000, ?)", BTC, pendingAt);
+		when(ledgerWriter.pendingFor(6)).thenReturn(List.of());
+		when(ledgerWriter.oldestPendingAt()).thenReturn(Optional.empty());
+		AccountRebuildService.Report report = service.rebuild(true);
+		assertEquals(1, report.getTransactionsReplayed());
+		assertEquals(0, report.getDriftedUsers());
+		assertEquals(0, report.getRestoredUsers());
+		assertEquals(AccountState.INITIAL_CASH - 12_000, balance(6));
+	}
+
+	private void transaction(int userId, int coinId, String orderType, double quantity, double price, long amount,
+			Timestamp createdAt) {
+		jdbcTemplate.update("INSERT INTO coin_transaction (id, user_id, coin_info_id, order_type, order_quantity, "
+				+ "order_price, order_amount, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", nextTransactionId++, userId,
+				coinId, orderType, quantity, price, amount, createdAt);
+	}
+
+	private void live(int userId, long cash) {
+		jdbcTemplate.update("INSERT INTO cash_balance (user_id, balance) VALUES (?, ?)", userId, cash);
+	}
+
+	private void holding(int userId, int coinId, double quantity, long cost) {
+		jdbcTemplate.update("INSERT INTO coin_holdings (user_id, coin_id, holding_quantity, holding_price) "
+				+ "VALUES (?, ?, ?, ?)", userId, coinId, quantity, (double) cost);
+	}
+
+	private long balance(int userId) {
+		return jdbcTemplate.queryForObject("SELECT balance FROM cash_balance WHERE user_id = ?", Long.class, userId);
+	}
+
+	private static Timestamp hoursAgo(int hours) {
+		return Timestamp.from(Instant.now().minus(hours, ChronoUnit.HOURS));
+	}
+}
@@ -0,0 +1,55 @@
+package org.secretjuju.kono.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+import org.secretjuju.kono.entity.CoinUnits;
+
+class AccountStateTest {
+
+	@Test
+	void testReplayBuyAndSell() {
+		AccountState state = AccountState.initial();
+		long units = CoinUnits.toUnits(0.5);
+
+		state.apply(1, "buy", units, 1000000.0, 500000L);
+		state.apply(1, "buy", units, 2000000.0, 1000000L);
+		// 절반 매도: 매수 금액도 절반만 남는다
+		state.apply(1, "sell", units, 3000000.0, 1500000L);
+
+		assertEquals(AccountState.INITIAL_CASH - 500000L - 1000000L + 1500000L, state.cash());
+		assertArrayEquals(new long[]{units, 750000L}, state.holdings().get(1));
+		assertEquals(3, state.transactions());
+		assertEquals(0, state.anomalies());
+
+		// 전량 매도하면 보유 목록에서 빠진다
+		state.apply(1, "sell", units, 3000000.0, 1500000L);
+		assertFalse(state.holdings().containsKey(1));
+	}
+
+	@Test
+	void testSellWithoutHoldingIsAnomaly() {
+		AccountState state = AccountState.initial();
+
+		state.apply(2, "sell", 100L, 1000.0, 5000L);
+
+		assertEquals(1, state.anomalies());
+		assertEquals(AccountState.INITIAL_CASH + 5000L, state.cash());
+	}
+
+	@Test
+	void testSnapshotRoundTrip() {
+		AccountState state = AccountState.initial();
+		state.apply(3, "buy", CoinUnits.toUnits(1.25), 8000.0, 10000L);
+		state.apply(7, "buy", CoinUnits.toUnits(0.001), 90000000.0, 90000L);
+
+		AccountState restored = AccountState.decode(state.cash(), state.encodeHoldings(), state.transactions());
+
+		assertEquals(state.cash(), restored.cash());
+		assertEquals(2, restored.transactions());
+		assertArrayEquals(state.holdings().get(3), restored.holdings().get(3));
+		assertArrayEquals(state.holdings().get(7), restored.holdings().get(7));
+	}
+}
@@ -0,0 +1,57 @@
+package org.secretjuju.kono.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.secretjuju.kono.dto.response.CandleResponseDto;
+
+class CandleAggregatorTest {
+
+	private static final long MINUTE = 60_000L;
+
+	@Test
+	void testFoldsTicksIntoOhlcv() {
+		CandleAggregator aggregator = new CandleAggregator(4, 10);
+
+		aggregator.onTick(0, 100.0, 1.0, 10 * MINUTE + 1_000);
+		aggregator.onTick(0, 120.0, 2.0, 10 * MINUTE + 2_000);
+		aggregator.onTick(0, 90.0, 1.0, 10 * MINUTE + 3_000);
+		aggregator.onTick(0, 110.0, 0.5, 11 * MINUTE);
+
+		List<CandleResponseDto> candles = aggregator.recent(0, "BTC", CandleInterval.ONE_MINUTE, 10);
+		assertEquals(2, candles.size());
+		assertEquals(11 * MINUTE, candles.get(0).getOpenTime());
+
+		CandleResponseDto first = candles.get(1);
+		assertEquals(10 * MINUTE, first.getOpenTime());
+		assertEquals(100.0, first.getOpen());
+		assertEquals(120.0, first.getHigh());
+		assertEquals(90.0, first.getLow());
+		assertEquals(90.0, first.getClose());
+		assertEquals(4.0, first.getVolume());
+
+		List<CandleResponseDto> fiveMinutes = aggregator.recent(0, "BTC", CandleInterval.FIVE_MINUTES, 10);
+		assertEquals(1, fiveMinutes.size());
+		assertEquals(110.0, fiveMinutes.get(0).getClose());
+	}
+
+	@Test
+	void testRingBufferKeepsLatestCandles() {
+		CandleAggregator aggregator = new CandleAggregator(4, 3);
+		for (int minute = 0; minute < 5; minute++) {
+			aggregator.onTick(1, 100.0 + minute, 1.0, minute * MINUTE);
+		}
+		// 이미 지난 캔들에 속하는 늦은 체결은 무시
+		aggregator.onTick(1, 1.0, 1.0, 2 * MINUTE);
+
+		List<CandleResponseDto> candles = aggregator.recent(1, "ETH", CandleInterval.ONE_MINUTE, 10);
+		assertEquals(3, candles.size());
+		assertEquals(4 * MINUTE, candles.get(0).getOpenTime());
+		assertEquals(2 * MINUTE, candles.get(2).getOpenTime());
+		assertEquals(102.0, candles.get(2).getLow());
+		assertTrue(aggregator.recent(2, "XRP", CandleInterval.ONE_DAY, 10).isEmpty());
+	}
+}
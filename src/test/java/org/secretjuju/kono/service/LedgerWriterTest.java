@@ -0,0 +1,245 @@
+package org.secretjuju.kono.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.secretjuju.kono.entity.IdBlock;
+import org.secretjuju.kono.entity.OrderOutbox;
+import org.secretjuju.kono.entity.OrderOutboxOffset;
+import org.secretjuju.kono.repository.CoinTransactionRepository;
+import org.secretjuju.kono.repository.IdBlockRepository;
+import org.secretjuju.kono.repository.OrderOutboxOffsetRepository;
+import org.secretjuju.kono.repository.OrderOutboxRepository;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LedgerWriterTest {
+
+	// DB 대신 쓰는 아웃박스 행, 아직 커밋되지 않은 행, 구독자별 위치, coin_transaction (ID -> 사용자 ID)
+	private final TreeMap<Long, OrderOutbox> outbox = new TreeMap<>();
+	private final Set<Long> uncommitted = ConcurrentHashMap.newKeySet();
+	private final Map<String, Long> offsets = new ConcurrentHashMap<>();
+	private final Map<Integer, Integer> coinTransactions = new ConcurrentHashMap<>();
+	private final AtomicBoolean failNextInsert = new AtomicBoolean();
+	private final IdBlock sequenceCounter = new IdBlock();
+	private long nextOutboxId = 1;
+	private OrderOutboxRepository outboxRepository;
+	private OrderOutboxOffsetRepository offsetRepository;
+	private IdBlockRepository idBlockRepository;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		outboxRepository = mock(OrderOutboxRepository.class);
+		when(outboxRepository.lockUnsequenced(anyInt())).thenAnswer(invocation -> outbox.values().stream()
+				.filter(row -> row.getRelaySeq() == null && !uncommitted.contains(row.getId())).map(OrderOutbox::getId)
+				.limit(invocation.<Integer>getArgument(0)).toList());
+		when(outboxRepository.assignSequence(anyLong(), anyLong(), anyList())).thenAnswer(invocation -> {
+			long base = invocation.getArgument(0);
+			long firstId = invocation.getArgument(1);
+			List<Long> ids = invocation.getArgument(2);
+			ids.forEach(id -> outbox.get(id).setRelaySeq(base + id - firstId));
+			return ids.size();
+		});
+		when(outboxRepository.findByRelaySeqGreaterThanOrderByRelaySeqAsc(anyLong(), any(Pageable.class)))
+				.thenAnswer(invocation -> {
+					long after = invocation.getArgument(0);
+					Pageable page = invocation.getArgument(1);
+					return outbox.values().stream().filter(row -> row.getRelaySeq() != null && row.getRelaySeq() > after)
+							.sorted(Comparator.comparing(OrderOutbox::getRelaySeq)).limit(page.getPageSize()).toList();
+				});
+		// 커밋된 행만 보인다
+		when(outboxRepository.findLedgerPending(anyInt(), anyLong())).thenAnswer(invocation -> {
+			int userId = invocation.getArgument(0);
+			long after = invocation.getArgument(1);
+			return outbox.values().stream()
+					.filter(row -> !uncommitted.contains(row.getId()) && row.getUserId() == userId
+							&& row.getTransactionId() != null && (row.getRelaySeq() == null || row.getRelaySeq() > after))
+					.toList();
+		});
+		when(outboxRepository.deleteUpTo(anyLong())).thenAnswer(invocation -> {
+			long upTo = invocation.getArgument(0);
+			int before = outbox.size();
+			outbox.values().removeIf(row -> row.getRelaySeq() != null && row.getRelaySeq() <= upTo);
+			return before - outbox.size();
+		});
+
+		offsetRepository = mock(OrderOutboxOffsetRepository.class);
+		when(offsetRepository.register(anyString()))
+				.thenAnswer(invocation -> offsets.putIfAbsent(invocation.getArgument(0), 0L) == null ? 1 : 0);
+		when(offsetRepository.lockLastSeq(anyString()))
+				.thenAnswer(invocation -> Optional.ofNullable(offsets.get(invocation.<String>getArgument(0))));
+		when(offsetRepository.advance(anyString(), anyLong(), any())).thenAnswer(invocation -> {
+			offsets.put(invocation.getArgument(0), invocation.getArgument(1));
+			return 1;
+		});
+		when(offsetRepository.findById(anyString()))
+				.thenAnswer(invocation -> Optional.ofNullable(offset(invocation.getArgument(0))));
+		when(offsetRepository.findMinLastSeq())
+				.thenAnswer(invocation -> offsets.values().stream().min(Long::compare).orElse(null));
+
+		sequenceCounter.setName(OrderOutboxRelay.SEQUENCE_NAME);
+		sequenceCounter.setNextId(1L);
+		idBlockRepository = mock(IdBlockRepository.class);
+		when(idBlockRepository.findByNameWithLock(OrderOutboxRelay.SEQUENCE_NAME))
+				.thenReturn(Optional.of(sequenceCounter));
+
+		// INSERT IGNORE: 이미 있는 ID 는 건너뛴다
+		jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+			if (failNextInsert.getAndSet(false)) {
+				throw new DataAccessResourceFailureException("연결 끊김");
+			}
+			List<Object[]> rows = invocation.getArgument(1);
+			int[] counts = new int[rows.size()];
+			for (int i = 0; i < rows.size(); i++) {
+				counts[i] = coinTransactions.putIfAbsent((Integer) rows.get(i)[0], (Integer) rows.get(i)[1]) == null ? 1 : 0;
+			}
+			return counts;
+		});
+	}
+
+	@Test
+	void testPendingRecordsVisibleUntilStored() {
+		OrderOutboxRelay relay = relay();
+		LedgerWriter ledgerWriter = ledgerWriter(relay);
+		commitOrder(1001, 7);
+		commitOrder(1002, 8);
+
+		// 커밋 직후: 아직 coin_transaction 에 없지만 조회에는 보인다
+		assertEquals(List.of(1001), ids(ledgerWriter.pendingFor(7)));
+		assertEquals(List.of(1002), ids(ledgerWriter.pendingFor(8)));
+		assertTrue(coinTransactions.isEmpty());
+
+		relay.relayOnce();
+		assertEquals(Map.of(1001, 7, 1002, 8), coinTransactions);
+		assertTrue(ledgerWriter.pendingFor(7).isEmpty());
+		assertTrue(ledgerWriter.pendingFor(8).isEmpty());
+		assertTrue(outbox.isEmpty());
+	}
+
+	@Test
+	void testFailedFlushIsReplayed() {
+		OrderOutboxRelay relay = relay();
+		LedgerWriter ledgerWriter = ledgerWriter(relay);
+		commitOrder(1001, 7);
+		failNextInsert.set(true);
+
+		relay.relayOnce();
+		assertTrue(coinTransactions.isEmpty());
+		assertEquals(List.of(1001), ids(ledgerWriter.pendingFor(7)));
+		assertEquals(1, outbox.size());
+
+		relay.relayOnce();
+		assertEquals(Map.of(1001, 7), coinTransactions);
+		assertTrue(ledgerWriter.pendingFor(7).isEmpty());
+	}
+
+	@Test
+	void testRestartReplaysWithoutDuplicates() {
+		OrderOutboxRelay relay = relay();
+		ledgerWriter(relay);
+		commitOrder(1001, 7);
+		relay.relayOnce();
+		commitOrder(1002, 7);
+		// 저장은 했지만 위치 갱신이 커밋되기 전에 종료된 경우
+		coinTransactions.put(1002, 7);
+
+		// 재기동: 메모리 상태 없이 DB 만으로 이어서 저장
+		OrderOutboxRelay restartedRelay = relay();
+		LedgerWriter restarted = ledgerWriter(restartedRelay);
+		commitOrder(1003, 7);
+		assertEquals(List.of(1002, 1003), ids(restarted.pendingFor(7)));
+
+		restartedRelay.relayOnce();
+		assertEquals(Map.of(1001, 7, 1002, 7, 1003, 7), coinTransactions);
+		assertTrue(restarted.pendingFor(7).isEmpty());
+	}
+
+	@Test
+	void testOutOfOrderCommitsAreAllStored() {
+		OrderOutboxRelay relay = relay();
+		LedgerWriter ledgerWriter = ledgerWriter(relay);
+		commitOrder(1001, 7);
+		commitOrder(1002, 7);
+		// 아웃박스 id 1 의 주문이 id 2 보다 늦게 커밋됨
+		uncommitted.add(1L);
+
+		relay.relayOnce();
+		assertEquals(Map.of(1002, 7), coinTransactions);
+		assertTrue(ledgerWriter.pendingFor(7).isEmpty());
+
+		uncommitted.clear();
+		assertEquals(List.of(1001), ids(ledgerWriter.pendingFor(7)));
+		relay.relayOnce();
+		assertEquals(Map.of(1001, 7, 1002, 7), coinTransactions);
+		assertTrue(ledgerWriter.pendingFor(7).isEmpty());
+		assertTrue(outbox.isEmpty());
+	}
+
+	private OrderOutboxRelay relay() {
+		return new OrderOutboxRelay(outboxRepository, offsetRepository, idBlockRepository,
+				mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), true, false, 500, 10);
+	}
+
+	private LedgerWriter ledgerWriter(OrderOutboxRelay relay) {
+		LedgerWriter ledgerWriter = new LedgerWriter(jdbcTemplate, idBlockRepository,
+				mock(CoinTransactionRepository.class), outboxRepository, offsetRepository, relay,
+				mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+		ledgerWriter.start();
+		return ledgerWriter;
+	}
+
+	// 주문 트랜잭션이 커밋한 아웃박스 행
+	private void commitOrder(int transactionId, int userId) {
+		OrderOutbox row = new OrderOutbox();
+		row.setId(nextOutboxId++);
+		row.setTransactionId(transactionId);
+		row.setUserId(userId);
+		row.setCoinId(1);
+		row.setOrderType("buy");
+		row.setOrderUnits(100_000_000L);
+		row.setOrderPrice(10000.0);
+		row.setOrderAmount(10000L);
+		row.setCreatedAt(ZonedDateTime.now());
+		outbox.put(row.getId(), row);
+	}
+
+	private OrderOutboxOffset offset(String name) {
+		Long lastSeq = offsets.get(name);
+		if (lastSeq == null) {
+			return null;
+		}
+		OrderOutboxOffset offset = new OrderOutboxOffset();
+		offset.setSubscriber(name);
+		offset.setLastSeq(lastSeq);
+		return offset;
+	}
+
+	private List<Integer> ids(List<LedgerWriter.LedgerEntry> entries) {
+		return entries.stream().map(LedgerWriter.LedgerEntry::getId).toList();
+	}
+}
@@ -0,0 +1,212 @@
+package org.secretjuju.kono.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.secretjuju.kono.dto.request.CoinSellBuyRequestDto;
+import org.secretjuju.kono.dto.response.CoinOrderResponseDto;
+import org.secretjuju.kono.exception.CustomException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrderIdempotencyServiceTest {
+
+	private static final String KEY = "order-1";
+	private static final String REDIS_KEY = "order:idempotency:42:" + KEY;
+
+	// Redis 대신 쓰는 메모리 저장소와 키별 만료 시간
+	private final Map<String, Object> redis = new ConcurrentHashMap<>();
+	private final Map<String, Duration> expiries = new ConcurrentHashMap<>();
+	private final AtomicInteger renewals = new AtomicInteger();
+	private RedisTemplate<String, Object> redisTemplate;
+	private UserService userService;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		redisTemplate = mock(RedisTemplate.class);
+		ValueOperations<String, Object> operations = mock(ValueOperations.class);
+		when(redisTemplate.opsForValue()).thenReturn(operations);
+		when(operations.setIfAbsent(anyString(), any(), any(Duration.class))).thenAnswer(invocation -> {
+			String key = invocation.getArgument(0);
+			if (redis.putIfAbsent(key, invocation.getArgument(1)) != null) {
+				return false;
+			}
+			expiries.put(key, invocation.getArgument(2));
+			return true;
+		});
+		when(operations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+		doAnswer(invocation -> {
+			redis.put(invocation.getArgument(0), invocation.getArgument(1));
+			expiries.put(invocation.getArgument(0), invocation.getArgument(2));
+			return null;
+		}).when(operations).set(anyString(), any(), any(Duration.class));
+		when(redisTemplate.expire(anyString(), any(Duration.class))).thenAnswer(invocation -> {
+			renewals.incrementAndGet();
+			expiries.put(invocation.getArgument(0), invocation.getArgument(1));
+			return redis.containsKey(invocation.<String>getArgument(0));
+		});
+		when(redisTemplate.delete(anyString()))
+				.thenAnswer(invocation -> redis.remove(invocation.<String>getArgument(0)) != null);
+
+		userService = mock(UserService.class);
+		when(userService.getCurrentKakaoId()).thenReturn(42L);
+	}
+
+	@Test
+	void testDuplicateKeyReplaysStoredResult() {
+		OrderIdempotencyService service = service();
+		AtomicInteger executed = new AtomicInteger();
+
+		OrderIdempotencyService.Result first = service.execute(KEY, request(10000L), () -> {
+			executed.incrementAndGet();
+			return response();
+		});
+		OrderIdempotencyService.Result second = service.execute(KEY, request(10000L), () -> {
+			executed.incrementAndGet();
+			return response();
+		});
+		// 다른 노드(로컬 캐시 없음)로 온 재시도는 Redis 에 저장된 결과를 돌려준다
+		OrderIdempotencyService.Result otherNode = service().execute(KEY, request(10000L), () -> {
+			executed.incrementAndGet();
+			return response();
+		});
+
+		assertEquals(1, executed.get());
+		assertFalse(first.isReplayed());
+		assertTrue(second.isReplayed());
+		assertTrue(otherNode.isReplayed());
+		assertEquals(10000L, otherNode.getResponse().getOrderAmount());
+		assertEquals(Duration.ofDays(1), expiries.get(REDIS_KEY));
+
+		// 같은 키로 다른 주문은 거부
+		CustomException exception = assertThrows(CustomException.class,
+				() -> service.execute(KEY, request(20000L), this::response));
+		assertEquals(422, exception.getStatus());
+	}
+
+	@Test
+	void testInFlightKeyUsesShortLease() {
+		OrderIdempotencyService service = service();
+		OrderIdempotencyService otherNode = service();
+
+		service.execute(KEY, request(10000L), () -> {
+			// 처리 중 표시는 lease 동안만 유지
+			assertEquals(Duration.ofSeconds(30), expiries.get(REDIS_KEY));
+			// 처리 중인 키로 다른 노드에 온 같은 주문은 409, 다른 주문은 422
+			CustomException same = assertThrows(CustomException.class,
+					() -> otherNode.execute(KEY, request(10000L), this::response));
+			CustomException different = assertThrows(CustomException.class,
+					() -> otherNode.execute(KEY, request(20000L), this::response));
+			assertEquals(409, same.getStatus());
+			assertEquals(422, different.getStatus());
+			return response();
+		});
+
+		assertEquals(Duration.ofDays(1), expiries.get(REDIS_KEY));
+	}
+
+	@Test
+	void testFailedOrderReleasesKey() {
+		OrderIdempotencyService service = service();
+
+		CustomException exception = assertThrows(CustomException.class,
+				() -> service.execute(KEY, request(10000L), () -> {
+					throw new CustomException(403, "현금 잔액이 부족합니다.");
+				}));
+		assertEquals(403, exception.getStatus());
+		assertFalse(redis.containsKey(REDIS_KEY));
+
+		OrderIdempotencyService.Result retried = service.execute(KEY, request(10000L), this::response);
+		assertFalse(retried.isReplayed());
+	}
+
+	@Test
+	void testExpiredLeaseAllowsRetry() {
+		Object[] pendingMarker = new Object[1];
+		service().execute(KEY, request(10000L), () -> {
+			pendingMarker[0] = redis.get(REDIS_KEY);
+			return response();
+		});
+		assertNotNull(pendingMarker[0]);
+		// 처리 중 표시만 남기고 노드가 죽은 상태
+		redis.put(REDIS_KEY, pendingMarker[0]);
+		OrderIdempotencyService otherNode = service();
+
+		CustomException exception = assertThrows(CustomException.class,
+				() -> otherNode.execute(KEY, request(10000L), this::response));
+		assertEquals(409, exception.getStatus());
+
+		// lease 만료 후에는 다시 실행된다
+		redis.remove(REDIS_KEY);
+		OrderIdempotencyService.Result retried = otherNode.execute(KEY, request(10000L), this::response);
+		assertFalse(retried.isReplayed());
+	}
+
+	@Test
+	void testLeaseRenewedWhileOrderRuns() {
+		OrderIdempotencyService service = service(300L);
+
+		service.execute(KEY, request(10000L), () -> {
+			// lease 보다 오래 걸리는 주문
+			sleep(700);
+			assertEquals(Duration.ofMillis(300), expiries.get(REDIS_KEY));
+			return response();
+		});
+
+		assertTrue(renewals.get() >= 2, "처리하는 동안 만료를 연장");
+		int renewed = renewals.get();
+		sleep(300);
+		assertEquals(renewed, renewals.get(), "결과 저장 후에는 연장하지 않음");
+		assertEquals(Duration.ofDays(1), expiries.get(REDIS_KEY));
+	}
+
+	private OrderIdempotencyService service() {
+		return service(30000L);
+	}
+
+	private OrderIdempotencyService service(long leaseMillis) {
+		return new OrderIdempotencyService(userService, redisTemplate, new ObjectMapper(), new SimpleMeterRegistry(),
+				86400000L, leaseMillis, 1000L);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private CoinSellBuyRequestDto request(long orderAmount) {
+		CoinSellBuyRequestDto request = new CoinSellBuyRequestDto();
+		request.setTicker("BTC");
+		request.setOrderType("buy");
+		request.setOrderAmount(orderAmount);
+		return request;
+	}
+
+	private CoinOrderResponseDto response() {
+		return CoinOrderResponseDto.builder().ticker("BTC").orderType("buy").orderQuantity(0.0001)
+				.orderPrice(100000000.0).orderAmount(10000L).build();
+	}
+}
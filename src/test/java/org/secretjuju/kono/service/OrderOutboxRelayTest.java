@@ -0,0 +1,212 @@
+package org.secretjuju.kono.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.secretjuju.kono.entity.IdBlock;
+import org.secretjuju.kono.entity.OrderOutbox;
+import org.secretjuju.kono.repository.IdBlockRepository;
+import org.secretjuju.kono.repository.OrderOutboxOffsetRepository;
+import org.secretjuju.kono.repository.OrderOutboxRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrderOutboxRelayTest {
+
+	// DB 대신 쓰는 아웃박스 행, 아직 커밋되지 않은 행, 구독자별 위치(다른 인스턴스 것 포함), 다른 인스턴스가 잠근 구독자
+	private final TreeMap<Long, OrderOutbox> outbox = new TreeMap<>();
+	private final Set<Long> uncommitted = ConcurrentHashMap.newKeySet();
+	private final Map<String, Long> offsets = new ConcurrentHashMap<>();
+	private final Set<String> lockedElsewhere = ConcurrentHashMap.newKeySet();
+	private final IdBlock sequenceCounter = new IdBlock();
+	private OrderOutboxRepository outboxRepository;
+	private OrderOutboxOffsetRepository offsetRepository;
+	private IdBlockRepository idBlockRepository;
+
+	@BeforeEach
+	void setUp() {
+		outboxRepository = mock(OrderOutboxRepository.class);
+		when(outboxRepository.lockUnsequenced(anyInt())).thenAnswer(invocation -> outbox.values().stream()
+				.filter(row -> row.getRelaySeq() == null && !uncommitted.contains(row.getId())).map(OrderOutbox::getId)
+				.limit(invocation.<Integer>getArgument(0)).toList());
+		when(outboxRepository.assignSequence(anyLong(), anyLong(), anyList())).thenAnswer(invocation -> {
+			long base = invocation.getArgument(0);
+			long firstId = invocation.getArgument(1);
+			List<Long> ids = invocation.getArgument(2);
+			ids.forEach(id -> outbox.get(id).setRelaySeq(base + id - firstId));
+			return ids.size();
+		});
+		when(outboxRepository.findByRelaySeqGreaterThanOrderByRelaySeqAsc(anyLong(), any(Pageable.class)))
+				.thenAnswer(invocation -> {
+					long after = invocation.getArgument(0);
+					Pageable page = invocation.getArgument(1);
+					return outbox.values().stream().filter(row -> row.getRelaySeq() != null && row.getRelaySeq() > after)
+							.sorted(Comparator.comparing(OrderOutbox::getRelaySeq)).limit(page.getPageSize()).toList();
+				});
+		when(outboxRepository.deleteUpTo(anyLong())).thenAnswer(invocation -> {
+			long upTo = invocation.getArgument(0);
+			int before = outbox.size();
+			outbox.values().removeIf(row -> row.getRelaySeq() != null && row.getRelaySeq() <= upTo);
+			return before - outbox.size();
+		});
+
+		offsetRepository = mock(OrderOutboxOffsetRepository.class);
+		when(offsetRepository.register(anyString()))
+				.thenAnswer(invocation -> offsets.putIfAbsent(invocation.getArgument(0), 0L) == null ? 1 : 0);
+		when(offsetRepository.lockLastSeq(anyString())).thenAnswer(invocation -> {
+			String name = invocation.getArgument(0);
+			return lockedElsewhere.contains(name) ? Optional.empty() : Optional.ofNullable(offsets.get(name));
+		});
+		when(offsetRepository.advance(anyString(), anyLong(), any())).thenAnswer(invocation -> {
+			offsets.put(invocation.getArgument(0), invocation.getArgument(1));
+			return 1;
+		});
+		when(offsetRepository.findMinLastSeq())
+				.thenAnswer(invocation -> offsets.values().stream().min(Long::compare).orElse(null));
+
+		sequenceCounter.setName(OrderOutboxRelay.SEQUENCE_NAME);
+		sequenceCounter.setNextId(1L);
+		idBlockRepository = mock(IdBlockRepository.class);
+		when(idBlockRepository.findByNameWithLock(OrderOutboxRelay.SEQUENCE_NAME))
+				.thenReturn(Optional.of(sequenceCounter));
+	}
+
+	@Test
+	void testFailedSubscriberGetsSameBatchAgain() {
+		OrderOutboxRelay relay = relay(500);
+		addRows(3);
+		List<Long> received = new ArrayList<>();
+		List<Long> retried = new ArrayList<>();
+		AtomicBoolean failOnce = new AtomicBoolean(true);
+		relay.subscribe("statistics", events -> events.forEach(event -> received.add(event.getId())));
+		relay.subscribe("ledger", events -> {
+			if (failOnce.getAndSet(false)) {
+				throw new IllegalStateException("일시적 오류");
+			}
+			events.forEach(event -> retried.add(event.getId()));
+		});
+
+		relay.relayOnce();
+		assertEquals(List.of(1L, 2L, 3L), received);
+		assertTrue(retried.isEmpty());
+		// 실패한 구독자가 받을 때까지 행을 남긴다
+		assertEquals(3, outbox.size());
+
+		relay.relayOnce();
+		assertEquals(List.of(1L, 2L, 3L), received, "성공한 구독자에게는 다시 전달하지 않음");
+		assertEquals(List.of(1L, 2L, 3L), retried);
+		assertTrue(outbox.isEmpty());
+	}
+
+	@Test
+	void testSubscriberLockedByOtherInstanceIsSkipped() {
+		OrderOutboxRelay relay = relay(500);
+		addRows(2);
+		List<Long> received = new ArrayList<>();
+		relay.subscribe("statistics", events -> events.forEach(event -> received.add(event.getId())));
+		offsets.put("statistics", 0L);
+		lockedElsewhere.add("statistics");
+
+		assertEquals(0, relay.relayOnce());
+		assertTrue(received.isEmpty());
+		assertEquals(2, outbox.size());
+
+		lockedElsewhere.clear();
+		assertEquals(2, relay.relayOnce());
+		assertEquals(List.of(1L, 2L), received);
+		assertTrue(outbox.isEmpty());
+	}
+
+	@Test
+	void testRelaysInBatches() {
+		OrderOutboxRelay relay = relay(2);
+		addRows(3);
+		List<List<Long>> batches = new ArrayList<>();
+		relay.subscribe("statistics", events -> batches.add(events.stream().map(OrderEvent::getId).toList()));
+
+		assertEquals(2, relay.relayOnce());
+		assertEquals(1, outbox.size());
+		assertEquals(1, relay.relayOnce());
+		assertEquals(0, relay.relayOnce());
+		assertEquals(List.of(List.of(1L, 2L), List.of(3L)), batches);
+		assertTrue(outbox.isEmpty());
+	}
+
+	@Test
+	void testRowCommittedOutOfIdOrderIsNotSkipped() {
+		OrderOutboxRelay relay = relay(500);
+		addRows(2);
+		List<Long> received = new ArrayList<>();
+		relay.subscribe("statistics", events -> events.forEach(event -> received.add(event.getId())));
+		// id 1 의 주문 트랜잭션이 아직 커밋 전인데 id 2 가 먼저 커밋됨
+		uncommitted.add(1L);
+
+		assertEquals(1, relay.relayOnce());
+		assertEquals(List.of(2L), received);
+		assertTrue(outbox.containsKey(1L), "커밋 전인 행은 위치가 넘어가도 지우지 않음");
+
+		uncommitted.clear();
+		assertEquals(1, relay.relayOnce());
+		assertEquals(List.of(2L, 1L), received);
+		assertTrue(outbox.isEmpty());
+	}
+
+	@Test
+	void testPruneWaitsForSubscribersOfOtherInstances() {
+		OrderOutboxRelay relay = relay(500);
+		addRows(2);
+		relay.subscribe("statistics", events -> {
+		});
+		// 이 인스턴스에는 없는 구독자의 위치
+		offsets.put("ranking", 0L);
+
+		assertEquals(2, relay.relayOnce());
+		assertEquals(2, outbox.size());
+
+		offsets.put("ranking", 2L);
+		relay.relayOnce();
+		assertTrue(outbox.isEmpty());
+	}
+
+	private OrderOutboxRelay relay(int batchSize) {
+		return new OrderOutboxRelay(outboxRepository, offsetRepository, idBlockRepository,
+				mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), true, false, batchSize, 10);
+	}
+
+	private void addRows(int count) {
+		for (int i = 0; i < count; i++) {
+			OrderOutbox row = new OrderOutbox();
+			row.setId((long) outbox.size() + 1);
+			row.setUserId(7);
+			row.setCoinId(1);
+			row.setOrderType("buy");
+			row.setOrderUnits(100_000_000L);
+			row.setOrderPrice(10000.0);
+			row.setOrderAmount(10000L);
+			row.setCreatedAt(ZonedDateTime.now());
+			outbox.put(row.getId(), row);
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package org.secretjuju.kono.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.secretjuju.kono.exception.CustomException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrderSequencerTest {
+
+	@Test
+	void testSameKeyRunsOneAtATime() throws Exception {
+		OrderSequencer sequencer = new OrderSequencer(new SimpleMeterRegistry(), 4, 256, 5000);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		ExecutorService callers = Executors.newFixedThreadPool(8);
+		List<Future<Integer>> results = new ArrayList<>();
+
+		for (int i = 0; i < 100; i++) {
+			int order = i;
+			results.add(callers.submit(() -> sequencer.execute(42L, () -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				Thread.onSpinWait();
+				running.decrementAndGet();
+				return order;
+			})));
+		}
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(i, results.get(i).get(5, TimeUnit.SECONDS));
+		}
+
+		assertEquals(1, maxRunning.get());
+		callers.shutdown();
+		sequencer.shutdown();
+	}
+
+	@Test
+	void testDifferentKeysRunInParallel() throws Exception {
+		OrderSequencer sequencer = new OrderSequencer(new SimpleMeterRegistry(), 4, 256, 5000);
+		// 서로 다른 레인에 배정되는 두 키를 찾는다 (한쪽이 다른 쪽을 기다리면 교착)
+		CountDownLatch bothRunning = new CountDownLatch(2);
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+		long first = 1L;
+		long second = findKeyOnOtherLane(sequencer, first);
+
+		Future<Boolean> a = callers.submit(() -> sequencer.execute(first, () -> awaitQuietly(bothRunning)));
+		Future<Boolean> b = callers.submit(() -> sequencer.execute(second, () -> awaitQuietly(bothRunning)));
+
+		assertTrue(a.get(5, TimeUnit.SECONDS));
+		assertTrue(b.get(5, TimeUnit.SECONDS));
+		callers.shutdown();
+		sequencer.shutdown();
+	}
+
+	@Test
+	void testTaskExceptionIsRethrown() {
+		OrderSequencer sequencer = new OrderSequencer(new SimpleMeterRegistry(), 2, 16, 5000);
+
+		CustomException exception = assertThrows(CustomException.class, () -> sequencer.execute(7L, () -> {
+			throw new CustomException(403, "현금 잔액이 부족합니다.");
+		}));
+
+		assertEquals(403, exception.getStatus());
+		// 같은 레인 안에서 다시 호출해도 교착 없이 실행된다
+		assertEquals(3, sequencer.execute(7L, () -> sequencer.execute(7L, () -> 3)));
+		sequencer.shutdown();
+	}
+
+	private long findKeyOnOtherLane(OrderSequencer sequencer, long key) throws Exception {
+		String laneOfKey = sequencer.execute(key, () -> Thread.currentThread().getName());
+		for (long candidate = key + 1;; candidate++) {
+			if (!laneOfKey.equals(sequencer.execute(candidate, () -> Thread.currentThread().getName()))) {
+				return candidate;
+			}
+		}
+	}
+
+	private boolean awaitQuietly(CountDownLatch latch) {
+		latch.countDown();
+		try {
+			return latch.await(3, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package org.secretjuju.kono.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PriceEventBusTest {
+
+	@Test
+	void testDeliversDeltasInOrder() throws InterruptedException {
+		PriceEventBus bus = new PriceEventBus(new SimpleMeterRegistry());
+		List<Long> epochs = new CopyOnWriteArrayList<>();
+		CountDownLatch received = new CountDownLatch(3);
+		bus.subscribe("test", 16, delta -> {
+			epochs.add(delta.getEpoch());
+			received.countDown();
+		});
+
+		for (long epoch = 1; epoch <= 3; epoch++) {
+			bus.publish(new PriceDelta(0, 100.0, 100.0 + epoch, epoch, epoch));
+		}
+
+		assertTrue(received.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of(1L, 2L, 3L), epochs);
+		bus.shutdown();
+	}
+
+	@Test
+	void testSlowSubscriberDropsOldestDeltas() throws InterruptedException {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		PriceEventBus bus = new PriceEventBus(meterRegistry);
+		List<Long> epochs = new CopyOnWriteArrayList<>();
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		bus.subscribe("slow", 2, delta -> {
+			entered.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			epochs.add(delta.getEpoch());
+		});
+
+		bus.publish(new PriceDelta(0, 0.0, 1.0, 1, 1));
+		assertTrue(entered.await(5, TimeUnit.SECONDS));
+		// 처리 중인 구독자의 큐(크기 2)에 4개를 넣으면 가장 오래된 2개가 버려진다
+		for (long epoch = 2; epoch <= 5; epoch++) {
+			bus.publish(new PriceDelta(0, 1.0, epoch, epoch, epoch));
+		}
+		release.countDown();
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (epochs.size() < 3 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(List.of(1L, 4L, 5L), epochs);
+		assertEquals(2.0, meterRegistry.get("price.bus.dropped").tag("subscriber", "slow").counter().count());
+		bus.shutdown();
+	}
+
+	@Test
+	void testGapCallbackRunsAfterDrop() throws InterruptedException {
+		PriceEventBus bus = new PriceEventBus(new SimpleMeterRegistry());
+		List<Long> epochs = new CopyOnWriteArrayList<>();
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch recovered = new CountDownLatch(1);
+		bus.subscribe("gap", 2, delta -> {
+			entered.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			epochs.add(delta.getEpoch());
+		}, () -> {
+			// 남은 이벤트를 모두 처리한 뒤에 호출된다
+			epochs.add(-1L);
+			recovered.countDown();
+		});
+
+		bus.publish(new PriceDelta(0, 0.0, 1.0, 1, 1));
+		assertTrue(entered.await(5, TimeUnit.SECONDS));
+		for (long epoch = 2; epoch <= 4; epoch++) {
+			bus.publish(new PriceDelta(0, 1.0, epoch, epoch, epoch));
+		}
+		release.countDown();
+
+		assertTrue(recovered.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of(1L, 3L, 4L, -1L), epochs);
+		bus.shutdown();
+	}
+}
@@ -0,0 +1,120 @@
+package org.secretjuju.kono.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class PriceTableTest {
+
+	@Test
+	void testStableSlotPerTicker() {
+		PriceTable table = new PriceTable(8);
+
+		int btc = table.register("BTC");
+		int eth = table.registerMarket("KRW-ETH");
+
+		assertEquals(btc, table.register("BTC"));
+		assertEquals(btc, table.slotOfMarket("KRW-BTC"));
+		assertEquals(eth, table.slotOfTicker("ETH"));
+		assertEquals(-1, table.slotOfTicker("XRP"));
+		assertEquals(-1, table.registerMarket("BTC-ETH"));
+	}
+
+	@Test
+	void testIgnoresOlderPrice() {
+		PriceTable table = new PriceTable(8);
+		int slot = table.register("BTC");
+
+		assertTrue(table.update(slot, 100.0, 2000L));
+		assertFalse(table.update(slot, 90.0, 1000L));
+
+		PriceTable.Reading reading = new PriceTable.Reading();
+		assertTrue(table.read(slot, reading));
+		assertEquals(100.0, reading.getPrice());
+		assertEquals(2000L, reading.getTimestamp());
+	}
+
+	@Test
+	void testExchangeReturnsPreviousPrice() {
+		PriceTable table = new PriceTable(8);
+		int slot = table.register("BTC");
+
+		assertEquals(0.0, table.exchange(slot, 100.0, 1L));
+		assertEquals(100.0, table.exchange(slot, 110.0, 2L));
+		assertTrue(Double.isNaN(table.exchange(slot, 90.0, 1L)));
+		assertEquals(110.0, table.price(slot));
+	}
+
+	@Test
+	void testSnapshotIsImmutable() {
+		PriceTable table = new PriceTable(8);
+		int btc = table.register("BTC");
+		table.update(btc, 100.0, 1L);
+
+		PriceSnapshot snapshot = table.capture();
+		table.update(btc, 120.0, 2L);
+		int eth = table.register("ETH");
+
+		assertEquals(1L, snapshot.getEpoch());
+		assertEquals(100.0, snapshot.price(btc));
+		assertEquals(1L, snapshot.timestamp(btc));
+		assertEquals(0.0, snapshot.price(eth));
+		assertEquals(2L, table.capture().getEpoch());
+	}
+
+	@Test
+	void testMapViewReflectsLatestPrices() {
+		PriceTable table = new PriceTable(8);
+		int btc = table.register("BTC");
+		table.register("ETH"); // 시세 없음
+
+		Map<String, Double> view = table.asMap(true);
+		table.update(btc, 100.0, 1L);
+
+		assertEquals(1, view.size());
+		assertEquals(100.0, view.get("KRW-BTC"));
+		assertNull(view.get("KRW-ETH"));
+
+		table.update(btc, 110.0, 2L);
+		assertEquals(110.0, table.asMap(false).get("BTC"));
+	}
+
+	@Test
+	void testConcurrentReadsAreConsistent() throws InterruptedException {
+		PriceTable table = new PriceTable(1);
+		int slot = table.register("BTC");
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicInteger tornReads = new AtomicInteger();
+
+		// 시세와 시각을 항상 같은 값으로 기록
+		Thread writer = new Thread(() -> {
+			for (long i = 1; i <= 200_000; i++) {
+				table.update(slot, i, i);
+			}
+			running.set(false);
+		});
+		Thread reader = new Thread(() -> {
+			PriceTable.Reading reading = new PriceTable.Reading();
+			while (running.get()) {
+				if (table.read(slot, reading) && reading.getPrice() != reading.getTimestamp()) {
+					tornReads.incrementAndGet();
+				}
+			}
+		});
+
+		reader.start();
+		writer.start();
+		writer.join();
+		reader.join();
+
+		assertEquals(0, tornReads.get());
+		assertEquals(200_000.0, table.price(slot));
+	}
+}
@@ -0,0 +1,43 @@
+package org.secretjuju.kono.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TriggerBookTest {
+
+	@Test
+	void testDrainsOnlyCrossedTriggers() {
+		TriggerBook book = new TriggerBook();
+		book.add(100.0, 1);
+		book.add(300.0, 3);
+		book.add(200.0, 2);
+		book.add(200.0, 4);
+
+		// 시세가 250 으로 내려오면 트리거 250 이상인 주문만 발동
+		assertArrayEquals(new long[]{3}, book.drainAtOrAbove(250.0));
+		assertArrayEquals(new long[0], book.drainAtOrAbove(250.0));
+		// 같은 가격은 먼저 넣은 주문부터
+		assertArrayEquals(new long[]{2, 4}, book.drainAtOrAbove(200.0));
+		assertEquals(1, book.size());
+	}
+
+	@Test
+	void testRemoveAndGrow() {
+		TriggerBook book = new TriggerBook();
+		for (int i = 0; i < 100; i++) {
+			book.add(i, i);
+		}
+
+		assertTrue(book.remove(50.0, 50));
+		assertFalse(book.remove(50.0, 50));
+		assertFalse(book.remove(51.0, 50));
+
+		assertEquals(99, book.size());
+		assertEquals(49, book.drainAtOrAbove(50.0).length);
+		assertEquals(50, book.size());
+	}
+}
@@ -0,0 +1,158 @@
+package org.secretjuju.kono.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// 스텁 피드로 시세를 밀어넣고 연결 끊김/실패/무응답을 흉내낸다
+class UpbitPriceStreamServiceTest {
+
+	private static final List<String> MARKETS = List.of("KRW-BTC", "KRW-ETH");
+
+	private RecordingTransport transport;
+	private CoinPriceService coinPriceService;
+	private SimpleMeterRegistry meterRegistry;
+	private UpbitPriceStreamService service;
+
+	// 연결 시도를 기록하고, 지정한 횟수만큼 연결에 실패하는 스텁 피드
+	private static final class RecordingTransport extends StubPriceFeedTransport {
+		private final List<Long> attemptNanos = new CopyOnWriteArrayList<>();
+		private final List<List<String>> subscriptions = new CopyOnWriteArrayList<>();
+		private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+		private final AtomicInteger failuresLeft = new AtomicInteger();
+
+		private RecordingTransport() {
+			super(0);
+		}
+
+		@Override
+		public Connection connect(List<String> markets, Listener listener) {
+			attemptNanos.add(System.nanoTime());
+			if (failuresLeft.getAndDecrement() > 0) {
+				throw new IllegalStateException("연결 거부");
+			}
+			subscriptions.add(List.copyOf(markets));
+			listeners.add(listener);
+			return super.connect(markets, listener);
+		}
+	}
+
+	@BeforeEach
+	void setUp() {
+		transport = new RecordingTransport();
+		coinPriceService = mock(CoinPriceService.class);
+		when(coinPriceService.getAllMarkets()).thenReturn(MARKETS);
+		meterRegistry = new SimpleMeterRegistry();
+		service = new UpbitPriceStreamService(transport, coinPriceService, meterRegistry);
+		ReflectionTestUtils.setField(service, "enabled", true);
+		ReflectionTestUtils.setField(service, "staleThresholdMillis", 10_000L);
+		ReflectionTestUtils.setField(service, "minBackoffMillis", 100L);
+		ReflectionTestUtils.setField(service, "maxBackoffMillis", 400L);
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.stop();
+	}
+
+	@Test
+	void testTicksReachPriceTable() throws InterruptedException {
+		service.start();
+		await(() -> transport.subscriptions.size() == 1);
+
+		transport.emit("KRW-BTC", 100.0, 0.5, 2_000L);
+		transport.emit("KRW-BTC", 99.0, 0.1, 1_000L);
+		verify(coinPriceService).applyTick("KRW-BTC", 100.0, 0.5, 2_000L);
+		verify(coinPriceService).applyTick("KRW-BTC", 99.0, 0.1, 1_000L);
+		assertEquals(2, meterRegistry.counter("upbit.stream.messages").count());
+		assertEquals(1, meterRegistry.counter("upbit.stream.out_of_order").count());
+		assertTrue(service.isHealthy());
+	}
+
+	@Test
+	void testDisconnectResubscribesAndBackfills() throws InterruptedException {
+		service.start();
+		await(() -> transport.subscriptions.size() == 1);
+		verify(coinPriceService, timeout(1000)).updateAllCoinPrices();
+		PriceFeedTransport.Listener first = transport.listeners.get(0);
+
+		transport.dropConnection(new IOException("연결 끊김"));
+		// 끊긴 동안의 시세는 스트림으로 받지 못한다
+		transport.emit("KRW-ETH", 50.0, 1.0, 1_000L);
+		verify(coinPriceService, never()).applyTick(eq("KRW-ETH"), anyDouble(), anyDouble(), anyLong());
+
+		// 첫 재시도는 최소 백오프의 절반 ~ 최소 백오프 사이
+		await(() -> transport.subscriptions.size() == 2);
+		long waitedMillis = (transport.attemptNanos.get(1) - transport.attemptNanos.get(0)) / 1_000_000;
+		assertTrue(waitedMillis >= 50, "재연결 대기 " + waitedMillis + "ms");
+		assertEquals(MARKETS, transport.subscriptions.get(1));
+		// 재연결하면 놓친 구간을 REST 일괄 조회로 메운다
+		verify(coinPriceService, timeout(1000).times(2)).updateAllCoinPrices();
+		assertEquals(1, meterRegistry.counter("upbit.stream.reconnects").count());
+
+		// 이전 연결에서 늦게 도착한 시세는 무시
+		first.onTick("KRW-ETH", 49.0, 1.0, 2_000L);
+		verify(coinPriceService, never()).applyTick(eq("KRW-ETH"), anyDouble(), anyDouble(), anyLong());
+		transport.emit("KRW-ETH", 51.0, 1.0, 3_000L);
+		verify(coinPriceService).applyTick("KRW-ETH", 51.0, 1.0, 3_000L);
+	}
+
+	@Test
+	void testFailedConnectsBackOffExponentially() throws InterruptedException {
+		transport.failuresLeft.set(3);
+		service.start();
+		await(() -> transport.subscriptions.size() == 1);
+
+		assertEquals(4, transport.attemptNanos.size());
+		// 시도마다 대기 하한(백오프의 절반)이 두 배로: 50, 100, 200ms
+		for (int attempt = 1; attempt < 4; attempt++) {
+			long waitedMillis = (transport.attemptNanos.get(attempt) - transport.attemptNanos.get(attempt - 1))
+					/ 1_000_000;
+			long minimum = Math.min(400, 100L << (attempt - 1)) / 2;
+			assertTrue(waitedMillis >= minimum, attempt + "번째 재시도 대기 " + waitedMillis + "ms");
+		}
+		verify(coinPriceService, timeout(1000)).updateAllCoinPrices();
+		assertTrue(service.isHealthy());
+	}
+
+	@Test
+	void testSilentStreamReconnectsAfterGap() throws InterruptedException {
+		ReflectionTestUtils.setField(service, "staleThresholdMillis", 1_000L);
+		service.start();
+		await(() -> transport.subscriptions.size() == 1);
+
+		// 메시지가 없으면 상태 점검(1초 주기)에서 갭으로 보고 재구독
+		await(() -> transport.subscriptions.size() == 2);
+		assertEquals(1, meterRegistry.counter("upbit.stream.gaps").count());
+		assertEquals(MARKETS, transport.subscriptions.get(1));
+		verify(coinPriceService, timeout(1000).times(2)).updateAllCoinPrices();
+	}
+
+	private void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "5초 안에 조건을 만족하지 못함");
+			Thread.sleep(5);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package org.secretjuju.kono.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.secretjuju.kono.dto.response.TickerResponse;
+import org.secretjuju.kono.exception.CustomException;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// 로컬 스텁 HTTP 서버로 업비트 응답 지연/장애를 흉내낸다
+class UpbitServiceTest {
+
+	private HttpServer server;
+	private final AtomicInteger requests = new AtomicInteger();
+	private volatile int status = 200;
+	// 첫 요청만 이 시간만큼 늦게 응답
+	private volatile long firstRequestDelayMillis;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/v1/ticker", exchange -> {
+			int number = requests.incrementAndGet();
+			if (number == 1 && firstRequestDelayMillis > 0) {
+				try {
+					Thread.sleep(firstRequestDelayMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			byte[] body = ("[{\"market\":\"KRW-BTC\",\"trade_price\":" + (100.0 + number) + ",\"timestamp\":"
+					+ System.currentTimeMillis() + "}]").getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		server.stop(0);
+	}
+
+	private UpbitService newService(long hedgeDelayMillis, int failureThreshold) {
+		String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+		return new UpbitService(new RestTemplate(), new UpbitRequestBudget(100), new SimpleMeterRegistry(), url, 1000,
+				hedgeDelayMillis, 4, failureThreshold, 60_000);
+	}
+
+	@Test
+	void testReturnsTicker() {
+		UpbitService upbitService = newService(0, 3);
+
+		TickerResponse ticker = upbitService.getTicker("KRW-BTC");
+
+		assertEquals(101.0, ticker.getTrade_price());
+		assertFalse(ticker.isStale());
+	}
+
+	@Test
+	void testFallsBackToLastGoodPriceWhenCircuitOpens() {
+		UpbitService upbitService = newService(0, 2);
+		upbitService.getTicker("KRW-BTC");
+
+		status = 500;
+		TickerResponse first = upbitService.getTicker("KRW-BTC");
+		upbitService.getTicker("KRW-BTC");
+		assertEquals(CircuitBreaker.State.OPEN, upbitService.getCircuitState());
+
+		// 서킷이 열려 있으면 업비트를 호출하지 않고 마지막 정상 시세를 반환
+		int before = requests.get();
+		TickerResponse fallback = upbitService.getTicker("KRW-BTC");
+		assertEquals(before, requests.get());
+		assertTrue(first.isStale());
+		assertTrue(fallback.isStale());
+		assertEquals(101.0, fallback.getTrade_price());
+	}
+
+	@Test
+	void testServiceUnavailableWithoutLastGoodPrice() {
+		UpbitService upbitService = newService(0, 3);
+		status = 500;
+
+		CustomException exception = assertThrows(CustomException.class, () -> upbitService.getTicker("KRW-BTC"));
+		assertEquals(503, exception.getStatus());
+	}
+
+	@Test
+	void testHedgedRequestWinsOverSlowRequest() {
+		UpbitService upbitService = newService(100, 3);
+		firstRequestDelayMillis = 800;
+
+		long startedAt = System.currentTimeMillis();
+		TickerResponse ticker = upbitService.getTicker("KRW-BTC");
+
+		assertTrue(System.currentTimeMillis() - startedAt < 700);
+		assertEquals(102.0, ticker.getTrade_price());
+		assertFalse(ticker.isStale());
+	}
+}